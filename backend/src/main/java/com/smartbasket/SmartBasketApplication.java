@@ -2,10 +2,12 @@ package com.smartbasket;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SmartBasketApplication {
-
+    
     public static void main(String[] args) {
         SpringApplication.run(SmartBasketApplication.class, args);
     }
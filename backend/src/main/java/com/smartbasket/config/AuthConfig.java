@@ -0,0 +1,108 @@
+package com.smartbasket.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartbasket.service.RateLimiter;
+import com.smartbasket.service.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.util.Map;
+
+@Configuration
+public class AuthConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    // Off until the frontend sends the token it gets at login
+    @Value("${smartbasket.auth.require-token:false}")
+    private boolean requireToken;
+    
+    /**
+     * BCrypt with a configurable cost. Each step doubles the work per login;
+     * hashes made at a lower cost are upgraded the next time the user logs in.
+     */
+    @Bean
+    @ConditionalOnMissingBean(PasswordEncoder.class)
+    public PasswordEncoder passwordEncoder(
+            @Value("${smartbasket.auth.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<AuthRateLimitFilter> authRateLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${smartbasket.rate-limit.ip-per-minute:60}") int ipPerMinute,
+            @Value("${smartbasket.rate-limit.ip-burst:20}") int ipBurst,
+            @Value("${smartbasket.rate-limit.account-per-minute:10}") int accountPerMinute,
+            @Value("${smartbasket.rate-limit.account-burst:5}") int accountBurst,
+            @Value("${smartbasket.rate-limit.max-keys:100000}") int maxKeys) {
+        AuthRateLimitFilter filter = new AuthRateLimitFilter(
+                new RateLimiter(ipPerMinute, ipBurst, maxKeys),
+                new RateLimiter(accountPerMinute, accountBurst, maxKeys),
+                objectMapper);
+        FilterRegistrationBean<AuthRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/auth/login", "/api/auth/login/phone", "/api/auth/register");
+        // Behind the CORS filter, so a 429 still tells the browser which origin may read it
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!requireToken) {
+            return;
+        }
+        registry.addInterceptor(new UserTokenInterceptor(tokenService))
+                .addPathPatterns("/api/auth/user/**", "/api/cart/**", "/api/orders/user/**", "/api/orders/*/create");
+    }
+    
+    /**
+     * Rejects calls on a {userId} path unless they carry a token issued to
+     * that user.
+     */
+    static final class UserTokenInterceptor implements HandlerInterceptor {
+        
+        private final TokenService tokenService;
+        
+        UserTokenInterceptor(TokenService tokenService) {
+            this.tokenService = tokenService;
+        }
+        
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if ("OPTIONS".equals(request.getMethod())) {
+                return true;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            String pathUser = variables == null ? null : variables.get("userId");
+            if (pathUser == null) {
+                return true;
+            }
+            Long tokenUser = tokenService.verify(TokenService.fromHeader(request.getHeader(HttpHeaders.AUTHORIZATION)));
+            if (tokenUser == null) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return false;
+            }
+            if (!pathUser.equals(tokenUser.toString())) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return false;
+            }
+            return true;
+        }
+    }
+}
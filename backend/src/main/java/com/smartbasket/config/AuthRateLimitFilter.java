@@ -0,0 +1,182 @@
+package com.smartbasket.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartbasket.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Throttles the login, OTP and register endpoints before they reach a
+ * controller. Every request takes a token from its client IP's bucket, then
+ * from the bucket of the email or phone in the body, so one address can't
+ * spray many accounts and many addresses can't hammer one account. Refused
+ * requests get 429 with Retry-After and never touch the database.
+ *
+ * The client IP is the socket address; behind a proxy, configure the
+ * container's remote IP handling so it reflects the real client.
+ */
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    
+    private final RateLimiter ipLimiter;
+    private final RateLimiter identityLimiter;
+    private final ObjectMapper objectMapper;
+    
+    public AuthRateLimitFilter(RateLimiter ipLimiter, RateLimiter identityLimiter, ObjectMapper objectMapper) {
+        this.ipLimiter = ipLimiter;
+        this.identityLimiter = identityLimiter;
+        this.objectMapper = objectMapper;
+    }
+    
+    public RateLimiter getIpLimiter() {
+        return ipLimiter;
+    }
+    
+    public RateLimiter getIdentityLimiter() {
+        return identityLimiter;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = ipLimiter.acquire(request.getRemoteAddr());
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        String identity = identity(body);
+        if (identity != null) {
+            wait = identityLimiter.acquire(identity);
+            if (wait > 0) {
+                reject(response, wait);
+                return;
+            }
+        }
+        chain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+    
+    // "email:..." or "phone:...", normalised so case and formatting don't open new buckets
+    private String identity(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(body);
+        } catch (IOException e) {
+            // Let the controller report the malformed request
+            return null;
+        }
+        if (json == null) {
+            return null;
+        }
+        String phone = json.path("phone").asText("");
+        if (!phone.isEmpty()) {
+            return "phone:" + phone.replaceAll("\\D", "");
+        }
+        String email = json.path("email").asText("");
+        if (!email.isEmpty()) {
+            return "email:" + email.trim().toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+    
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many attempts, retry in " + seconds + " s\",\"success\":false}");
+    }
+    
+    /**
+     * Replays a body the filter already read.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+                
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                // The whole body is already in memory, so it is all available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+        
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
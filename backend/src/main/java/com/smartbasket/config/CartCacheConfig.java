@@ -0,0 +1,25 @@
+package com.smartbasket.config;
+
+import com.smartbasket.service.CartCache;
+import com.smartbasket.service.LocalCartCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the in-process {@link LocalCartCache}. Setting
+ * {@code smartbasket.cart-cache.type} to anything but {@code local} turns it
+ * off, so that another {@link CartCache} bean can take its place.
+ */
+@Configuration
+@ConditionalOnProperty(name = "smartbasket.cart-cache.type", havingValue = "local", matchIfMissing = true)
+public class CartCacheConfig {
+    
+    @Bean
+    public CartCache cartCache(
+            @Value("${smartbasket.cart-cache.max-entries:10000}") int maxEntries,
+            @Value("${smartbasket.cart-cache.ttl-seconds:300}") long ttlSeconds) {
+        return new LocalCartCache(maxEntries, ttlSeconds);
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartbasket.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps about one in {@code keepOneIn} lines below WARN from the loggers
+ * under {@code logger}; WARN and ERROR always pass. Declared as a turbo
+ * filter in logback-spring.xml, once per sampled logger, so dropped lines
+ * are rejected before an event is built or formatted.
+ *
+ * Sampling is random rather than every Nth line, so request threads don't
+ * contend on a shared counter.
+ */
+public class LogSamplingFilter extends TurboFilter {
+    
+    private String logger;
+    private int keepOneIn = 1;
+    
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+    
+    public void setKeepOneIn(int keepOneIn) {
+        this.keepOneIn = keepOneIn;
+    }
+    
+    @Override
+    public void start() {
+        if (logger == null || logger.isEmpty()) {
+            addError("No logger set for " + getName());
+            return;
+        }
+        if (keepOneIn < 1) {
+            addError("keepOneIn must be at least 1, was " + keepOneIn);
+            return;
+        }
+        super.start();
+    }
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger log, Level level, String format, Object[] params, Throwable t) {
+        // A null format is an isXxxEnabled() check, not a line
+        if (keepOneIn == 1 || format == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!log.getName().startsWith(logger) || !level.isGreaterOrEqual(log.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(keepOneIn) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
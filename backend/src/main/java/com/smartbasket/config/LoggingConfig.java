@@ -0,0 +1,23 @@
+package com.smartbasket.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Request-scoped logging context. Appenders, the JSON layout and sampling
+ * are configured in logback-spring.xml.
+ */
+@Configuration
+public class LoggingConfig {
+    
+    // First in the chain, so lines from the rate limiter and everything after it carry the id
+    @Bean
+    public FilterRegistrationBean<RequestLoggingFilter> requestLoggingFilter() {
+        FilterRegistrationBean<RequestLoggingFilter> registration = new FilterRegistrationBean<>(new RequestLoggingFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
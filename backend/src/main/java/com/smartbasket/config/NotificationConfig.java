@@ -0,0 +1,20 @@
+package com.smartbasket.config;
+
+import com.smartbasket.service.LoggingNotificationSender;
+import com.smartbasket.service.NotificationSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.nio.file.Path;
+
+@Configuration
+public class NotificationConfig {
+    
+    @Bean
+    @ConditionalOnMissingBean(NotificationSender.class)
+    public NotificationSender notificationSender(
+            @Value("${smartbasket.notifications.log-file:}") String logFile) {
+        return new LoggingNotificationSender(logFile.isBlank() ? null : Path.of(logFile));
+    }
+}
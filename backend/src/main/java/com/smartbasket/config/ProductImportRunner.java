@@ -0,0 +1,69 @@
+package com.smartbasket.config;
+
+import com.smartbasket.dto.ImportReport;
+import com.smartbasket.service.ProductImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports a catalog file at startup when {@code smartbasket.import.file} is
+ * set, then exits with status 0, or 1 if the import failed, e.g.
+ * {@code java -jar app.jar --smartbasket.import.file=catalog.csv.gz --spring.main.web-application-type=none}.
+ * The format follows the file name (.csv, .ndjson or .jsonl, optionally
+ * .gz) unless {@code smartbasket.import.format} says otherwise.
+ */
+@Component
+@ConditionalOnProperty(name = "smartbasket.import.file")
+public class ProductImportRunner implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportRunner.class);
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ConfigurableApplicationContext context;
+    
+    @Value("${smartbasket.import.file}")
+    private Path file;
+    
+    @Value("${smartbasket.import.format:}")
+    private String format;
+    
+    @Value("${smartbasket.import.exit-when-done:true}")
+    private boolean exitWhenDone;
+    
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String name = file.getFileName().toString();
+        ProductImportService.Format resolved = ProductImportService.Format.of(format.isBlank() ? name : format);
+        if (resolved == null) {
+            throw new IllegalArgumentException("Can't tell the format of " + file + "; set smartbasket.import.format");
+        }
+        ImportReport report;
+        try (InputStream in = name.endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(file), 64 * 1024)
+                : Files.newInputStream(file)) {
+            report = productImportService.importProducts(in, resolved);
+        }
+        for (String reject : report.getRejectSamples()) {
+            logger.warn("Rejected {}", reject);
+        }
+        if (exitWhenDone) {
+            int status = "COMPLETED".equals(report.getStatus()) ? 0 : 1;
+            System.exit(SpringApplication.exit(context, () -> status));
+        }
+    }
+}
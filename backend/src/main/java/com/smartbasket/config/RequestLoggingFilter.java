@@ -0,0 +1,77 @@
+package com.smartbasket.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a correlation id, the method and the path in the MDC for the whole
+ * request, so every line logged while handling it carries them, and logs
+ * one completion line with the status and duration. The id is taken from
+ * an incoming X-Correlation-Id header when it looks sane, otherwise made
+ * up, and is echoed on the response.
+ *
+ * Completion lines for server errors are WARN; the rest are INFO and are
+ * sampled in logback-spring.xml.
+ */
+public class RequestLoggingFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    
+    static final String HEADER = "X-Correlation-Id";
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String correlationId = request.getHeader(HEADER);
+        if (correlationId == null || !VALID_ID.matcher(correlationId).matches()) {
+            correlationId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        response.setHeader(HEADER, correlationId);
+        MDC.put("correlationId", correlationId);
+        MDC.put("method", request.getMethod());
+        MDC.put("path", request.getRequestURI());
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            // Streams outlive this call; their duration here would only be the setup
+            if (!request.isAsyncStarted()) {
+                logCompletion(request, status, (System.nanoTime() - start) / 1_000_000);
+            }
+            MDC.remove("correlationId");
+            MDC.remove("method");
+            MDC.remove("path");
+        }
+    }
+    
+    private static void logCompletion(HttpServletRequest request, int status, long millis) {
+        boolean serverError = status >= 500;
+        if (!(serverError ? logger.isWarnEnabled() : logger.isInfoEnabled())) {
+            return;
+        }
+        MDC.put("status", String.valueOf(status));
+        MDC.put("durationMs", String.valueOf(millis));
+        try {
+            if (serverError) {
+                logger.warn("{} {} -> {} in {} ms", request.getMethod(), request.getRequestURI(), status, millis);
+            } else {
+                logger.info("{} {} -> {} in {} ms", request.getMethod(), request.getRequestURI(), status, millis);
+            }
+        } finally {
+            MDC.remove("status");
+            MDC.remove("durationMs");
+        }
+    }
+}
@@ -2,21 +2,26 @@ package com.smartbasket.controller;
 
 import com.smartbasket.dto.AuthRequest;
 import com.smartbasket.dto.AuthResponse;
+import com.smartbasket.dto.UserLookupStats;
 import com.smartbasket.entity.User;
 import com.smartbasket.service.AuthService;
+import com.smartbasket.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/auth")
-@CrossOrigin(origins = {"http://localhost:8080", "http://localhost:5173"})
 public class AuthController {
     
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private TokenService tokenService;
+    
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody AuthRequest request) {
         try {
@@ -30,6 +35,7 @@ public class AuthController {
                     "Registration successful",
                     true
             );
+            response.setToken(tokenService.issue(user.getId()));
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
             AuthResponse response = new AuthResponse(
@@ -58,6 +64,7 @@ public class AuthController {
                     "Login successful",
                     true
             );
+            response.setToken(tokenService.issue(user.getId()));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             AuthResponse response = new AuthResponse(
@@ -106,6 +113,7 @@ public class AuthController {
                     "Login successful",
                     true
             );
+            response.setToken(tokenService.issue(user.getId()));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             AuthResponse response = new AuthResponse(
@@ -121,6 +129,26 @@ public class AuthController {
         }
     }
     
+    /**
+     * Checks an {@code Authorization: Bearer <token>} header and returns the
+     * user it was issued to.
+     */
+    @GetMapping("/verify")
+    public ResponseEntity<AuthResponse> verify(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Long userId = tokenService.verify(TokenService.fromHeader(authorization));
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                new AuthResponse(null, null, null, null, null, "Invalid or expired token", false)
+            );
+        }
+        return ResponseEntity.ok(new AuthResponse(userId, null, null, null, null, "Token valid", true));
+    }
+    
+    @GetMapping("/lookup-cache/stats")
+    public ResponseEntity<UserLookupStats> getLookupStats() {
+        return ResponseEntity.ok(authService.getLookupStats());
+    }
+    
     @GetMapping("/user/{userId}")
     public ResponseEntity<User> getUserProfile(@PathVariable Long userId) {
         return authService.getUserById(userId)
@@ -1,37 +1,36 @@
 package com.smartbasket.controller;
 
+import com.smartbasket.dto.BasketOptimizationResponse;
+import com.smartbasket.dto.CartBatchRequest;
 import com.smartbasket.dto.CartItemRequest;
 import com.smartbasket.dto.CartItemResponse;
-import com.smartbasket.entity.CartItem;
+import com.smartbasket.dto.PriceComparisonResponse;
+import com.smartbasket.dto.ProductSuggestion;
 import com.smartbasket.service.CartService;
+import com.smartbasket.service.PriceComparisonService;
+import com.smartbasket.service.SuggestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/cart")
-@CrossOrigin(origins = {"http://localhost:8080", "http://localhost:5173"})
 public class CartController {
     
     @Autowired
     private CartService cartService;
     
+    @Autowired
+    private PriceComparisonService priceComparisonService;
+    
+    @Autowired
+    private SuggestionService suggestionService;
+    
     @GetMapping("/{userId}")
     public ResponseEntity<List<CartItemResponse>> getCart(@PathVariable Long userId) {
-        List<CartItem> items = cartService.getCart(userId);
-        List<CartItemResponse> response = items.stream()
-                .map(item -> new CartItemResponse(
-                        item.getId(),
-                        item.getProduct().getId(),
-                        item.getProduct().getName(),
-                        item.getQuantity(),
-                        item.getPrice()
-                ))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(cartService.getCart(userId));
     }
     
     @PostMapping("/{userId}/add")
@@ -39,14 +38,7 @@ public class CartController {
             @PathVariable Long userId,
             @RequestBody CartItemRequest request) {
         try {
-            CartItem item = cartService.addToCart(userId, request.getProductId(), request.getQuantity());
-            CartItemResponse response = new CartItemResponse(
-                    item.getId(),
-                    item.getProduct().getId(),
-                    item.getProduct().getName(),
-                    item.getQuantity(),
-                    item.getPrice()
-            );
+            CartItemResponse response = cartService.addToCart(userId, request.getProductId(), request.getQuantity());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -59,25 +51,33 @@ public class CartController {
             @PathVariable Long cartItemId,
             @RequestBody CartItemRequest request) {
         try {
-            CartItem item = cartService.updateCartItem(cartItemId, request.getQuantity());
-            CartItemResponse response = new CartItemResponse(
-                    item.getId(),
-                    item.getProduct().getId(),
-                    item.getProduct().getName(),
-                    item.getQuantity(),
-                    item.getPrice()
-            );
+            CartItemResponse response = cartService.updateCartItem(cartItemId, request.getQuantity());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @PostMapping("/{userId}/batch")
+    public ResponseEntity<List<CartItemResponse>> applyBatch(
+            @PathVariable Long userId,
+            @RequestBody CartBatchRequest request) {
+        try {
+            if (request.getOperations() == null || request.getOperations().isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            cartService.applyBatch(userId, request.getOperations());
+            return ResponseEntity.ok(cartService.getCart(userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @DeleteMapping("/{userId}/remove/{cartItemId}")
     public ResponseEntity<Void> removeFromCart(
             @PathVariable Long userId,
             @PathVariable Long cartItemId) {
-        cartService.removeFromCart(cartItemId);
+        cartService.removeFromCart(userId, cartItemId);
         return ResponseEntity.noContent().build();
     }
     
@@ -86,4 +86,26 @@ public class CartController {
         cartService.clearCart(userId);
         return ResponseEntity.noContent().build();
     }
+    
+    @GetMapping("/{userId}/compare")
+    public ResponseEntity<PriceComparisonResponse> compareCart(@PathVariable Long userId) {
+        return ResponseEntity.ok(priceComparisonService.compareCart(userId));
+    }
+    
+    @GetMapping("/{userId}/optimize")
+    public ResponseEntity<BasketOptimizationResponse> optimizeCart(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer maxDeliveryMinutes) {
+        return ResponseEntity.ok(priceComparisonService.optimizeCart(userId, maxDeliveryMinutes));
+    }
+    
+    /**
+     * Products most often bought together with what's in the cart.
+     */
+    @GetMapping("/{userId}/suggestions")
+    public ResponseEntity<List<ProductSuggestion>> getSuggestions(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionService.getCartSuggestions(userId, limit));
+    }
 }
@@ -1,19 +1,29 @@
 package com.smartbasket.controller;
 
+import com.smartbasket.dto.NotificationStats;
+import com.smartbasket.dto.OrderDetail;
 import com.smartbasket.dto.OrderRequest;
+import com.smartbasket.dto.OrderSummary;
+import com.smartbasket.dto.PageResponse;
 import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OrderEvent;
+import com.smartbasket.entity.OrderStatus;
+import com.smartbasket.service.NotificationService;
+import com.smartbasket.service.OrderEventBus;
 import com.smartbasket.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
-@CrossOrigin(origins = {"http://localhost:8080", "http://localhost:5173"})
 public class OrderController {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
@@ -21,26 +31,45 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private OrderEventBus orderEventBus;
+    
+    /**
+     * Order history newest first, in keyset pages of {@link OrderSummary}.
+     * Pass the previous page's {@code nextCursor} to continue.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUser(@PathVariable Long userId) {
+    public ResponseEntity<PageResponse<OrderSummary>> getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            logger.info("Fetching orders for user: {}", userId);
-            List<Order> orders = orderService.getOrdersByUser(userId);
-            logger.info("Retrieved {} orders for user: {}", orders.size(), userId);
-            return ResponseEntity.ok(orders);
+            logger.debug("Fetching orders for user: {}", userId);
+            PageResponse<OrderSummary> page = orderService.getOrderHistory(userId, cursor, limit);
+            logger.debug("Retrieved {} orders for user: {}", page.getItems().size(), userId);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid order history cursor for user: {}", userId);
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error fetching orders for user: {}", userId, e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * The order with the line items snapshotted at checkout.
+     */
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<OrderDetail> getOrderById(@PathVariable Long orderId) {
         try {
-            logger.info("Fetching order with id: {}", orderId);
-            return orderService.getOrderById(orderId)
+            logger.debug("Fetching order with id: {}", orderId);
+            return orderService.getOrderDetail(orderId)
                     .map(order -> {
-                        logger.info("Found order: {}", order.getId());
+                        logger.debug("Found order: {}", order.getId());
                         return ResponseEntity.ok(order);
                     })
                     .orElseGet(() -> {
@@ -58,14 +87,13 @@ public class OrderController {
             @PathVariable Long userId,
             @RequestBody OrderRequest request) {
         try {
-            logger.info("Creating order for user: {} with total amount: {}", userId, request.getTotalAmount());
+            logger.debug("Creating order for user: {}", userId);
             Order order = orderService.createOrder(
                     userId,
-                    request.getTotalAmount() != null ? request.getTotalAmount() : java.math.BigDecimal.ZERO,
                     request.getShippingAddress(),
                     request.getPaymentMethod()
             );
-            logger.info("Order created successfully with id: {}", order.getId());
+            logger.info("Order created successfully with id: {} and total amount: {}", order.getId(), order.getTotalAmount());
             return ResponseEntity.status(HttpStatus.CREATED).body(order);
         } catch (Exception e) {
             logger.error("Error creating order for user: {}", userId, e);
@@ -78,13 +106,51 @@ public class OrderController {
             @PathVariable Long orderId,
             @RequestParam String status) {
         try {
-            logger.info("Updating order {} status to: {}", orderId, status);
+            logger.debug("Updating order {} status to: {}", orderId, status);
             Order updated = orderService.updateOrderStatus(orderId, status);
             logger.info("Order {} status updated successfully", orderId);
             return ResponseEntity.ok(updated);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown status {} for order {}", status, orderId);
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             logger.error("Error updating order {} status", orderId, e);
             return ResponseEntity.notFound().build();
         }
     }
+    
+    /**
+     * Live status updates for one order as Server-Sent Events, replacing
+     * polling of {@code GET /api/orders/{orderId}}.
+     */
+    @GetMapping(value = "/{orderId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrder(@PathVariable Long orderId) {
+        return orderEventBus.subscribe(orderId, () -> orderService.getOrderById(orderId))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/{orderId}/events")
+    public ResponseEntity<List<OrderEvent>> getOrderEvents(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.getOrderEvents(orderId));
+    }
+    
+    /**
+     * Notification delivery counts, outbox backlog and send throughput.
+     */
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<NotificationStats> getNotificationStats() {
+        return ResponseEntity.ok(notificationService.getStats());
+    }
+    
+    /**
+     * Orders per status for dashboards, served from in-memory counters.
+     */
+    @GetMapping("/status-counts")
+    public ResponseEntity<Map<OrderStatus, Long>> getStatusCounts() {
+        return ResponseEntity.ok(orderService.getStatusCounts());
+    }
 }
@@ -1,17 +1,17 @@
 package com.smartbasket.controller;
 
 import com.smartbasket.entity.Platform;
+import com.smartbasket.service.EncodedResponse;
 import com.smartbasket.service.PlatformService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/platforms")
-@CrossOrigin(origins = {"http://localhost:8080", "http://localhost:5173", "http://10.0.2.2:8081"})
 public class PlatformController {
     
     private static final Logger logger = LoggerFactory.getLogger(PlatformController.class);
@@ -19,13 +19,18 @@ public class PlatformController {
     @Autowired
     private PlatformService platformService;
     
+    /**
+     * Served from pre-serialized bytes. Spring answers a matching
+     * If-None-Match with 304 and no body.
+     */
     @GetMapping
-    public ResponseEntity<List<Platform>> getAllPlatforms() {
+    public ResponseEntity<byte[]> getAllPlatforms() {
         try {
-            logger.info("Fetching all platforms");
-            List<Platform> platforms = platformService.getAllPlatforms();
-            logger.info("Retrieved {} platforms", platforms.size());
-            return ResponseEntity.ok(platforms);
+            EncodedResponse platforms = platformService.getAllPlatformsJson();
+            return ResponseEntity.ok()
+                    .eTag(platforms.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(platforms.getBody());
         } catch (Exception e) {
             logger.error("Error fetching platforms", e);
             return ResponseEntity.internalServerError().build();
@@ -35,12 +40,8 @@ public class PlatformController {
     @GetMapping("/{id}")
     public ResponseEntity<Platform> getPlatformById(@PathVariable Long id) {
         try {
-            logger.info("Fetching platform with id: {}", id);
             return platformService.getPlatformById(id)
-                    .map(platform -> {
-                        logger.info("Found platform: {}", platform.getName());
-                        return ResponseEntity.ok(platform);
-                    })
+                    .map(ResponseEntity::ok)
                     .orElseGet(() -> {
                         logger.warn("Platform not found with id: {}", id);
                         return ResponseEntity.notFound().build();
@@ -1,45 +1,249 @@
 package com.smartbasket.controller;
 
+import com.smartbasket.dto.ImportReport;
+import com.smartbasket.dto.PlatformPriceRequest;
+import com.smartbasket.dto.PriceComparisonResponse;
+import com.smartbasket.dto.PriceHistoryResponse;
+import com.smartbasket.dto.ProductSuggestion;
+import com.smartbasket.dto.ProductSummary;
+import com.smartbasket.dto.ResponseCacheStats;
 import com.smartbasket.entity.Product;
+import com.smartbasket.service.EncodedResponse;
+import com.smartbasket.service.HotStockService;
+import com.smartbasket.service.PlatformService;
+import com.smartbasket.service.PriceComparisonService;
+import com.smartbasket.service.PriceHistoryStore;
+import com.smartbasket.service.ProductImportService;
 import com.smartbasket.service.ProductService;
+import com.smartbasket.service.SuggestionService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/products")
-@CrossOrigin(origins = {"http://localhost:8080", "http://localhost:5173"})
 public class ProductController {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private PriceComparisonService priceComparisonService;
+    
+    @Autowired
+    private HotStockService hotStockService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+    
+    @Autowired
+    private PlatformService platformService;
+    
+    @Autowired
+    private SuggestionService suggestionService;
+    
+    /**
+     * Without paging parameters this returns the full filtered list. Passing
+     * {@code limit}, {@code cursor} or {@code fields} switches to keyset pages
+     * of {@link ProductSummary}, ordered by {@code sort} (id or price).
+     * Responses come from a byte cache keyed by the normalized query, gzipped
+     * in advance for clients that accept it.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String brand,
-            @RequestParam(required = false) String search) {
-        
-        List<Product> products;
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
-        if (search != null && !search.isEmpty()) {
-            products = productService.searchProducts(search);
-        } else if (category != null && !category.isEmpty()) {
-            products = productService.getProductsByCategory(category);
-        } else if (brand != null && !brand.isEmpty()) {
-            products = productService.getProductsByBrand(brand);
-        } else {
-            products = productService.getAllProducts();
+        EncodedResponse json;
+        try {
+            json = productService.getProductsJson(category, brand, search, sort, cursor, limit, fields, DEFAULT_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(products);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (json.getGzipBody() != null && acceptsGzip(acceptEncoding)) {
+            productService.recordCompressedServed(json);
+            return response.eTag(json.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(json.getGzipBody());
+        }
+        return response.eTag(json.getEtag()).body(json.getBody());
+    }
+    
+    /**
+     * Streams a supplier catalog into the products table, upserting on SKU.
+     * The format follows the Content-Type (text/csv or application/x-ndjson);
+     * send Content-Encoding: gzip to upload it compressed. Rejected rows
+     * don't fail the import and are summarized in the report.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportReport> importProducts(HttpServletRequest request) {
+        // Never read request parameters here: on a form post that would consume the body
+        ProductImportService.Format resolved = ProductImportService.Format.of(request.getContentType());
+        if (resolved == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        try {
+            InputStream body = request.getInputStream();
+            if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+                body = new GZIPInputStream(body);
+            }
+            ImportReport report = productImportService.importProducts(body, resolved);
+            return "FAILED".equals(report.getStatus())
+                    ? ResponseEntity.internalServerError().body(report)
+                    : ResponseEntity.ok(report);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(productImportService.getLastImport());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(productImportService.getLastImport());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Progress of the running import, or the report of the last one.
+     */
+    @GetMapping("/import/status")
+    public ResponseEntity<ImportReport> getImportStatus() {
+        ImportReport report = productImportService.getLastImport();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+    
+    @GetMapping("/response-cache/stats")
+    public ResponseEntity<ResponseCacheStats> getResponseCacheStats() {
+        return ResponseEntity.ok(productService.getResponseCacheStats());
     }
     
+    /**
+     * Served from cached JSON bytes with a strong ETag; a matching
+     * If-None-Match gets 304 and no body.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id) {
+        return productService.getProductJson(id)
+                .map(json -> ResponseEntity.ok()
+                        .eTag(json.getEtag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(json.getBody()))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+    
+    @GetMapping("/{id}/compare")
+    public ResponseEntity<PriceComparisonResponse> compareProduct(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        if (productService.getProductById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(priceComparisonService.compareProduct(id, quantity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Opening, closing, min, max and time-weighted average price per platform
+     * over [from, to), given as ISO-8601 instants. Defaults to the last 7 days.
+     */
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<PriceHistoryResponse> getPriceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        if (productService.getProductById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            Instant end = to == null ? Instant.now() : Instant.parse(to);
+            Instant start = from == null ? end.minus(Duration.ofDays(7)) : Instant.parse(from);
+            return ResponseEntity.ok(priceHistoryStore.getHistory(id, platformService.getAllPlatforms(), start, end));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Products most often bought together with this one, best first.
+     */
+    @GetMapping("/{id}/suggestions")
+    public ResponseEntity<List<ProductSuggestion>> getSuggestions(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (productService.getProductById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(suggestionService.getProductSuggestions(id, limit));
+    }
+    
+    @PutMapping("/{id}/prices")
+    public ResponseEntity<PriceComparisonResponse> savePlatformPrice(
+            @PathVariable Long id,
+            @RequestBody PlatformPriceRequest request) {
+        try {
+            priceComparisonService.savePlatformPrice(id, request.getPlatformId(), request.getPrice(), request.getAvailable());
+            return ResponseEntity.ok(priceComparisonService.compareProduct(id, 1));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Switches a product between in-memory hot-SKU stock and the database path.
+     */
+    @PutMapping("/{id}/hot-stock")
+    public ResponseEntity<Product> setHotStock(@PathVariable Long id, @RequestParam boolean enabled) {
+        try {
+            return ResponseEntity.ok(hotStockService.setHotStock(id, enabled));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/hot-stock")
+    public ResponseEntity<Map<Long, Long>> getHotStock() {
+        return ResponseEntity.ok(hotStockService.getAvailable());
+    }
+    
+    // True unless gzip is absent or explicitly refused with q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -8,6 +8,7 @@ public class AuthResponse {
     private String role;
     private String message;
     private boolean success;
+    private String token;
     
     public AuthResponse() {}
     
@@ -50,4 +51,7 @@ public class AuthResponse {
     
     public boolean isSuccess() { return success; }
     public void setSuccess(boolean success) { this.success = success; }
+    
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
 }
@@ -0,0 +1,50 @@
+package com.smartbasket.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class BasketOptimizationResponse {
+    
+    private List<PlatformBasket> baskets;
+    private List<Long> unavailableProductIds;
+    private BigDecimal itemTotal;
+    private BigDecimal deliveryFees;
+    private BigDecimal total;
+    private Integer deliveryMinutes;
+    private boolean exact;
+    
+    public BasketOptimizationResponse() {}
+    
+    public BasketOptimizationResponse(List<PlatformBasket> baskets, List<Long> unavailableProductIds,
+                                      BigDecimal itemTotal, BigDecimal deliveryFees,
+                                      Integer deliveryMinutes, boolean exact) {
+        this.baskets = baskets;
+        this.unavailableProductIds = unavailableProductIds;
+        this.itemTotal = itemTotal;
+        this.deliveryFees = deliveryFees;
+        this.total = itemTotal.add(deliveryFees);
+        this.deliveryMinutes = deliveryMinutes;
+        this.exact = exact;
+    }
+    
+    public List<PlatformBasket> getBaskets() { return baskets; }
+    public void setBaskets(List<PlatformBasket> baskets) { this.baskets = baskets; }
+    
+    public List<Long> getUnavailableProductIds() { return unavailableProductIds; }
+    public void setUnavailableProductIds(List<Long> unavailableProductIds) { this.unavailableProductIds = unavailableProductIds; }
+    
+    public BigDecimal getItemTotal() { return itemTotal; }
+    public void setItemTotal(BigDecimal itemTotal) { this.itemTotal = itemTotal; }
+    
+    public BigDecimal getDeliveryFees() { return deliveryFees; }
+    public void setDeliveryFees(BigDecimal deliveryFees) { this.deliveryFees = deliveryFees; }
+    
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    
+    public Integer getDeliveryMinutes() { return deliveryMinutes; }
+    public void setDeliveryMinutes(Integer deliveryMinutes) { this.deliveryMinutes = deliveryMinutes; }
+    
+    public boolean isExact() { return exact; }
+    public void setExact(boolean exact) { this.exact = exact; }
+}
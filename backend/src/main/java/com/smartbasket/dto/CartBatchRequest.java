@@ -0,0 +1,17 @@
+package com.smartbasket.dto;
+
+import java.util.List;
+
+public class CartBatchRequest {
+    
+    private List<CartOperation> operations;
+    
+    public CartBatchRequest() {}
+    
+    public CartBatchRequest(List<CartOperation> operations) {
+        this.operations = operations;
+    }
+    
+    public List<CartOperation> getOperations() { return operations; }
+    public void setOperations(List<CartOperation> operations) { this.operations = operations; }
+}
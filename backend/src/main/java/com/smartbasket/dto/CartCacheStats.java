@@ -0,0 +1,35 @@
+package com.smartbasket.dto;
+
+public class CartCacheStats {
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    
+    public CartCacheStats() {}
+    
+    public CartCacheStats(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+    
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+    
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+    
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+    
+    public long getEvictions() { return evictions; }
+    public void setEvictions(long evictions) { this.evictions = evictions; }
+    
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
@@ -0,0 +1,25 @@
+package com.smartbasket.dto;
+
+public class CartOperation {
+    
+    private String type; // "ADD", "UPDATE" or "REMOVE"
+    private Long productId;
+    private Integer quantity;
+    
+    public CartOperation() {}
+    
+    public CartOperation(String type, Long productId, Integer quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+    
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,59 @@
+package com.smartbasket.dto;
+
+import com.smartbasket.entity.Product;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A product as held by the catalog snapshot: a read-only copy of the entity,
+ * shared by every reader and never managed by JPA. Stock is read from a
+ * counter the snapshot owns, so it follows committed checkouts; everything
+ * else is fixed when the copy is made. Serializes to the same JSON as
+ * {@link Product}.
+ */
+public final class CatalogProduct {
+    
+    private final Long id;
+    private final String sku;
+    private final String name;
+    private final String category;
+    private final String brand;
+    private final String description;
+    private final BigDecimal price;
+    private final String imageUrl;
+    private final AtomicInteger stock;
+    private final Boolean hotStock;
+    
+    public CatalogProduct(Product source, AtomicInteger stock) {
+        this.id = source.getId();
+        this.sku = source.getSku();
+        this.name = source.getName();
+        this.category = source.getCategory();
+        this.brand = source.getBrand();
+        this.description = source.getDescription();
+        this.price = source.getPrice();
+        this.imageUrl = source.getImageUrl();
+        this.stock = stock;
+        this.hotStock = source.getHotStock();
+    }
+    
+    public Long getId() { return id; }
+    
+    public String getSku() { return sku; }
+    
+    public String getName() { return name; }
+    
+    public String getCategory() { return category; }
+    
+    public String getBrand() { return brand; }
+    
+    public String getDescription() { return description; }
+    
+    public BigDecimal getPrice() { return price; }
+    
+    public String getImageUrl() { return imageUrl; }
+    
+    public Integer getStock() { return stock.get(); }
+    
+    public Boolean getHotStock() { return hotStock; }
+}
@@ -0,0 +1,58 @@
+package com.smartbasket.dto;
+
+import java.util.List;
+
+public class ImportReport {
+    
+    private String status;
+    private String format;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private List<String> rejectSamples;
+    private String error;
+    
+    public ImportReport() {}
+    
+    public ImportReport(String status, String format, long rowsRead, long imported, long rejected,
+                        long elapsedMillis, List<String> rejectSamples, String error) {
+        this.status = status;
+        this.format = format;
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rejectSamples = rejectSamples;
+        this.error = error;
+    }
+    
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000 / elapsedMillis;
+    }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+    
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+    
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+    
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+    
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+    
+    // The first rejected rows, as "line N: reason"
+    public List<String> getRejectSamples() { return rejectSamples; }
+    public void setRejectSamples(List<String> rejectSamples) { this.rejectSamples = rejectSamples; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
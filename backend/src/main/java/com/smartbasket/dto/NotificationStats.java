@@ -0,0 +1,46 @@
+package com.smartbasket.dto;
+
+public class NotificationStats {
+    
+    private long sent;
+    private long retried;
+    private long failed;
+    private long batches;
+    private long pending;
+    private double sentPerSecond;
+    private double averageSendMillis;
+    
+    public NotificationStats() {}
+    
+    public NotificationStats(long sent, long retried, long failed, long batches, long pending,
+                             double sentPerSecond, double averageSendMillis) {
+        this.sent = sent;
+        this.retried = retried;
+        this.failed = failed;
+        this.batches = batches;
+        this.pending = pending;
+        this.sentPerSecond = sentPerSecond;
+        this.averageSendMillis = averageSendMillis;
+    }
+    
+    public long getSent() { return sent; }
+    public void setSent(long sent) { this.sent = sent; }
+    
+    public long getRetried() { return retried; }
+    public void setRetried(long retried) { this.retried = retried; }
+    
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+    
+    public long getBatches() { return batches; }
+    public void setBatches(long batches) { this.batches = batches; }
+    
+    public long getPending() { return pending; }
+    public void setPending(long pending) { this.pending = pending; }
+    
+    public double getSentPerSecond() { return sentPerSecond; }
+    public void setSentPerSecond(double sentPerSecond) { this.sentPerSecond = sentPerSecond; }
+    
+    public double getAverageSendMillis() { return averageSendMillis; }
+    public void setAverageSendMillis(double averageSendMillis) { this.averageSendMillis = averageSendMillis; }
+}
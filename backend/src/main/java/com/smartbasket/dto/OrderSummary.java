@@ -0,0 +1,38 @@
+package com.smartbasket.dto;
+
+import com.smartbasket.entity.OrderStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderSummary {
+    private Long id;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String paymentMethod;
+    private LocalDateTime createdAt;
+    
+    public OrderSummary() {}
+    
+    public OrderSummary(Long id, OrderStatus status, BigDecimal totalAmount, String paymentMethod, LocalDateTime createdAt) {
+        this.id = id;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,27 @@
+package com.smartbasket.dto;
+
+import java.util.List;
+
+public class PageResponse<T> {
+    
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    public PageResponse() {}
+    
+    public PageResponse(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+    
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,44 @@
+package com.smartbasket.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PlatformBasket {
+    
+    private Long platformId;
+    private String platformName;
+    private List<CartItemResponse> items;
+    private BigDecimal itemTotal;
+    private BigDecimal deliveryFee;
+    private Integer deliveryMinutes;
+    
+    public PlatformBasket() {}
+    
+    public PlatformBasket(Long platformId, String platformName, List<CartItemResponse> items,
+                          BigDecimal itemTotal, BigDecimal deliveryFee, Integer deliveryMinutes) {
+        this.platformId = platformId;
+        this.platformName = platformName;
+        this.items = items;
+        this.itemTotal = itemTotal;
+        this.deliveryFee = deliveryFee;
+        this.deliveryMinutes = deliveryMinutes;
+    }
+    
+    public Long getPlatformId() { return platformId; }
+    public void setPlatformId(Long platformId) { this.platformId = platformId; }
+    
+    public String getPlatformName() { return platformName; }
+    public void setPlatformName(String platformName) { this.platformName = platformName; }
+    
+    public List<CartItemResponse> getItems() { return items; }
+    public void setItems(List<CartItemResponse> items) { this.items = items; }
+    
+    public BigDecimal getItemTotal() { return itemTotal; }
+    public void setItemTotal(BigDecimal itemTotal) { this.itemTotal = itemTotal; }
+    
+    public BigDecimal getDeliveryFee() { return deliveryFee; }
+    public void setDeliveryFee(BigDecimal deliveryFee) { this.deliveryFee = deliveryFee; }
+    
+    public Integer getDeliveryMinutes() { return deliveryMinutes; }
+    public void setDeliveryMinutes(Integer deliveryMinutes) { this.deliveryMinutes = deliveryMinutes; }
+}
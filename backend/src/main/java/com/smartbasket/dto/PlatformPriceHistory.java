@@ -0,0 +1,55 @@
+package com.smartbasket.dto;
+
+import java.math.BigDecimal;
+
+public class PlatformPriceHistory {
+    private Long platformId;
+    private String platformName;
+    private BigDecimal openingPrice;
+    private BigDecimal closingPrice;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal averagePrice;
+    private int changes;
+    
+    public PlatformPriceHistory() {}
+    
+    public PlatformPriceHistory(Long platformId, String platformName, BigDecimal openingPrice, BigDecimal closingPrice,
+                                BigDecimal minPrice, BigDecimal maxPrice, BigDecimal averagePrice, int changes) {
+        this.platformId = platformId;
+        this.platformName = platformName;
+        this.openingPrice = openingPrice;
+        this.closingPrice = closingPrice;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.averagePrice = averagePrice;
+        this.changes = changes;
+    }
+    
+    public Long getPlatformId() { return platformId; }
+    public void setPlatformId(Long platformId) { this.platformId = platformId; }
+    
+    public String getPlatformName() { return platformName; }
+    public void setPlatformName(String platformName) { this.platformName = platformName; }
+    
+    // Price in effect at the start of the window (or at the first recorded price, if later)
+    public BigDecimal getOpeningPrice() { return openingPrice; }
+    public void setOpeningPrice(BigDecimal openingPrice) { this.openingPrice = openingPrice; }
+    
+    public BigDecimal getClosingPrice() { return closingPrice; }
+    public void setClosingPrice(BigDecimal closingPrice) { this.closingPrice = closingPrice; }
+    
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+    
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+    
+    // Weighted by how long each price held
+    public BigDecimal getAveragePrice() { return averagePrice; }
+    public void setAveragePrice(BigDecimal averagePrice) { this.averagePrice = averagePrice; }
+    
+    // Price changes recorded inside the window
+    public int getChanges() { return changes; }
+    public void setChanges(int changes) { this.changes = changes; }
+}
@@ -0,0 +1,26 @@
+package com.smartbasket.dto;
+
+import java.math.BigDecimal;
+
+public class PlatformPriceRequest {
+    
+    private Long platformId;
+    private BigDecimal price;
+    private Boolean available;
+    
+    public PlatformPriceRequest() {}
+    
+    public PlatformPriceRequest(Long platformId, BigDecimal price) {
+        this.platformId = platformId;
+        this.price = price;
+    }
+    
+    public Long getPlatformId() { return platformId; }
+    public void setPlatformId(Long platformId) { this.platformId = platformId; }
+    
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    
+    public Boolean getAvailable() { return available; }
+    public void setAvailable(Boolean available) { this.available = available; }
+}
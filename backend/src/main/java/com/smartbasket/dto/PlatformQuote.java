@@ -0,0 +1,53 @@
+package com.smartbasket.dto;
+
+import java.math.BigDecimal;
+
+public class PlatformQuote {
+    
+    private Long platformId;
+    private String platformName;
+    private boolean available;
+    private int missingItems;
+    private BigDecimal itemTotal;
+    private BigDecimal deliveryFee;
+    private BigDecimal total;
+    private Integer deliveryMinutes;
+    
+    public PlatformQuote() {}
+    
+    public PlatformQuote(Long platformId, String platformName, int missingItems, BigDecimal itemTotal,
+                         BigDecimal deliveryFee, Integer deliveryMinutes) {
+        this.platformId = platformId;
+        this.platformName = platformName;
+        this.missingItems = missingItems;
+        this.available = missingItems == 0;
+        this.itemTotal = itemTotal;
+        this.deliveryFee = deliveryFee;
+        this.total = itemTotal.add(deliveryFee);
+        this.deliveryMinutes = deliveryMinutes;
+    }
+    
+    public Long getPlatformId() { return platformId; }
+    public void setPlatformId(Long platformId) { this.platformId = platformId; }
+    
+    public String getPlatformName() { return platformName; }
+    public void setPlatformName(String platformName) { this.platformName = platformName; }
+    
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+    
+    public int getMissingItems() { return missingItems; }
+    public void setMissingItems(int missingItems) { this.missingItems = missingItems; }
+    
+    public BigDecimal getItemTotal() { return itemTotal; }
+    public void setItemTotal(BigDecimal itemTotal) { this.itemTotal = itemTotal; }
+    
+    public BigDecimal getDeliveryFee() { return deliveryFee; }
+    public void setDeliveryFee(BigDecimal deliveryFee) { this.deliveryFee = deliveryFee; }
+    
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+    
+    public Integer getDeliveryMinutes() { return deliveryMinutes; }
+    public void setDeliveryMinutes(Integer deliveryMinutes) { this.deliveryMinutes = deliveryMinutes; }
+}
@@ -0,0 +1,27 @@
+package com.smartbasket.dto;
+
+import java.util.List;
+
+public class PriceComparisonResponse {
+    
+    private List<PlatformQuote> quotes;
+    private PlatformQuote cheapest;
+    private PlatformQuote fastest;
+    
+    public PriceComparisonResponse() {}
+    
+    public PriceComparisonResponse(List<PlatformQuote> quotes, PlatformQuote cheapest, PlatformQuote fastest) {
+        this.quotes = quotes;
+        this.cheapest = cheapest;
+        this.fastest = fastest;
+    }
+    
+    public List<PlatformQuote> getQuotes() { return quotes; }
+    public void setQuotes(List<PlatformQuote> quotes) { this.quotes = quotes; }
+    
+    public PlatformQuote getCheapest() { return cheapest; }
+    public void setCheapest(PlatformQuote cheapest) { this.cheapest = cheapest; }
+    
+    public PlatformQuote getFastest() { return fastest; }
+    public void setFastest(PlatformQuote fastest) { this.fastest = fastest; }
+}
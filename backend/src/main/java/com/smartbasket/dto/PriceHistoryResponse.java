@@ -0,0 +1,32 @@
+package com.smartbasket.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class PriceHistoryResponse {
+    private Long productId;
+    private Instant from;
+    private Instant to;
+    private List<PlatformPriceHistory> platforms;
+    
+    public PriceHistoryResponse() {}
+    
+    public PriceHistoryResponse(Long productId, Instant from, Instant to, List<PlatformPriceHistory> platforms) {
+        this.productId = productId;
+        this.from = from;
+        this.to = to;
+        this.platforms = platforms;
+    }
+    
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+    
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+    
+    public List<PlatformPriceHistory> getPlatforms() { return platforms; }
+    public void setPlatforms(List<PlatformPriceHistory> platforms) { this.platforms = platforms; }
+}
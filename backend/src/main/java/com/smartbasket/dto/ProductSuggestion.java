@@ -0,0 +1,48 @@
+package com.smartbasket.dto;
+
+import java.math.BigDecimal;
+
+public class ProductSuggestion {
+    private Long productId;
+    private String name;
+    private String category;
+    private String brand;
+    private BigDecimal price;
+    private String imageUrl;
+    private int boughtTogether;
+    
+    public ProductSuggestion() {}
+    
+    public ProductSuggestion(Long productId, String name, String category, String brand, BigDecimal price,
+                             String imageUrl, int boughtTogether) {
+        this.productId = productId;
+        this.name = name;
+        this.category = category;
+        this.brand = brand;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.boughtTogether = boughtTogether;
+    }
+    
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+    
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    
+    // Orders that contained this product together with the one(s) asked about
+    public int getBoughtTogether() { return boughtTogether; }
+    public void setBoughtTogether(int boughtTogether) { this.boughtTogether = boughtTogether; }
+}
@@ -0,0 +1,68 @@
+package com.smartbasket.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight product view for list endpoints. Only the requested fields are
+ * populated; the rest stay null and are left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSummary {
+    
+    public static final List<String> ALL_FIELDS =
+            List.of("id", "name", "category", "brand", "description", "price", "imageUrl", "stock");
+    
+    public static final Set<String> DEFAULT_FIELDS =
+            Set.of("id", "name", "category", "brand", "price", "stock");
+    
+    private Long id;
+    private String name;
+    private String category;
+    private String brand;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private Integer stock;
+    
+    public ProductSummary() {}
+    
+    public static ProductSummary of(CatalogProduct product, Set<String> fields) {
+        ProductSummary summary = new ProductSummary();
+        summary.id = product.getId();
+        if (fields.contains("name")) summary.name = product.getName();
+        if (fields.contains("category")) summary.category = product.getCategory();
+        if (fields.contains("brand")) summary.brand = product.getBrand();
+        if (fields.contains("description")) summary.description = product.getDescription();
+        if (fields.contains("price")) summary.price = product.getPrice();
+        if (fields.contains("imageUrl")) summary.imageUrl = product.getImageUrl();
+        if (fields.contains("stock")) summary.stock = product.getStock();
+        return summary;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+}
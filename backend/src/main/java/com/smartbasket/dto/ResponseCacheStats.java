@@ -0,0 +1,48 @@
+package com.smartbasket.dto;
+
+public class ResponseCacheStats {
+    
+    private long hits;
+    private long misses;
+    private int size;
+    private long bytes;
+    private long encodedBytesSaved;
+    private long compressedBytesSaved;
+    
+    public ResponseCacheStats() {}
+    
+    public ResponseCacheStats(long hits, long misses, int size, long bytes,
+                              long encodedBytesSaved, long compressedBytesSaved) {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+        this.bytes = bytes;
+        this.encodedBytesSaved = encodedBytesSaved;
+        this.compressedBytesSaved = compressedBytesSaved;
+    }
+    
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+    
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+    
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+    
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    
+    public long getBytes() { return bytes; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+    
+    // Response bytes served from cache instead of being re-encoded
+    public long getEncodedBytesSaved() { return encodedBytesSaved; }
+    public void setEncodedBytesSaved(long encodedBytesSaved) { this.encodedBytesSaved = encodedBytesSaved; }
+    
+    // Bytes kept off the wire by serving the gzip copy
+    public long getCompressedBytesSaved() { return compressedBytesSaved; }
+    public void setCompressedBytesSaved(long compressedBytesSaved) { this.compressedBytesSaved = compressedBytesSaved; }
+}
@@ -0,0 +1,58 @@
+package com.smartbasket.dto;
+
+public class UserLookupStats {
+    
+    private long negativeHits;
+    private long positiveHits;
+    private long misses;
+    private long falsePositives;
+    private double expectedFalsePositiveRate;
+    private int cachedEmails;
+    private int cachedPhones;
+    
+    public UserLookupStats() {}
+    
+    public UserLookupStats(long negativeHits, long positiveHits, long misses, long falsePositives,
+                           double expectedFalsePositiveRate, int cachedEmails, int cachedPhones) {
+        this.negativeHits = negativeHits;
+        this.positiveHits = positiveHits;
+        this.misses = misses;
+        this.falsePositives = falsePositives;
+        this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+        this.cachedEmails = cachedEmails;
+        this.cachedPhones = cachedPhones;
+    }
+    
+    // Lookups answered without a query, either way
+    public double getHitRatio() {
+        long lookups = negativeHits + positiveHits + misses;
+        return lookups == 0 ? 0.0 : (double) (negativeHits + positiveHits) / lookups;
+    }
+    
+    // Share of absent keys the Bloom filter failed to rule out
+    public double getFalsePositiveRate() {
+        long absent = negativeHits + falsePositives;
+        return absent == 0 ? 0.0 : (double) falsePositives / absent;
+    }
+    
+    public long getNegativeHits() { return negativeHits; }
+    public void setNegativeHits(long negativeHits) { this.negativeHits = negativeHits; }
+    
+    public long getPositiveHits() { return positiveHits; }
+    public void setPositiveHits(long positiveHits) { this.positiveHits = positiveHits; }
+    
+    public long getMisses() { return misses; }
+    public void setMisses(long misses) { this.misses = misses; }
+    
+    public long getFalsePositives() { return falsePositives; }
+    public void setFalsePositives(long falsePositives) { this.falsePositives = falsePositives; }
+    
+    public double getExpectedFalsePositiveRate() { return expectedFalsePositiveRate; }
+    public void setExpectedFalsePositiveRate(double expectedFalsePositiveRate) { this.expectedFalsePositiveRate = expectedFalsePositiveRate; }
+    
+    public int getCachedEmails() { return cachedEmails; }
+    public void setCachedEmails(int cachedEmails) { this.cachedEmails = cachedEmails; }
+    
+    public int getCachedPhones() { return cachedPhones; }
+    public void setCachedPhones(int cachedPhones) { this.cachedPhones = cachedPhones; }
+}
@@ -0,0 +1,10 @@
+package com.smartbasket.entity;
+
+/**
+ * Customer emails sent for order lifecycle events.
+ */
+public enum NotificationType {
+    ORDER_CONFIRMATION,
+    ORDER_STATUS,
+    ORDER_CANCELLATION
+}
@@ -1,17 +1,25 @@
 package com.smartbasket.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Matches the history order exactly, so a page is a short forward index scan
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at")
+})
 public class Order {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -19,8 +27,9 @@ public class Order {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
     
+    @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private String status = "PENDING";
+    private OrderStatus status = OrderStatus.PENDING;
     
     @Column
     private String shippingAddress;
@@ -34,13 +43,19 @@ public class Order {
     @Column
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Only loaded by the order detail query; never serialized with the order itself
+    @JsonIgnore
+    @OneToMany(mappedBy = "order")
+    @OrderBy("id")
+    private List<OrderItem> items = new ArrayList<>();
+    
     // Constructors
     public Order() {}
     
     public Order(User user, BigDecimal totalAmount) {
         this.user = user;
         this.totalAmount = totalAmount;
-        this.status = "PENDING";
+        this.status = OrderStatus.PENDING;
     }
     
     // Getters and Setters
@@ -50,11 +65,14 @@ public class Order {
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
     
+    // Reads the id off the lazy proxy without initializing it
+    public Long getUserId() { return user != null ? user.getId() : null; }
+    
     public BigDecimal getTotalAmount() { return totalAmount; }
     public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
     
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
     
     public String getShippingAddress() { return shippingAddress; }
     public void setShippingAddress(String shippingAddress) { this.shippingAddress = shippingAddress; }
@@ -66,6 +84,8 @@ public class Order {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public List<OrderItem> getItems() { return items; }
+    
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
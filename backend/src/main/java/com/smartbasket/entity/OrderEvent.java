@@ -0,0 +1,54 @@
+package com.smartbasket.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One status change of an order. Rows are only ever inserted; the status
+ * counters are rebuilt from this log on startup.
+ */
+@Entity
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_order", columnList = "order_id, id")
+})
+public class OrderEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private Long orderId;
+    
+    // Null for the event that creates the order
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private OrderStatus fromStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OrderStatus toStatus;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public OrderEvent() {}
+    
+    public OrderEvent(Long orderId, OrderStatus fromStatus, OrderStatus toStatus) {
+        this.orderId = orderId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public Long getOrderId() { return orderId; }
+    
+    public OrderStatus getFromStatus() { return fromStatus; }
+    
+    public OrderStatus getToStatus() { return toStatus; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
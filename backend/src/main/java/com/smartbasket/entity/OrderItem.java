@@ -0,0 +1,66 @@
+package com.smartbasket.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * One line of an order as it was bought. Name and unit price are copied from
+ * the cart at checkout, so later catalog changes don't rewrite history, and
+ * the product id is a plain column because products can be deleted. Rows are
+ * inserted in one JDBC batch by {@link com.smartbasket.repository.OrderItemRepository}.
+ */
+@Entity
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order", columnList = "order_id, id")
+})
+public class OrderItem {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false, updatable = false)
+    private Order order;
+    
+    @Column(nullable = false, updatable = false)
+    private Long productId;
+    
+    @Column(nullable = false, updatable = false)
+    private String productName;
+    
+    @Column(nullable = false, updatable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(nullable = false, updatable = false)
+    private Integer quantity;
+    
+    // Constructors
+    public OrderItem() {}
+    
+    public OrderItem(Long productId, String productName, BigDecimal unitPrice, Integer quantity) {
+        this.productId = productId;
+        this.productName = productName;
+        this.unitPrice = unitPrice;
+        this.quantity = quantity;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public Order getOrder() { return order; }
+    
+    public Long getProductId() { return productId; }
+    
+    public String getProductName() { return productName; }
+    
+    public BigDecimal getUnitPrice() { return unitPrice; }
+    
+    public Integer getQuantity() { return quantity; }
+    
+    public BigDecimal getSubtotal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+}
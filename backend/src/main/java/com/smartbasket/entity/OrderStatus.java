@@ -0,0 +1,25 @@
+package com.smartbasket.entity;
+
+/**
+ * Order lifecycle. An order moves forward one step at a time and can be
+ * cancelled until it is delivered; DELIVERED and CANCELLED are final.
+ */
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    PACKED,
+    OUT_FOR_DELIVERY,
+    DELIVERED,
+    CANCELLED;
+    
+    public boolean isFinal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
+    
+    public boolean canTransitionTo(OrderStatus next) {
+        if (isFinal()) {
+            return false;
+        }
+        return next == CANCELLED || next.ordinal() == ordinal() + 1;
+    }
+}
@@ -0,0 +1,98 @@
+package com.smartbasket.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be sent. Rows are written in the same
+ * transaction as the order change that caused them and drained by the
+ * notification dispatcher.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_due", columnList = "state, next_attempt_at, id")
+})
+public class OutboxMessage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Passed to the sender so a message retried after a crash is delivered once downstream
+    @Column(nullable = false, unique = true, updatable = false)
+    private String idempotencyKey;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private NotificationType type;
+    
+    @Column(nullable = false, updatable = false)
+    private Long orderId;
+    
+    @Column(nullable = false, updatable = false)
+    private String recipient;
+    
+    @Lob
+    @Column(nullable = false, updatable = false)
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxState state = OutboxState.PENDING;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    
+    @Column(length = 1000)
+    private String lastError;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column
+    private LocalDateTime sentAt;
+    
+    // Constructors
+    public OutboxMessage() {}
+    
+    public OutboxMessage(String idempotencyKey, NotificationType type, Long orderId, String recipient, String payload) {
+        this.idempotencyKey = idempotencyKey;
+        this.type = type;
+        this.orderId = orderId;
+        this.recipient = recipient;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    
+    public NotificationType getType() { return type; }
+    
+    public Long getOrderId() { return orderId; }
+    
+    public String getRecipient() { return recipient; }
+    
+    public String getPayload() { return payload; }
+    
+    public OutboxState getState() { return state; }
+    public void setState(OutboxState state) { this.state = state; }
+    
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
@@ -0,0 +1,10 @@
+package com.smartbasket.entity;
+
+/**
+ * Delivery state of an {@link OutboxMessage}.
+ */
+public enum OutboxState {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -11,6 +11,10 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Supplier SKU; catalog imports upsert on it. Products created by hand may not have one
+    @Column(unique = true, length = 64)
+    private String sku;
+    
     @Column(nullable = false)
     private String name;
     
@@ -32,6 +36,10 @@ public class Product {
     @Column(nullable = false)
     private Integer stock = 0;
     
+    // Hot SKUs reserve stock from in-memory counters; the row is updated by the flusher
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean hotStock = false;
+    
     // Constructors
     public Product() {}
     
@@ -46,6 +54,9 @@ public class Product {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     
@@ -66,4 +77,7 @@ public class Product {
     
     public Integer getStock() { return stock; }
     public void setStock(Integer stock) { this.stock = stock; }
+    
+    public Boolean getHotStock() { return hotStock; }
+    public void setHotStock(Boolean hotStock) { this.hotStock = hotStock; }
 }
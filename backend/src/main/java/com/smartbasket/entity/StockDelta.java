@@ -0,0 +1,47 @@
+package com.smartbasket.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Stock taken from a hot-SKU counter by a committed checkout but not yet
+ * subtracted from the product row. Rows are inserted in the checkout
+ * transaction and deleted by the flusher in the transaction that applies
+ * them, so a crash in between loses nothing.
+ */
+@Entity
+@Table(name = "stock_deltas", indexes = {
+        @Index(name = "idx_stock_deltas_product", columnList = "product_id, id")
+})
+public class StockDelta {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+    
+    @Column(nullable = false, updatable = false)
+    private Integer quantity;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public StockDelta() {}
+    
+    public StockDelta(Long productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public Long getProductId() { return productId; }
+    
+    public Integer getQuantity() { return quantity; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -1,5 +1,6 @@
 package com.smartbasket.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -14,6 +15,8 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
     
+    // BCrypt hash; never sent back to clients
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
     
@@ -1,14 +1,29 @@
 package com.smartbasket.repository;
 
+import com.smartbasket.dto.CartItemResponse;
 import com.smartbasket.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUserId(Long userId);
+    
+    @Query("select new com.smartbasket.dto.CartItemResponse(c.id, p.id, p.name, c.quantity, c.price) " +
+           "from CartItem c join c.product p where c.user.id = :userId order by c.id")
+    List<CartItemResponse> findResponsesByUserId(@Param("userId") Long userId);
+    
+    @Query("select c from CartItem c join fetch c.product where c.id = :id")
+    Optional<CartItem> findWithProductById(@Param("id") Long id);
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
+    
+    List<CartItem> findByUserIdAndProductIdIn(Long userId, Collection<Long> productIds);
     void deleteByUserId(Long userId);
+    
+    void deleteByIdAndUserId(Long id, Long userId);
 }
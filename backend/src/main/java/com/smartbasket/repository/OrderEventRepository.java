@@ -0,0 +1,19 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.entity.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+    List<OrderEvent> findByOrderIdOrderByIdAsc(Long orderId);
+    
+    // Per status: how many events moved an order into it, and how many moved one out
+    @Query("select e.toStatus, count(e) from OrderEvent e group by e.toStatus")
+    List<Object[]> countEntries();
+    
+    @Query("select e.fromStatus, count(e) from OrderEvent e where e.fromStatus is not null group by e.fromStatus")
+    List<Object[]> countExits();
+}
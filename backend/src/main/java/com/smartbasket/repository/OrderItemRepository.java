@@ -0,0 +1,20 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.dto.CartItemResponse;
+import java.util.List;
+import java.util.Map;
+
+public interface OrderItemRepository {
+    
+    /**
+     * Snapshots the cart lines as items of {@code orderId} in one JDBC batch.
+     * Must run in the checkout transaction, after the order row is inserted.
+     */
+    void insertItems(Long orderId, List<CartItemResponse> lines);
+    
+    /**
+     * The distinct product ids of every order, keyed by order id, read in
+     * one pass over order_items.
+     */
+    Map<Long, long[]> findBaskets();
+}
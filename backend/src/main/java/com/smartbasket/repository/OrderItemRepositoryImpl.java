@@ -0,0 +1,75 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.dto.CartItemResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrderItemRepositoryImpl implements OrderItemRepository {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO order_items (order_id, product_id, product_name, unit_price, quantity) VALUES (?, ?, ?, ?, ?)";
+    
+    private static final String BASKETS_SQL =
+            "SELECT order_id, product_id FROM order_items ORDER BY order_id, product_id";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void insertItems(Long orderId, List<CartItemResponse> lines) {
+        // One batch whatever the cart size, rather than Hibernate's batches of hibernate.jdbc.batch_size
+        jdbcTemplate.batchUpdate(INSERT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, line.getProductId());
+            ps.setString(3, line.getProductName());
+            ps.setBigDecimal(4, line.getPrice());
+            ps.setInt(5, line.getQuantity());
+        });
+    }
+    
+    @Override
+    public Map<Long, long[]> findBaskets() {
+        BasketCollector collector = new BasketCollector();
+        jdbcTemplate.query(BASKETS_SQL, collector);
+        collector.finishOrder();
+        return collector.baskets;
+    }
+    
+    private static final class BasketCollector implements RowCallbackHandler {
+        private final Map<Long, long[]> baskets = new HashMap<>();
+        private long orderId;
+        private long[] products = new long[16];
+        private int count;
+        
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowOrderId = rs.getLong(1);
+            long productId = rs.getLong(2);
+            if (rowOrderId != orderId) {
+                finishOrder();
+                orderId = rowOrderId;
+            } else if (products[count - 1] == productId) {
+                // Rows are sorted, so a repeated product is adjacent
+                return;
+            }
+            if (count == products.length) {
+                products = Arrays.copyOf(products, count * 2);
+            }
+            products[count++] = productId;
+        }
+        
+        void finishOrder() {
+            if (count > 0) {
+                baskets.put(orderId, Arrays.copyOf(products, count));
+                count = 0;
+            }
+        }
+    }
+}
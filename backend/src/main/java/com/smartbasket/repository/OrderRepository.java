@@ -1,12 +1,43 @@
 package com.smartbasket.repository;
 
+import com.smartbasket.dto.OrderSummary;
 import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(Long userId);
-    List<Order> findByStatus(String status);
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderItemRepository {
+    List<Order> findByStatus(OrderStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+    
+    // Order and its lines in one query instead of a lazy load per collection
+    @Query("select o from Order o left join fetch o.items where o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+    
+    // Keyset pages of order history, newest first. The leading user.id sort key and the
+    // "createdAt <=" bound let the planner walk idx_orders_user_created instead of sorting
+    @Query("select new com.smartbasket.dto.OrderSummary(o.id, o.status, o.totalAmount, o.paymentMethod, o.createdAt) " +
+           "from Order o where o.user.id = :userId order by o.user.id, o.createdAt desc, o.id desc")
+    List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("select new com.smartbasket.dto.OrderSummary(o.id, o.status, o.totalAmount, o.paymentMethod, o.createdAt) " +
+           "from Order o where o.user.id = :userId " +
+           "and o.createdAt <= :createdAt and (o.createdAt < :createdAt or o.id < :id) " +
+           "order by o.user.id, o.createdAt desc, o.id desc")
+    List<OrderSummary> findSummariesByUserIdBefore(@Param("userId") Long userId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
 }
@@ -0,0 +1,28 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.entity.OutboxMessage;
+import com.smartbasket.entity.OutboxState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    
+    @Query("select m from OutboxMessage m where m.state = com.smartbasket.entity.OutboxState.PENDING and m.nextAttemptAt <= :now order by m.state, m.nextAttemptAt, m.id")
+    List<OutboxMessage> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("update OutboxMessage m set m.state = com.smartbasket.entity.OutboxState.SENT, m.sentAt = :sentAt, m.attempts = m.attempts + 1 where m.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+    
+    long countByState(OutboxState state);
+}
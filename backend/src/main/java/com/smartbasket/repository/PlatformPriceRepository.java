@@ -0,0 +1,25 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.entity.PlatformPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlatformPriceRepository extends JpaRepository<PlatformPrice, Long> {
+    
+    Optional<PlatformPrice> findByProductIdAndPlatformId(Long productId, Long platformId);
+    
+    @Query("select pp.product.id as productId, pp.platform.id as platformId, pp.price as price " +
+           "from PlatformPrice pp where pp.available = true")
+    List<PriceRow> findAvailablePriceRows();
+    
+    interface PriceRow {
+        Long getProductId();
+        Long getPlatformId();
+        BigDecimal getPrice();
+    }
+}
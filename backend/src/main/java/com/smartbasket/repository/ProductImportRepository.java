@@ -0,0 +1,14 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.entity.Product;
+import java.util.List;
+
+public interface ProductImportRepository {
+    
+    /**
+     * Inserts or updates every product by SKU in one JDBC batch. Stock is
+     * left alone on hot products, whose in-memory counters own it. Must run
+     * in a transaction so the batch commits once.
+     */
+    void upsertBySku(List<Product> products);
+}
@@ -0,0 +1,37 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+
+public class ProductImportRepositoryImpl implements ProductImportRepository {
+    
+    private static final String UPSERT_SQL =
+            "MERGE INTO products p USING (VALUES (CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(255)), "
+            + "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), "
+            + "CAST(? AS DECIMAL(10, 2)), CAST(? AS VARCHAR(255)), CAST(? AS INTEGER))) "
+            + "AS s(sku, name, category, brand, description, price, image_url, stock) ON p.sku = s.sku "
+            + "WHEN MATCHED THEN UPDATE SET name = s.name, category = s.category, brand = s.brand, "
+            + "description = s.description, price = s.price, image_url = s.image_url, "
+            + "stock = CASE WHEN p.hot_stock THEN p.stock ELSE s.stock END "
+            + "WHEN NOT MATCHED THEN INSERT (sku, name, category, brand, description, price, image_url, stock, hot_stock) "
+            + "VALUES (s.sku, s.name, s.category, s.brand, s.description, s.price, s.image_url, s.stock, FALSE)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void upsertBySku(List<Product> products) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getSku());
+            ps.setString(2, product.getName());
+            ps.setString(3, product.getCategory());
+            ps.setString(4, product.getBrand());
+            ps.setString(5, product.getDescription());
+            ps.setBigDecimal(6, product.getPrice());
+            ps.setString(7, product.getImageUrl());
+            ps.setInt(8, product.getStock());
+        });
+    }
+}
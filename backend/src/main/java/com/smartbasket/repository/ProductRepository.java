@@ -1,13 +1,24 @@
 package com.smartbasket.repository;
 
 import com.smartbasket.entity.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository,
+        ProductImportRepository {
     List<Product> findByCategory(String category);
     List<Product> findByBrand(String brand);
     List<Product> findByNameContainingIgnoreCase(String name);
+    List<Product> findByHotStockTrue();
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,38 @@
+package com.smartbasket.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductStockRepository {
+    
+    /**
+     * Decrements stock for every product in one JDBC batch of conditional
+     * updates ({@code stock >= quantity}). Returns the ids whose row was not
+     * updated because stock was insufficient; the caller is expected to roll
+     * back when that list is non-empty. Throws IllegalArgumentException for
+     * a quantity of zero or less.
+     */
+    List<Long> reserveStock(Map<Long, Integer> quantities);
+    
+    /**
+     * Records quantities taken from the in-memory hot-SKU counters as
+     * {@code stock_deltas} rows, in one JDBC batch. Must run in the checkout
+     * transaction so the rows commit or roll back with the order.
+     */
+    void recordStockDeltas(Map<Long, Integer> quantities);
+    
+    /**
+     * Subtracts up to {@code limit} recorded deltas from their product rows
+     * and deletes them, oldest first. Must run in a transaction. A row another
+     * transaction already deleted is skipped, so concurrent calls never apply
+     * a delta twice. Returns the number of rows read, which is below
+     * {@code limit} once the table has been drained.
+     */
+    int applyRecordedDeltas(int limit);
+    
+    /**
+     * Applies and deletes every committed delta of one product. Must run in a
+     * transaction. Returns the total quantity subtracted.
+     */
+    long applyRecordedDeltas(Long productId);
+}
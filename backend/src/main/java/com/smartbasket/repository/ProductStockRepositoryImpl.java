@@ -0,0 +1,127 @@
+package com.smartbasket.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    
+    private static final RowMapper<DeltaRow> DELTA_ROW = (rs, rowNum) ->
+            new DeltaRow(rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity"));
+    
+    private static final String RESERVE_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    
+    private static final String DELTA_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ?";
+    
+    private static final String RECORD_DELTA_SQL =
+            "INSERT INTO stock_deltas (product_id, quantity, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
+    
+    private static final String PENDING_DELTAS_SQL =
+            "SELECT id, product_id, quantity FROM stock_deltas ORDER BY id FETCH FIRST ? ROWS ONLY";
+    
+    private static final String PRODUCT_DELTAS_SQL =
+            "SELECT id, product_id, quantity FROM stock_deltas WHERE product_id = ? ORDER BY id";
+    
+    private static final String LOCK_PRODUCT_SQL =
+            "SELECT id FROM products WHERE id = ? FOR UPDATE";
+    
+    private static final String DELETE_DELTA_SQL =
+            "DELETE FROM stock_deltas WHERE id = ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<Long> reserveStock(Map<Long, Integer> quantities) {
+        // Always lock rows in id order so concurrent checkouts can't deadlock
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        for (Map.Entry<Long, Integer> line : lines) {
+            // A negative quantity would pass the stock check and add stock instead
+            if (line.getValue() == null || line.getValue() <= 0) {
+                throw new IllegalArgumentException("Cannot reserve " + line.getValue() + " of product " + line.getKey());
+            }
+        }
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+        
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(lines.get(i).getKey());
+            }
+        }
+        return insufficient;
+    }
+    
+    @Override
+    public void recordStockDeltas(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        jdbcTemplate.batchUpdate(RECORD_DELTA_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.getKey());
+            ps.setInt(2, line.getValue());
+        });
+    }
+    
+    @Override
+    public int applyRecordedDeltas(int limit) {
+        List<DeltaRow> rows = jdbcTemplate.query(PENDING_DELTAS_SQL, DELTA_ROW, limit);
+        apply(rows);
+        return rows.size();
+    }
+    
+    @Override
+    public long applyRecordedDeltas(Long productId) {
+        return apply(jdbcTemplate.query(PRODUCT_DELTAS_SQL, DELTA_ROW, productId)).values().stream()
+                .mapToLong(Long::longValue).sum();
+    }
+    
+    // Deletes the rows first and applies only those this transaction deleted
+    private Map<Long, Long> apply(List<DeltaRow> rows) {
+        Map<Long, Long> deltas = new TreeMap<>();
+        if (rows.isEmpty()) {
+            return deltas;
+        }
+        // Product rows before delta rows, in id order, the same order switching hot mode takes them
+        Set<Long> productIds = new TreeSet<>();
+        rows.forEach(row -> productIds.add(row.productId));
+        for (Long productId : productIds) {
+            jdbcTemplate.queryForList(LOCK_PRODUCT_SQL, Long.class, productId);
+        }
+        int[][] deleted = jdbcTemplate.batchUpdate(DELETE_DELTA_SQL, rows, rows.size(),
+                (ps, row) -> ps.setLong(1, row.id));
+        for (int i = 0; i < rows.size(); i++) {
+            if (deleted[0][i] > 0) {
+                deltas.merge(rows.get(i).productId, (long) rows.get(i).quantity, Long::sum);
+            }
+        }
+        List<Map.Entry<Long, Long>> lines = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(DELTA_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+        return deltas;
+    }
+    
+    private static final class DeltaRow {
+        final long id;
+        final long productId;
+        final int quantity;
+        
+        DeltaRow(long id, long productId, int quantity) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
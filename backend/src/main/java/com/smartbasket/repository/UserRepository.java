@@ -1,8 +1,12 @@
 package com.smartbasket.repository;
 
 import com.smartbasket.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     Optional<User> findByPhone(String phone);
     boolean existsByPhone(String phone);
+    
+    // Keyset pages of {id, email, phone} for warming the lookup cache
+    @Query("select u.id, u.email, u.phone from User u where u.id > :after order by u.id")
+    List<Object[]> findLookupKeysAfter(@Param("after") Long after, Pageable pageable);
 }
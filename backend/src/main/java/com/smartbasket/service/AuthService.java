@@ -1,8 +1,12 @@
 package com.smartbasket.service;
 
+import com.smartbasket.dto.UserLookupStats;
 import com.smartbasket.entity.User;
 import com.smartbasket.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
 
@@ -12,21 +16,58 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private UserLookupCache userLookupCache;
+    
+    // Checked when the email is unknown so both failures take a full hash's time
+    private String dummyHash;
+    
+    @PostConstruct
+    void initDummyHash() {
+        dummyHash = passwordEncoder.encode("smartbasket-dummy-password");
+    }
+    
+    /**
+     * The lookup cache turns away known emails early, but the unique
+     * constraint on users.email is what settles two sign-ups racing for the
+     * same address.
+     */
     public User register(String email, String password, String fullName) {
-        if (userRepository.existsByEmail(email)) {
+        if (userLookupCache.isEmailRegistered(email)) {
             throw new RuntimeException("Email already registered");
         }
-        User user = new User(email, password, fullName);
-        return userRepository.save(user);
+        User user;
+        try {
+            user = userRepository.saveAndFlush(new User(email, passwordEncoder.encode(password), fullName));
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Email already registered");
+        }
+        userLookupCache.add(user);
+        return user;
     }
     
+    /**
+     * Checks the password against the stored BCrypt hash. Unknown emails and
+     * wrong passwords fail with the same message after the same amount of
+     * work, so the response doesn't reveal which emails are registered.
+     */
     public User login(String email, String password) {
         Optional<User> user = userRepository.findByEmail(email);
+        String candidate = password == null ? "" : password;
         if (user.isEmpty()) {
-            throw new RuntimeException("User not found");
+            passwordEncoder.matches(candidate, dummyHash);
+            throw new RuntimeException("Invalid email or password");
         }
-        if (!user.get().getPassword().equals(password)) {
-            throw new RuntimeException("Invalid password");
+        if (!passwordEncoder.matches(candidate, user.get().getPassword())) {
+            throw new RuntimeException("Invalid email or password");
+        }
+        if (passwordEncoder.upgradeEncoding(user.get().getPassword())) {
+            // Hashed at a lower cost than configured now
+            user.get().setPassword(passwordEncoder.encode(candidate));
+            userRepository.save(user.get());
         }
         return user.get();
     }
@@ -44,7 +85,7 @@ public class AuthService {
         }
         
         // Check if user exists by phone
-        Optional<User> existingUser = userRepository.findByPhone(phone);
+        Optional<User> existingUser = userLookupCache.findByPhone(phone);
         
         if (existingUser.isPresent()) {
             // User exists, login successful
@@ -53,9 +94,17 @@ public class AuthService {
             // Create new user with phone
             // Generate email from phone for internal use (never shown to user)
             String generatedEmail = phone.replaceAll("\\D", "") + "@smartbasket.app";
-            User newUser = new User(generatedEmail, "demo_password", "Demo User");
+            User newUser = new User(generatedEmail, passwordEncoder.encode("demo_password"), "Demo User");
             newUser.setPhone(phone);
-            return userRepository.save(newUser);
+            try {
+                User saved = userRepository.saveAndFlush(newUser);
+                userLookupCache.add(saved);
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent first login for this phone created the user first
+                return userRepository.findByPhone(phone)
+                        .orElseThrow(() -> new RuntimeException("Could not create an account for this phone number"));
+            }
         }
     }
     
@@ -66,6 +115,7 @@ public class AuthService {
     public User updateProfile(Long userId, String fullName, String phone, String address) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        String oldPhone = user.getPhone();
         
         // Update fields only if provided
         if (fullName != null && !fullName.isEmpty()) {
@@ -78,6 +128,14 @@ public class AuthService {
             user.setAddress(address);
         }
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (saved.getPhone() != null && !saved.getPhone().equals(oldPhone)) {
+            userLookupCache.phoneChanged(saved, oldPhone);
+        }
+        return saved;
+    }
+    
+    public UserLookupStats getLookupStats() {
+        return userLookupCache.getStats();
     }
 }
@@ -0,0 +1,266 @@
+package com.smartbasket.service;
+
+import java.util.Arrays;
+
+/**
+ * Splits a basket across platforms to minimise item cost plus delivery fees.
+ *
+ * Free-delivery thresholds make the cheapest split depend on the whole
+ * basket, not on each item alone. Small baskets are solved exactly with
+ * branch and bound, seeded by the heuristic. Larger baskets, or searches
+ * that run past the node budget, keep the heuristic answer. The heuristic
+ * tries each subset of platforms: it gives every item to its cheapest
+ * platform in the subset, then moves single items while that lowers the
+ * total. All amounts are in paise.
+ */
+final class BasketOptimizer {
+    
+    static final int EXACT_ITEM_LIMIT = 12;
+    static final long NODE_BUDGET = 2_000_000L;
+    static final int MAX_SUBSET_PLATFORMS = 10;
+    static final int MAX_LOCAL_SEARCH_ROUNDS = 20;
+    
+    static final class Result {
+        final int[] assignment;
+        final long cost;
+        final boolean exact;
+        
+        Result(int[] assignment, long cost, boolean exact) {
+            this.assignment = assignment;
+            this.cost = cost;
+            this.exact = exact;
+        }
+    }
+    
+    private final PriceMatrix matrix;
+    private final int items;
+    private final int platforms;
+    // lineCosts[i * platforms + p] = unit price x quantity, or MISSING when p can't serve item i
+    private final long[] lineCosts;
+    
+    private BasketOptimizer(PriceMatrix matrix, int[] rows, int[] quantities, boolean[] allowed) {
+        this.matrix = matrix;
+        this.items = rows.length;
+        this.platforms = matrix.platformCount();
+        this.lineCosts = new long[items * platforms];
+        for (int i = 0; i < items; i++) {
+            for (int p = 0; p < platforms; p++) {
+                long unit = allowed[p] ? matrix.price(rows[i], p) : PriceMatrix.MISSING;
+                lineCosts[i * platforms + p] = unit == PriceMatrix.MISSING ? PriceMatrix.MISSING : unit * quantities[i];
+            }
+        }
+    }
+    
+    /**
+     * Every item must be servable by at least one allowed platform; callers
+     * filter out the rest beforehand.
+     */
+    static Result solve(PriceMatrix matrix, int[] rows, int[] quantities, boolean[] allowed) {
+        BasketOptimizer optimizer = new BasketOptimizer(matrix, rows, quantities, allowed);
+        Result heuristic = optimizer.heuristic(allowed);
+        if (optimizer.items > EXACT_ITEM_LIMIT) {
+            return heuristic;
+        }
+        return optimizer.branchAndBound(heuristic);
+    }
+    
+    private Result heuristic(boolean[] allowed) {
+        int allowedMask = 0;
+        for (int p = 0; p < platforms; p++) {
+            if (allowed[p]) {
+                allowedMask |= 1 << p;
+            }
+        }
+        
+        int[] best = null;
+        long bestCost = Long.MAX_VALUE;
+        if (platforms <= MAX_SUBSET_PLATFORMS) {
+            for (int mask = allowedMask; mask != 0; mask = (mask - 1) & allowedMask) {
+                int[] assignment = improve(greedy(mask), mask);
+                if (assignment != null) {
+                    long cost = cost(assignment);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        best = assignment;
+                    }
+                }
+            }
+        } else {
+            best = improve(greedy(-1), -1);
+            bestCost = cost(best);
+        }
+        return new Result(best, bestCost, false);
+    }
+    
+    // Cheapest platform per item within the subset, or null if the subset can't serve every item
+    private int[] greedy(int mask) {
+        int[] assignment = new int[items];
+        for (int i = 0; i < items; i++) {
+            int chosen = -1;
+            for (int p = 0; p < platforms; p++) {
+                long c = lineCosts[i * platforms + p];
+                if ((mask & (1 << p)) != 0 && c != PriceMatrix.MISSING
+                        && (chosen < 0 || c < lineCosts[i * platforms + chosen])) {
+                    chosen = p;
+                }
+            }
+            if (chosen < 0) {
+                return null;
+            }
+            assignment[i] = chosen;
+        }
+        return assignment;
+    }
+    
+    private int[] improve(int[] assignment, int mask) {
+        if (assignment == null) {
+            return null;
+        }
+        long[] subtotals = subtotals(assignment);
+        int[] counts = counts(assignment);
+        for (int round = 0; round < MAX_LOCAL_SEARCH_ROUNDS; round++) {
+            boolean improved = false;
+            for (int i = 0; i < items; i++) {
+                int from = assignment[i];
+                long fromCost = lineCosts[i * platforms + from];
+                for (int to = 0; to < platforms; to++) {
+                    long toCost = lineCosts[i * platforms + to];
+                    if (to == from || (mask & (1 << to)) == 0 || toCost == PriceMatrix.MISSING) {
+                        continue;
+                    }
+                    long before = platformCost(from, subtotals[from], counts[from])
+                            + platformCost(to, subtotals[to], counts[to]);
+                    long after = platformCost(from, subtotals[from] - fromCost, counts[from] - 1)
+                            + platformCost(to, subtotals[to] + toCost, counts[to] + 1);
+                    if (after < before) {
+                        subtotals[from] -= fromCost;
+                        subtotals[to] += toCost;
+                        counts[from]--;
+                        counts[to]++;
+                        assignment[i] = to;
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+            if (!improved) {
+                break;
+            }
+        }
+        return assignment;
+    }
+    
+    private Result branchAndBound(Result seed) {
+        // Branch on the items whose platform choice matters most first
+        Integer[] boxed = new Integer[items];
+        long[] spread = new long[items];
+        long[] minCost = new long[items];
+        for (int i = 0; i < items; i++) {
+            boxed[i] = i;
+            long min = Long.MAX_VALUE, max = 0;
+            for (int p = 0; p < platforms; p++) {
+                long c = lineCosts[i * platforms + p];
+                if (c != PriceMatrix.MISSING) {
+                    min = Math.min(min, c);
+                    max = Math.max(max, c);
+                }
+            }
+            minCost[i] = min;
+            spread[i] = max - min;
+        }
+        Arrays.sort(boxed, (a, b) -> Long.compare(spread[b], spread[a]));
+        int[] order = Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+        
+        // Fees are never negative, so item costs alone bound the remaining work from below
+        long[] suffixMin = new long[items + 1];
+        for (int k = items - 1; k >= 0; k--) {
+            suffixMin[k] = suffixMin[k + 1] + minCost[order[k]];
+        }
+        
+        Search search = new Search(order, suffixMin, seed.assignment.clone(), seed.cost);
+        search.dfs(0, 0L, new long[platforms], new int[platforms], new int[items]);
+        return new Result(search.best, search.bestCost, !search.exhausted);
+    }
+    
+    private final class Search {
+        final int[] order;
+        final long[] suffixMin;
+        int[] best;
+        long bestCost;
+        long nodes;
+        boolean exhausted;
+        
+        Search(int[] order, long[] suffixMin, int[] best, long bestCost) {
+            this.order = order;
+            this.suffixMin = suffixMin;
+            this.best = best;
+            this.bestCost = bestCost;
+        }
+        
+        void dfs(int k, long itemCost, long[] subtotals, int[] counts, int[] assignment) {
+            if (++nodes > NODE_BUDGET) {
+                exhausted = true;
+                return;
+            }
+            if (k == items) {
+                long total = 0;
+                for (int p = 0; p < platforms; p++) {
+                    total += platformCost(p, subtotals[p], counts[p]);
+                }
+                if (total < bestCost) {
+                    bestCost = total;
+                    best = assignment.clone();
+                }
+                return;
+            }
+            int i = order[k];
+            for (int p = 0; p < platforms && !exhausted; p++) {
+                long c = lineCosts[i * platforms + p];
+                if (c == PriceMatrix.MISSING || itemCost + c + suffixMin[k + 1] >= bestCost) {
+                    continue;
+                }
+                subtotals[p] += c;
+                counts[p]++;
+                assignment[i] = p;
+                dfs(k + 1, itemCost + c, subtotals, counts, assignment);
+                subtotals[p] -= c;
+                counts[p]--;
+            }
+        }
+    }
+    
+    private long cost(int[] assignment) {
+        long[] subtotals = subtotals(assignment);
+        int[] counts = counts(assignment);
+        long total = 0;
+        for (int p = 0; p < platforms; p++) {
+            total += platformCost(p, subtotals[p], counts[p]);
+        }
+        return total;
+    }
+    
+    private long[] subtotals(int[] assignment) {
+        long[] subtotals = new long[platforms];
+        for (int i = 0; i < items; i++) {
+            subtotals[assignment[i]] += lineCosts[i * platforms + assignment[i]];
+        }
+        return subtotals;
+    }
+    
+    private int[] counts(int[] assignment) {
+        int[] counts = new int[platforms];
+        for (int i = 0; i < items; i++) {
+            counts[assignment[i]]++;
+        }
+        return counts;
+    }
+    
+    /**
+     * An unused platform costs nothing; a used one adds its fee below the
+     * free-delivery threshold. Use is judged by item count, not subtotal, so
+     * a basket of free items still pays for delivery.
+     */
+    private long platformCost(int p, long subtotal, int itemCount) {
+        return itemCount == 0 ? 0 : subtotal + matrix.deliveryFeeFor(p, subtotal);
+    }
+}
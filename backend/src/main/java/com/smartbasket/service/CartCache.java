@@ -0,0 +1,41 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartCacheStats;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-user cart cache consulted by {@link CartService}. The default bean is
+ * {@link LocalCartCache}. A distributed implementation sets
+ * {@code smartbasket.cart-cache.type} to its own name, declares its own
+ * {@code CartCache} bean, and stores carts as {@link CompactCart#toBytes}.
+ */
+public interface CartCache {
+    
+    Optional<CompactCart> get(Long userId);
+    
+    void put(Long userId, CompactCart cart);
+    
+    /**
+     * A token that changes whenever the user's entry is written or evicted.
+     * Read it before loading a cart to fill the cache with.
+     */
+    long version(Long userId);
+    
+    /**
+     * Stores a cart loaded after {@link #version} returned {@code version},
+     * unless a write or evict has happened since. Returns whether it was
+     * stored.
+     */
+    boolean putIfUnchanged(Long userId, long version, CompactCart cart);
+    
+    /**
+     * Atomically replaces a cached cart with {@code change} applied to it.
+     * Does nothing when the user has no cached cart.
+     */
+    void update(Long userId, UnaryOperator<CompactCart> change);
+    
+    void evict(Long userId);
+    
+    CartCacheStats stats();
+}
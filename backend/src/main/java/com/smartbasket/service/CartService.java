@@ -1,15 +1,28 @@
 package com.smartbasket.service;
 
+import com.smartbasket.dto.CartCacheStats;
+import com.smartbasket.dto.CartItemResponse;
+import com.smartbasket.dto.CartOperation;
+import com.smartbasket.dto.CatalogProduct;
 import com.smartbasket.entity.CartItem;
-import com.smartbasket.entity.Product;
 import com.smartbasket.entity.User;
 import com.smartbasket.repository.CartItemRepository;
 import com.smartbasket.repository.ProductRepository;
 import com.smartbasket.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CartService {
@@ -23,41 +36,199 @@ public class CartService {
     @Autowired
     private ProductRepository productRepository;
     
-    public List<CartItem> getCart(Long userId) {
-        return cartItemRepository.findByUserId(userId);
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CartCache cartCache;
+    
+    /**
+     * Serves the cart from the cache, falling back to a single joined query
+     * on a miss. The result is only cached if no write for this user landed
+     * while it was loading, since it may predate that write.
+     */
+    public List<CartItemResponse> getCart(Long userId) {
+        Optional<CompactCart> cached = cartCache.get(userId);
+        if (cached.isPresent()) {
+            List<CartItemResponse> responses = cached.get().toResponses(this::productName);
+            if (responses != null) {
+                return responses;
+            }
+        }
+        long version = cartCache.version(userId);
+        List<CartItemResponse> items = cartItemRepository.findResponsesByUserId(userId);
+        cartCache.putIfUnchanged(userId, version, CompactCart.of(items));
+        return items;
     }
     
-    public CartItem addToCart(Long userId, Long productId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Product product = productRepository.findById(productId)
+    /**
+     * Reads the cart straight from the database, bypassing the cache, for
+     * callers such as checkout that must see committed rows.
+     */
+    public List<CartItemResponse> loadCart(Long userId) {
+        return cartItemRepository.findResponsesByUserId(userId);
+    }
+    
+    @Transactional
+    public CartItemResponse addToCart(Long userId, Long productId, Integer quantity) {
+        requirePositive(quantity);
+        // Price and name come from the catalog snapshot; the entities are only referenced
+        CatalogProduct product = productService.getProductById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
         Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndProductId(userId, productId);
-        
+        CartItem item;
         if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
+            item = existingItem.get();
             item.setQuantity(item.getQuantity() + quantity);
-            return cartItemRepository.save(item);
+        } else {
+            item = cartItemRepository.save(new CartItem(
+                    userRepository.getReferenceById(userId),
+                    productRepository.getReferenceById(productId),
+                    quantity,
+                    product.getPrice()
+            ));
         }
-        
-        CartItem newItem = new CartItem(user, product, quantity);
-        return cartItemRepository.save(newItem);
+        CartItemResponse response = new CartItemResponse(item.getId(), productId, product.getName(), item.getQuantity(), item.getPrice());
+        writeThrough(userId, response);
+        return response;
     }
     
-    public CartItem updateCartItem(Long cartItemId, Integer quantity) {
-        CartItem item = cartItemRepository.findById(cartItemId)
+    @Transactional
+    public CartItemResponse updateCartItem(Long cartItemId, Integer quantity) {
+        requirePositive(quantity);
+        CartItem item = cartItemRepository.findWithProductById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         item.setQuantity(quantity);
-        return cartItemRepository.save(item);
+        CartItemResponse response = new CartItemResponse(
+                item.getId(),
+                item.getProduct().getId(),
+                item.getProduct().getName(),
+                item.getQuantity(),
+                item.getPrice()
+        );
+        writeThrough(item.getUser().getId(), response);
+        return response;
+    }
+    
+    /**
+     * Applies a list of add/update/remove operations in one transaction.
+     * Products are resolved from the catalog snapshot and existing lines are
+     * loaded with a single IN query. New and changed lines are then flushed
+     * in JDBC batches and removals go out as one bulk delete. Operations run
+     * in order. ADD needs a positive quantity. UPDATE sets the quantity, and
+     * a quantity of zero or less removes the line.
+     */
+    @Transactional
+    public void applyBatch(Long userId, List<CartOperation> operations) {
+        Set<Long> productIds = new HashSet<>();
+        for (CartOperation op : operations) {
+            if (op.getProductId() == null || op.getType() == null) {
+                throw new IllegalArgumentException("Each operation needs a type and productId");
+            }
+            productIds.add(op.getProductId());
+        }
+        
+        Map<Long, CartItem> lines = new HashMap<>();
+        for (CartItem item : cartItemRepository.findByUserIdAndProductIdIn(userId, productIds)) {
+            lines.put(item.getProduct().getId(), item);
+        }
+        
+        // Resolve the final quantity per product first so each line is written at most once
+        Map<Long, Integer> targets = new LinkedHashMap<>();
+        for (CartOperation op : operations) {
+            Long productId = op.getProductId();
+            int quantity = op.getQuantity() != null ? op.getQuantity() : 1;
+            switch (op.getType().toUpperCase(Locale.ROOT)) {
+                case "ADD":
+                    requirePositive(quantity);
+                    CartItem line = lines.get(productId);
+                    int current = targets.getOrDefault(productId, line != null ? line.getQuantity() : 0);
+                    targets.put(productId, Math.max(current, 0) + quantity);
+                    break;
+                case "UPDATE":
+                    targets.put(productId, quantity);
+                    break;
+                case "REMOVE":
+                    targets.put(productId, 0);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + op.getType());
+            }
+        }
+        
+        User user = userRepository.getReferenceById(userId);
+        List<CartItem> added = new ArrayList<>();
+        List<CartItem> removed = new ArrayList<>();
+        for (Map.Entry<Long, Integer> target : targets.entrySet()) {
+            Long productId = target.getKey();
+            int quantity = target.getValue();
+            CartItem line = lines.get(productId);
+            if (line == null) {
+                if (quantity > 0) {
+                    CatalogProduct product = productService.getProductById(productId)
+                            .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
+                    added.add(new CartItem(user, productRepository.getReferenceById(productId), quantity, product.getPrice()));
+                }
+            } else if (quantity <= 0) {
+                removed.add(line);
+            } else if (line.getQuantity() != quantity) {
+                line.setQuantity(quantity);
+            }
+        }
+        
+        cartItemRepository.saveAll(added);
+        if (!removed.isEmpty()) {
+            cartItemRepository.deleteAllInBatch(removed);
+        }
+        
+        // The batch only touched some lines, so reload the cart on the next read
+        afterCommit(() -> cartCache.evict(userId));
     }
     
-    public void removeFromCart(Long cartItemId) {
-        cartItemRepository.deleteById(cartItemId);
+    @Transactional
+    public void removeFromCart(Long userId, Long cartItemId) {
+        cartItemRepository.deleteByIdAndUserId(cartItemId, userId);
+        afterCommit(() -> cartCache.update(userId, cart -> cart.withoutItem(cartItemId)));
     }
     
+    @Transactional
     public void clearCart(Long userId) {
         cartItemRepository.deleteByUserId(userId);
+        afterCommit(() -> cartCache.put(userId, CompactCart.EMPTY));
+    }
+    
+    public CartCacheStats getCacheStats() {
+        return cartCache.stats();
+    }
+    
+    // Removing a line is an explicit operation; a zero or negative quantity here is a client bug
+    private static void requirePositive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+    
+    // Patch the cached cart once the write commits; an uncached cart is simply loaded on next read
+    private void writeThrough(Long userId, CartItemResponse line) {
+        afterCommit(() -> cartCache.update(userId,
+                cart -> cart.withLine(line.getId(), line.getProductId(), line.getQuantity(), line.getPrice())));
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private String productName(long productId) {
+        return productService.getProductById(productId).map(CatalogProduct::getName).orElse(null);
     }
 }
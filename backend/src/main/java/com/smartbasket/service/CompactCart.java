@@ -0,0 +1,185 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartItemResponse;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Immutable cart held in parallel primitive arrays: cart item id, product
+ * id, quantity and unit price in paise. Product names are not stored; they
+ * are resolved from the catalog when the response is built.
+ * <p>
+ * {@link #toBytes} and {@link #fromBytes} give a {@link CartCache} that
+ * keeps carts outside the heap a stable encoding: a format byte, the line
+ * count, then each line as item id, product id, quantity and price.
+ */
+public final class CompactCart {
+    
+    private static final byte FORMAT = 1;
+    private static final int LINE_BYTES = Long.BYTES * 3 + Integer.BYTES;
+    
+    public static final CompactCart EMPTY = new CompactCart(new long[0], new long[0], new int[0], new long[0]);
+    
+    private final long[] itemIds;
+    private final long[] productIds;
+    private final int[] quantities;
+    private final long[] prices;
+    
+    private CompactCart(long[] itemIds, long[] productIds, int[] quantities, long[] prices) {
+        this.itemIds = itemIds;
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.prices = prices;
+    }
+    
+    public static CompactCart of(List<CartItemResponse> items) {
+        int n = items.size();
+        long[] itemIds = new long[n];
+        long[] productIds = new long[n];
+        int[] quantities = new int[n];
+        long[] prices = new long[n];
+        for (int i = 0; i < n; i++) {
+            CartItemResponse item = items.get(i);
+            itemIds[i] = item.getId();
+            productIds[i] = item.getProductId();
+            quantities[i] = item.getQuantity();
+            prices[i] = PriceMatrix.toPaise(item.getPrice());
+        }
+        return new CompactCart(itemIds, productIds, quantities, prices);
+    }
+    
+    public int size() {
+        return itemIds.length;
+    }
+    
+    /**
+     * Returns a copy with the line inserted, or replaced when the cart item
+     * id is already present.
+     */
+    public CompactCart withLine(long itemId, long productId, int quantity, BigDecimal price) {
+        int i = indexOf(itemId);
+        int n = i >= 0 ? itemIds.length : itemIds.length + 1;
+        int at = i >= 0 ? i : itemIds.length;
+        long[] newItemIds = Arrays.copyOf(itemIds, n);
+        long[] newProductIds = Arrays.copyOf(productIds, n);
+        int[] newQuantities = Arrays.copyOf(quantities, n);
+        long[] newPrices = Arrays.copyOf(prices, n);
+        newItemIds[at] = itemId;
+        newProductIds[at] = productId;
+        newQuantities[at] = quantity;
+        newPrices[at] = PriceMatrix.toPaise(price);
+        return new CompactCart(newItemIds, newProductIds, newQuantities, newPrices);
+    }
+    
+    public CompactCart withoutItem(long itemId) {
+        int i = indexOf(itemId);
+        if (i < 0) {
+            return this;
+        }
+        return new CompactCart(remove(itemIds, i), remove(productIds, i), remove(quantities, i), remove(prices, i));
+    }
+    
+    /**
+     * Expands the cart into response rows. Returns null if a product name
+     * cannot be resolved, so the caller can fall back to the database.
+     */
+    public List<CartItemResponse> toResponses(LongFunction<String> productNames) {
+        List<CartItemResponse> responses = new ArrayList<>(itemIds.length);
+        for (int i = 0; i < itemIds.length; i++) {
+            String name = productNames.apply(productIds[i]);
+            if (name == null) {
+                return null;
+            }
+            responses.add(new CartItemResponse(itemIds[i], productIds[i], name, quantities[i],
+                    PriceMatrix.fromPaise(prices[i])));
+        }
+        return responses;
+    }
+    
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + itemIds.length * LINE_BYTES)
+                .put(FORMAT)
+                .putInt(itemIds.length);
+        for (int i = 0; i < itemIds.length; i++) {
+            buffer.putLong(itemIds[i]).putLong(productIds[i]).putInt(quantities[i]).putLong(prices[i]);
+        }
+        return buffer.array();
+    }
+    
+    /**
+     * Decodes bytes written by {@link #toBytes}.
+     *
+     * @throws IllegalArgumentException if they are not a cart in a known format
+     */
+    public static CompactCart fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.get() != FORMAT) {
+                throw new IllegalArgumentException("Unknown cart format: " + bytes[0]);
+            }
+            int n = buffer.getInt();
+            if (n < 0 || (long) n * LINE_BYTES != buffer.remaining()) {
+                throw new IllegalArgumentException("Cart bytes do not hold " + n + " lines");
+            }
+            long[] itemIds = new long[n];
+            long[] productIds = new long[n];
+            int[] quantities = new int[n];
+            long[] prices = new long[n];
+            for (int i = 0; i < n; i++) {
+                itemIds[i] = buffer.getLong();
+                productIds[i] = buffer.getLong();
+                quantities[i] = buffer.getInt();
+                prices[i] = buffer.getLong();
+            }
+            return n == 0 ? EMPTY : new CompactCart(itemIds, productIds, quantities, prices);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated cart bytes", e);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CompactCart)) {
+            return false;
+        }
+        CompactCart cart = (CompactCart) other;
+        return Arrays.equals(itemIds, cart.itemIds) && Arrays.equals(productIds, cart.productIds)
+                && Arrays.equals(quantities, cart.quantities) && Arrays.equals(prices, cart.prices);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(itemIds) + Arrays.hashCode(productIds);
+    }
+    
+    private int indexOf(long itemId) {
+        for (int i = 0; i < itemIds.length; i++) {
+            if (itemIds[i] == itemId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static long[] remove(long[] values, int i) {
+        long[] out = new long[values.length - 1];
+        System.arraycopy(values, 0, out, 0, i);
+        System.arraycopy(values, i + 1, out, i, values.length - i - 1);
+        return out;
+    }
+    
+    private static int[] remove(int[] values, int i) {
+        int[] out = new int[values.length - 1];
+        System.arraycopy(values, 0, out, 0, i);
+        System.arraycopy(values, i + 1, out, i, values.length - i - 1);
+        return out;
+    }
+}
@@ -0,0 +1,277 @@
+package com.smartbasket.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sparse product co-occurrence counts: for each product, how many orders
+ * contained it together with each other product. A row is a
+ * {@link LongIntMap} plus a bounded min-heap of its K best partners, which
+ * is republished as an immutable {@link Ranked} list after each change, so
+ * readers take K entries without locking. Counts only grow between
+ * rebuilds, which lets the heap be maintained one increment at a time.
+ *
+ * {@link #addBasket} must be called by one thread at a time; lookups may
+ * run concurrently with it.
+ */
+final class CooccurrenceMatrix {
+    
+    private final int topK;
+    private final Map<Long, Row> rows;
+    private volatile long pairs;
+    
+    CooccurrenceMatrix(int topK) {
+        this(topK, new ConcurrentHashMap<>(), 0);
+    }
+    
+    private CooccurrenceMatrix(int topK, Map<Long, Row> rows, long pairs) {
+        this.topK = topK;
+        this.rows = rows;
+        this.pairs = pairs;
+    }
+    
+    /**
+     * Counts one order, given its distinct product ids.
+     */
+    void addBasket(long[] products) {
+        long added = 0;
+        for (long anchor : products) {
+            Row row = rows.computeIfAbsent(anchor, id -> new Row(topK));
+            for (long other : products) {
+                if (other != anchor && row.increment(other)) {
+                    added++;
+                }
+            }
+            row.publish();
+        }
+        pairs += added;
+    }
+    
+    /**
+     * The product's top partners, best first.
+     */
+    Ranked ranked(long productId) {
+        Row row = rows.get(productId);
+        return row == null ? Ranked.EMPTY : row.ranked;
+    }
+    
+    int productCount() {
+        return rows.size();
+    }
+    
+    // Ordered pairs with a non-zero count
+    long pairCount() {
+        return pairs;
+    }
+    
+    /**
+     * Counts every basket from scratch on {@code pool}. Products are split
+     * into shards by id; each shard scans all baskets but only counts the
+     * rows it owns, so shards never share a row and need no merging.
+     */
+    static CooccurrenceMatrix build(List<long[]> baskets, int topK, ForkJoinPool pool) {
+        int shards = pool.getParallelism() * 4;
+        Map<Long, Row> rows = new ConcurrentHashMap<>();
+        LongAdder pairs = new LongAdder();
+        pool.invoke(new BuildShards(baskets, topK, shards, 0, shards, rows, pairs));
+        return new CooccurrenceMatrix(topK, rows, pairs.sum());
+    }
+    
+    private static int shard(long productId, int shards) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 33) % shards);
+    }
+    
+    private static final class BuildShards extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final List<long[]> baskets;
+        private final int topK;
+        private final int shards;
+        private final int from;
+        private final int to;
+        private final Map<Long, Row> rows;
+        private final LongAdder pairs;
+        
+        BuildShards(List<long[]> baskets, int topK, int shards, int from, int to, Map<Long, Row> rows, LongAdder pairs) {
+            this.baskets = baskets;
+            this.topK = topK;
+            this.shards = shards;
+            this.from = from;
+            this.to = to;
+            this.rows = rows;
+            this.pairs = pairs;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BuildShards(baskets, topK, shards, from, mid, rows, pairs),
+                        new BuildShards(baskets, topK, shards, mid, to, rows, pairs));
+                return;
+            }
+            Map<Long, Row> owned = new HashMap<>();
+            for (long[] basket : baskets) {
+                for (long anchor : basket) {
+                    if (shard(anchor, shards) != from) {
+                        continue;
+                    }
+                    LongIntMap counts = owned.computeIfAbsent(anchor, id -> new Row(topK)).counts;
+                    for (long other : basket) {
+                        if (other != anchor) {
+                            counts.add(other, 1);
+                        }
+                    }
+                }
+            }
+            // Final counts are known, so rank each row once instead of per increment
+            long counted = 0;
+            for (Row row : owned.values()) {
+                row.counts.forEach(row::offer);
+                row.publish();
+                counted += row.counts.size();
+            }
+            rows.putAll(owned);
+            pairs.add(counted);
+        }
+    }
+    
+    /**
+     * Up to K partners with their counts, best first: most orders together,
+     * then lowest id.
+     */
+    static final class Ranked {
+        static final Ranked EMPTY = new Ranked(new long[0], new int[0]);
+        
+        final long[] ids;
+        final int[] counts;
+        
+        Ranked(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+        
+        int size() {
+            return ids.length;
+        }
+    }
+    
+    private static final class Row {
+        final LongIntMap counts = new LongIntMap();
+        
+        // Min-heap on rank: the root is the weakest of the current top K
+        private final long[] heapIds;
+        private final int[] heapCounts;
+        private int heapSize;
+        private boolean changed;
+        
+        volatile Ranked ranked = Ranked.EMPTY;
+        
+        Row(int topK) {
+            heapIds = new long[topK];
+            heapCounts = new int[topK];
+        }
+        
+        // Returns whether this is the pair's first order
+        boolean increment(long other) {
+            int count = counts.add(other, 1);
+            offer(other, count);
+            return count == 1;
+        }
+        
+        /**
+         * Places {@code id} in the heap if its new count earns it a spot.
+         * A partner already in the heap outranked the root before this
+         * increment, so one that still doesn't outrank it can't be there.
+         */
+        void offer(long id, int count) {
+            if (heapSize == heapIds.length && !outranks(count, id, heapCounts[0], heapIds[0])) {
+                return;
+            }
+            changed = true;
+            for (int i = 0; i < heapSize; i++) {
+                if (heapIds[i] == id) {
+                    heapCounts[i] = count;
+                    siftDown(i);
+                    return;
+                }
+            }
+            if (heapSize < heapIds.length) {
+                heapIds[heapSize] = id;
+                heapCounts[heapSize] = count;
+                siftUp(heapSize++);
+            } else {
+                heapIds[0] = id;
+                heapCounts[0] = count;
+                siftDown(0);
+            }
+        }
+        
+        void publish() {
+            if (!changed) {
+                return;
+            }
+            long[] ids = new long[heapSize];
+            int[] sorted = new int[heapSize];
+            // Insertion sort; K is small
+            for (int i = 0; i < heapSize; i++) {
+                int j = i;
+                while (j > 0 && outranks(heapCounts[i], heapIds[i], sorted[j - 1], ids[j - 1])) {
+                    ids[j] = ids[j - 1];
+                    sorted[j] = sorted[j - 1];
+                    j--;
+                }
+                ids[j] = heapIds[i];
+                sorted[j] = heapCounts[i];
+            }
+            ranked = new Ranked(ids, sorted);
+            changed = false;
+        }
+        
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!outranks(heapCounts[parent], heapIds[parent], heapCounts[i], heapIds[i])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+        
+        private void siftDown(int i) {
+            while (true) {
+                int weakest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+                    if (outranks(heapCounts[weakest], heapIds[weakest], heapCounts[child], heapIds[child])) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == i) {
+                    return;
+                }
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            long id = heapIds[a];
+            heapIds[a] = heapIds[b];
+            heapIds[b] = id;
+            int count = heapCounts[a];
+            heapCounts[a] = heapCounts[b];
+            heapCounts[b] = count;
+        }
+        
+        private static boolean outranks(int count, long id, int otherCount, long otherId) {
+            return count > otherCount || (count == otherCount && id < otherId);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.smartbasket.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time. Records are returned as raw text
+ * so the caller can hand the field splitting to other threads; a quoted
+ * field may span lines, so a record is only complete once its quotes
+ * balance.
+ */
+final class CsvRecordReader {
+    
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordLine;
+    
+    CsvRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * The next record, or null at end of input. Blank lines are skipped.
+     */
+    String next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        recordLine = lineNumber;
+        
+        if (!openQuote(line, false)) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        boolean open = true;
+        while (open) {
+            line = reader.readLine();
+            if (line == null) {
+                // Unterminated quote; the split reports it as malformed
+                break;
+            }
+            lineNumber++;
+            record.append('\n').append(line);
+            open = openQuote(line, true);
+        }
+        return record.toString();
+    }
+    
+    // First physical line of the record last returned by next()
+    long recordLine() {
+        return recordLine;
+    }
+    
+    /**
+     * Splits one record into its fields, unquoting as it goes. Returns null
+     * if a quote is left open.
+     */
+    static List<String> split(String record) {
+        List<String> fields = new ArrayList<>(12);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    // Whether a quote is still open after this line; an escaped "" toggles twice
+    private static boolean openQuote(String line, boolean open) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+}
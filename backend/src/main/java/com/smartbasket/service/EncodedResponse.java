@@ -0,0 +1,88 @@
+package com.smartbasket.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once and served as-is, with a strong ETag
+ * derived from its bytes so clients can revalidate with If-None-Match.
+ * Larger bodies can carry a gzip copy compressed up front, so serving the
+ * compressed variant costs no CPU per request.
+ */
+public final class EncodedResponse {
+    
+    // Below this, gzip framing eats most of the saving
+    private static final int MIN_GZIP_BYTES = 1024;
+    
+    private final byte[] body;
+    private final String etag;
+    private final byte[] gzipBody;
+    
+    private EncodedResponse(byte[] body, String etag, byte[] gzipBody) {
+        this.body = body;
+        this.etag = etag;
+        this.gzipBody = gzipBody;
+    }
+    
+    public static EncodedResponse of(byte[] body) {
+        return new EncodedResponse(body, etag(body), null);
+    }
+    
+    /**
+     * Like {@link #of} but also keeps a gzip copy when the body is large
+     * enough for it to be smaller.
+     */
+    public static EncodedResponse compressible(byte[] body) {
+        byte[] gzip = body.length >= MIN_GZIP_BYTES ? gzip(body) : null;
+        return new EncodedResponse(body, etag(body), gzip != null && gzip.length < body.length ? gzip : null);
+    }
+    
+    // Callers must not modify the returned array
+    public byte[] getBody() {
+        return body;
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+    
+    /**
+     * The gzip copy, or null if the body wasn't worth compressing.
+     */
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+    
+    // Each representation needs its own strong validator
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+    
+    int size() {
+        return body.length + (gzipBody == null ? 0 : gzipBody.length);
+    }
+    
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,219 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Product;
+import com.smartbasket.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hot-SKU mode for flash sales.
+ *
+ * Stock for a hot product is reserved from an in-memory
+ * {@link StripedStockCounter} instead of a conditional update on its row, so
+ * concurrent checkouts don't queue on one row lock. Each checkout inserts
+ * what it took into {@code stock_deltas} in its own transaction, and
+ * {@link #flush()} subtracts those rows from the products table in batches.
+ * At startup the remaining rows are applied before the counters are seeded
+ * from the table, so a crash between commit and flush loses nothing. Switch
+ * a product back to the database path once the sale is over; reservations
+ * still in flight at that moment settle through the flusher.
+ */
+@Service
+public class HotStockService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HotStockService.class);
+    
+    // Delta rows applied per flush transaction
+    private static final int FLUSH_BATCH = 1000;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * Applies deltas committed before the last shutdown or crash, then seeds
+     * the counters from the product rows.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconcile() {
+        int replayed = applyRecordedDeltas();
+        if (replayed > 0) {
+            logger.info("Replayed {} hot stock deltas left from the previous run", replayed);
+            productService.rebuildCatalog();
+        }
+        for (Product product : productRepository.findByHotStockTrue()) {
+            counters.put(product.getId(), new StripedStockCounter(product.getId(), product.getStock()));
+        }
+        if (!counters.isEmpty()) {
+            logger.info("Hot stock counters seeded for products {}", counters.keySet());
+        }
+    }
+    
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+    
+    /**
+     * Reserves stock for hot products from their counters. Must run inside the
+     * checkout transaction: the quantities are recorded as delta rows in it,
+     * and released back to the counters if it rolls back. Returns the ids
+     * that were short; nothing stays reserved in that case.
+     */
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        return reserve(quantities, true);
+    }
+    
+    /**
+     * Takes quantities that the database path already subtracted from the
+     * row out of the counters too. Covers a checkout that raced with
+     * {@link #setHotStock} switching the product on.
+     */
+    public List<Long> reserveAlreadyPersisted(Map<Long, Integer> quantities) {
+        return reserve(quantities, false);
+    }
+    
+    private List<Long> reserve(Map<Long, Integer> quantities, boolean persist) {
+        // Checked up front so a bad line can't leave earlier ones reserved
+        quantities.forEach((id, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Cannot reserve " + quantity + " of product " + id);
+            }
+        });
+        Map<StripedStockCounter, Integer> taken = new HashMap<>();
+        List<Long> insufficient = new ArrayList<>();
+        quantities.forEach((id, quantity) -> {
+            StripedStockCounter counter = counters.get(id);
+            if (counter == null) {
+                return;
+            }
+            if (counter.tryReserve(quantity)) {
+                taken.put(counter, quantity);
+            } else {
+                insufficient.add(id);
+            }
+        });
+        
+        if (!insufficient.isEmpty()) {
+            taken.forEach(StripedStockCounter::release);
+            return insufficient;
+        }
+        if (!taken.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        taken.forEach(StripedStockCounter::release);
+                    }
+                }
+            });
+            if (persist) {
+                Map<Long, Integer> deltas = new HashMap<>();
+                taken.forEach((counter, quantity) -> deltas.put(counter.getProductId(), quantity));
+                productRepository.recordStockDeltas(deltas);
+            }
+        }
+        return insufficient;
+    }
+    
+    /**
+     * Switches hot mode on or off for one product. The row is locked while the
+     * counter is seeded, so checkouts on the database path either finish first
+     * or see the product as hot once they get the lock.
+     */
+    @Transactional
+    public Product setHotStock(Long productId, boolean enabled) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (enabled == counters.containsKey(productId)) {
+            return product;
+        }
+        
+        product.setHotStock(enabled);
+        // Bring the row up to date first: the counter is seeded from it, or the database path takes over from it
+        long flushed = productRepository.applyRecordedDeltas(productId);
+        if (flushed > 0) {
+            product.setStock((int) (product.getStock() - flushed));
+        }
+        StripedStockCounter counter;
+        if (enabled) {
+            counter = new StripedStockCounter(product.getId(), product.getStock());
+            counters.put(productId, counter);
+        } else {
+            counter = counters.remove(productId);
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    productService.rebuildCatalog();
+                } else if (enabled) {
+                    counters.remove(productId, counter);
+                } else {
+                    counters.put(productId, counter);
+                }
+            }
+        });
+        return product;
+    }
+    
+    public Map<Long, Long> getAvailable() {
+        Map<Long, Long> available = new HashMap<>();
+        counters.forEach((id, counter) -> available.put(id, counter.available()));
+        return available;
+    }
+    
+    /**
+     * Writes committed hot-SKU reservations to the products table, one
+     * transaction per batch of delta rows.
+     */
+    @Scheduled(fixedDelayString = "${smartbasket.hot-stock.flush-interval-ms:200}")
+    public synchronized void flush() {
+        try {
+            applyRecordedDeltas();
+        } catch (RuntimeException e) {
+            // The rows are still there, so the next run retries them
+            logger.warn("Hot stock flush failed, will retry: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    private int applyRecordedDeltas() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        while (true) {
+            Integer applied = transaction.execute(status -> productRepository.applyRecordedDeltas(FLUSH_BATCH));
+            total += applied;
+            if (applied < FLUSH_BATCH) {
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartCacheStats;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process {@link CartCache}: users are hashed over a fixed set of
+ * segments, each an access-ordered LRU map with its own lock, so carts of
+ * different users rarely contend. The entry bound is split evenly across
+ * segments and each entry has a time-to-live. Expired entries are dropped
+ * when they are next read.
+ * <p>
+ * Every segment also keeps a table of write generations, bumped by any
+ * put, update or evict, which {@link #putIfUnchanged} checks under the same
+ * lock. A slot is shared by the users hashed to it, so an unrelated write
+ * can at worst skip one fill.
+ */
+public class LocalCartCache implements CartCache {
+    
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int GENERATION_SLOTS = 64;
+    
+    private final long ttlNanos;
+    private final Segment[] segments;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public LocalCartCache(int maxEntries, long ttlSeconds) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        int perSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+    
+    @Override
+    public Optional<CompactCart> get(Long userId) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            Entry entry = segment.entries.get(userId);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                segment.entries.remove(userId);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(entry.cart);
+        }
+    }
+    
+    @Override
+    public void put(Long userId, CompactCart cart) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            segment.bump(userId);
+            store(segment, userId, cart);
+        }
+    }
+    
+    @Override
+    public long version(Long userId) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            return segment.generations[slot(userId)];
+        }
+    }
+    
+    @Override
+    public boolean putIfUnchanged(Long userId, long version, CompactCart cart) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            if (segment.generations[slot(userId)] != version) {
+                return false;
+            }
+            store(segment, userId, cart);
+            return true;
+        }
+    }
+    
+    @Override
+    public void update(Long userId, UnaryOperator<CompactCart> change) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            segment.bump(userId);
+            Entry entry = segment.entries.get(userId);
+            if (entry != null) {
+                segment.entries.put(userId, new Entry(change.apply(entry.cart), entry.expiresAt));
+            }
+        }
+    }
+    
+    @Override
+    public void evict(Long userId) {
+        Segment segment = segment(userId);
+        synchronized (segment) {
+            segment.bump(userId);
+            segment.entries.remove(userId);
+        }
+    }
+    
+    @Override
+    public CartCacheStats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return new CartCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+    
+    private void store(Segment segment, Long userId, CompactCart cart) {
+        segment.entries.put(userId, new Entry(cart, System.nanoTime() + ttlNanos));
+        Iterator<Map.Entry<Long, Entry>> eldest = segment.entries.entrySet().iterator();
+        while (segment.entries.size() > segment.maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+    
+    private Segment segment(Long userId) {
+        return segments[hash(userId) & (SEGMENTS - 1)];
+    }
+    
+    // Uses the hash bits above the segment index, so users of one segment spread over its slots
+    private static int slot(Long userId) {
+        return (hash(userId) >>> SEGMENT_BITS) & (GENERATION_SLOTS - 1);
+    }
+    
+    private static int hash(Long userId) {
+        int h = userId.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    private static final class Segment {
+        final int maxEntries;
+        final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final long[] generations = new long[GENERATION_SLOTS];
+        
+        Segment(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        void bump(Long userId) {
+            generations[slot(userId)]++;
+        }
+    }
+    
+    private static final class Entry {
+        final CompactCart cart;
+        final long expiresAt;
+        
+        Entry(CompactCart cart, long expiresAt) {
+            this.cart = cart;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
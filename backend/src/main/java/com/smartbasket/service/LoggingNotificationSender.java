@@ -0,0 +1,37 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.OutboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stand-in sender for local runs and tests. Logs each message and, when a
+ * file is configured, appends it there as one line.
+ */
+public class LoggingNotificationSender implements NotificationSender {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationSender.class);
+    
+    private final Path file;
+    
+    public LoggingNotificationSender(Path file) {
+        this.file = file;
+    }
+    
+    @Override
+    public void send(OutboxMessage message) throws IOException {
+        logger.info("Notification {} {} to {} for order {}",
+                message.getIdempotencyKey(), message.getType(), message.getRecipient(), message.getOrderId());
+        if (file != null) {
+            String line = message.getIdempotencyKey() + "\t" + message.getRecipient() + "\t" + message.getPayload() + "\n";
+            synchronized (this) {
+                Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+    }
+}
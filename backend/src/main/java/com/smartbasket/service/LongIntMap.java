@@ -0,0 +1,100 @@
+package com.smartbasket.service;
+
+/**
+ * Open-addressing map from long to int with linear probing, so counts stay
+ * in two flat arrays instead of a boxed entry per pair. Keys are product
+ * ids and must be non-zero; zero marks an empty slot. Not thread-safe.
+ */
+final class LongIntMap {
+    
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    
+    LongIntMap() {
+        this(4);
+    }
+    
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+    
+    int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == 0) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Adds {@code delta} to the value for {@code key}, starting from zero,
+     * and returns the new value.
+     */
+    int add(long key, int delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return values[i] += delta;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        // Keep the load factor at or below one half
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return delta;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    interface Entry {
+        void accept(long key, int value);
+    }
+    
+    void forEach(Entry entry) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                entry.accept(keys[i], values[i]);
+            }
+        }
+    }
+    
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+    
+    // Product ids are sequential, so spread them before masking
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.OutboxMessage;
+
+/**
+ * Delivers one outbox message, e.g. as an email. Called from the dispatcher's
+ * worker threads, never on a request thread. Throwing marks the attempt as
+ * failed and schedules a retry. Implementations should pass
+ * {@link OutboxMessage#getIdempotencyKey()} to the provider so a message
+ * retried after a crash is not delivered twice.
+ */
+public interface NotificationSender {
+    
+    void send(OutboxMessage message) throws Exception;
+}
@@ -0,0 +1,235 @@
+package com.smartbasket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartbasket.dto.NotificationStats;
+import com.smartbasket.entity.NotificationType;
+import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OutboxMessage;
+import com.smartbasket.entity.OutboxState;
+import com.smartbasket.entity.User;
+import com.smartbasket.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order notification emails through a transactional outbox.
+ *
+ * Order changes call {@link #enqueue} inside their own transaction, so a
+ * message exists exactly when the change commits and the request never waits
+ * on email I/O. {@link #dispatch()} drains due messages in batches, sends them
+ * in parallel on a bounded worker pool and retries failures with exponential
+ * backoff until {@link #MAX_ATTEMPTS}. One run sends a bounded number of
+ * batches and never sends on the scheduler thread, so a backlog or a slow
+ * provider cannot hold up the other scheduled jobs. The dispatcher assumes a single node;
+ * several nodes would need to claim rows with SELECT ... FOR UPDATE SKIP LOCKED.
+ */
+@Service
+public class NotificationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+    
+    static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 2_000;
+    private static final long MAX_BACKOFF_MILLIS = 600_000;
+    
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+    
+    @Autowired
+    private NotificationSender notificationSender;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${smartbasket.notifications.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${smartbasket.notifications.sender-threads:16}")
+    private int senderThreads;
+    
+    @Value("${smartbasket.notifications.send-timeout-ms:30000}")
+    private long sendTimeoutMillis;
+    
+    @Value("${smartbasket.notifications.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+    
+    private ThreadPoolExecutor senders;
+    
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    
+    @PostConstruct
+    void startSenders() {
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(batchSize, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    void stopSenders() throws InterruptedException {
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Writes an outbox row for the order's current state. Must join the
+     * transaction that made the change; the idempotency key makes a second
+     * enqueue for the same change fail instead of sending twice.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Order order, User user, NotificationType type) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userName", user.getFullName());
+        payload.put("status", order.getStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("shippingAddress", order.getShippingAddress());
+        payload.put("paymentMethod", order.getPaymentMethod());
+        
+        String key = "order-" + order.getId() + "-" + (type == NotificationType.ORDER_STATUS
+                ? order.getStatus().name() : type.name());
+        try {
+            outboxMessageRepository.save(new OutboxMessage(key, type, order.getId(), user.getEmail(),
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize notification for order " + order.getId(), e);
+        }
+    }
+    
+    /**
+     * Sends due messages one batch at a time, up to the per-run batch limit;
+     * whatever is left waits for the next run.
+     */
+    @Scheduled(fixedDelayString = "${smartbasket.notifications.poll-interval-ms:500}")
+    public void dispatch() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<OutboxMessage> due = outboxMessageRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                return;
+            }
+            if (!dispatchBatch(due) || due.size() < batchSize) {
+                return;
+            }
+        }
+    }
+    
+    public NotificationStats getStats() {
+        long sentCount = sent.sum();
+        double busySeconds = busyNanos.sum() / 1e9;
+        long attempts = sentCount + retried.sum() + failed.sum();
+        return new NotificationStats(
+                sentCount,
+                retried.sum(),
+                failed.sum(),
+                batches.sum(),
+                outboxMessageRepository.countByState(OutboxState.PENDING),
+                busySeconds == 0 ? 0.0 : sentCount / busySeconds,
+                attempts == 0 ? 0.0 : sendNanos.sum() / 1e6 / attempts
+        );
+    }
+    
+    // Returns false if the sender pool was full, leaving the rest of the batch due for the next run
+    private boolean dispatchBatch(List<OutboxMessage> batch) {
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> results = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            try {
+                results.add(CompletableFuture.supplyAsync(() -> attempt(message), senders)
+                        .completeOnTimeout("Timed out after " + sendTimeoutMillis + " ms", sendTimeoutMillis, TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException e) {
+                // Sends that timed out earlier still hold the workers; not an attempt, so no backoff
+                logger.warn("Notification senders are saturated; deferring {} messages", batch.size() - results.size());
+                break;
+            }
+        }
+        
+        List<Long> sentIds = new ArrayList<>();
+        List<OutboxMessage> failures = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < results.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            String error = results.get(i).join();
+            if (error == null) {
+                sentIds.add(message.getId());
+            } else {
+                scheduleRetry(message, error, now);
+                failures.add(message);
+            }
+        }
+        
+        if (!sentIds.isEmpty()) {
+            outboxMessageRepository.markSent(sentIds, now);
+        }
+        if (!failures.isEmpty()) {
+            outboxMessageRepository.saveAll(failures);
+        }
+        sent.add(sentIds.size());
+        batches.increment();
+        busyNanos.add(System.nanoTime() - start);
+        return results.size() == batch.size();
+    }
+    
+    // Returns null on success, otherwise the error to record
+    private String attempt(OutboxMessage message) {
+        long start = System.nanoTime();
+        try {
+            notificationSender.send(message);
+            return null;
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            sendNanos.add(System.nanoTime() - start);
+        }
+    }
+    
+    private void scheduleRetry(OutboxMessage message, String error, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (attempts >= MAX_ATTEMPTS) {
+            message.setState(OutboxState.FAILED);
+            failed.increment();
+            logger.warn("Giving up on notification {} after {} attempts: {}", message.getIdempotencyKey(), attempts, error);
+            return;
+        }
+        
+        // Exponential backoff with jitter so a provider outage doesn't retry in lockstep
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempts - 1));
+        backoff = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        message.setNextAttemptAt(now.plusNanos(backoff * 1_000_000));
+        retried.increment();
+    }
+}
@@ -0,0 +1,44 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.OrderSummary;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for order history pages, which run newest first.
+ * Encodes the (createdAt, id) key of the last order returned.
+ */
+final class OrderCursor {
+    
+    private final LocalDateTime createdAt;
+    private final long id;
+    
+    private OrderCursor(LocalDateTime createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    static String encode(OrderSummary last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf('|');
+            if (split > 0) {
+                return new OrderCursor(LocalDateTime.parse(raw.substring(0, split)), Long.parseLong(raw.substring(split + 1)));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+    
+    LocalDateTime getCreatedAt() { return createdAt; }
+    
+    long getId() { return id; }
+}
@@ -0,0 +1,252 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OrderEvent;
+import com.smartbasket.entity.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process pub/sub for live order tracking over Server-Sent Events.
+ *
+ * Each subscriber owns a small bounded queue. Publishing only enqueues, and a
+ * shared pool of writer threads drains each queue, at most one writer per
+ * subscriber at a time. A subscriber whose queue fills up is too slow to keep
+ * up and is disconnected rather than buffered without limit; the browser's
+ * EventSource reconnects and gets the current status again. Open streams hold
+ * no thread between events because the emitters run on servlet async I/O.
+ */
+@Service
+public class OrderEventBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBus.class);
+    
+    @Value("${smartbasket.order-stream.buffer-size:16}")
+    private int bufferSize;
+    
+    @Value("${smartbasket.order-stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+    
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    
+    @Value("${smartbasket.order-stream.writer-threads:32}")
+    private int writerThreads;
+    
+    private ExecutorService writers;
+    
+    @PostConstruct
+    void startWriters() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Opens a stream for one order, or returns empty if {@code loader} finds
+     * no such order. The order is sent first as an "order" event so the
+     * client doesn't need a separate request for the current state; every
+     * later change arrives as a "status" event.
+     * <p>
+     * The subscriber is registered before the order is loaded, so a change
+     * committed in between is not lost. Changes published during the load
+     * are held back until the snapshot is sent. Statuses only move forward,
+     * so any change that doesn't move past the status already sent is dropped.
+     */
+    public Optional<SseEmitter> subscribe(Long orderId, Supplier<Optional<Order>> loader) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(orderId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        
+        subscribers.compute(orderId, (id, targets) -> {
+            Set<Subscriber> set = targets != null ? targets : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        open.incrementAndGet();
+        
+        Optional<Order> order;
+        try {
+            order = loader.get();
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        if (order.isEmpty()) {
+            remove(subscriber);
+            return Optional.empty();
+        }
+        synchronized (subscriber) {
+            offer(subscriber, SseEmitter.event().name("order").data(order.get()));
+            subscriber.sent = order.get().getStatus();
+            for (OrderEvent event : subscriber.held) {
+                send(subscriber, event);
+            }
+            subscriber.held = null;
+        }
+        return Optional.of(emitter);
+    }
+    
+    public void publish(OrderEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.getOrderId());
+        if (targets == null) {
+            return;
+        }
+        published.increment();
+        for (Subscriber subscriber : targets) {
+            synchronized (subscriber) {
+                if (subscriber.held != null) {
+                    subscriber.held.add(event);
+                } else {
+                    send(subscriber, event);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Keeps idle connections alive through proxies and finds clients that
+     * went away without closing the stream.
+     */
+    @Scheduled(fixedDelayString = "${smartbasket.order-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                // Nothing goes out ahead of the snapshot
+                if (subscriber.sent != null) {
+                    offer(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+    
+    public int getOpenStreams() {
+        return open.get();
+    }
+    
+    public long getPublished() {
+        return published.sum();
+    }
+    
+    public long getEvicted() {
+        return evicted.sum();
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                try {
+                    subscriber.emitter.complete();
+                } catch (IllegalStateException e) {
+                    // The container already recycled this response
+                }
+            }
+        }
+        writers.shutdown();
+        writers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    // Caller holds the subscriber's lock
+    private void send(Subscriber subscriber, OrderEvent event) {
+        if (event.getToStatus().ordinal() <= subscriber.sent.ordinal()) {
+            return;
+        }
+        subscriber.sent = event.getToStatus();
+        offer(subscriber, SseEmitter.event().id(String.valueOf(event.getId())).name("status").data(event));
+    }
+    
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            evicted.increment();
+            logger.debug("Disconnecting slow order stream for order {}", subscriber.orderId);
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away
+                    remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                    subscriber.queue.clear();
+                    subscriber.draining.set(false);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event offered after the last poll but before the flag was cleared needs a writer too
+            if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+    
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.orderId, (id, targets) -> {
+            if (targets.remove(subscriber)) {
+                open.decrementAndGet();
+            }
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+    
+    private static final class Subscriber {
+        final Long orderId;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        
+        // Changes published while the snapshot loads; null once it has been sent
+        List<OrderEvent> held = new ArrayList<>();
+        
+        // Latest status sent; written under the subscriber's lock, read by the heartbeat without it
+        volatile OrderStatus sent;
+        
+        Subscriber(Long orderId, SseEmitter emitter, int bufferSize) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
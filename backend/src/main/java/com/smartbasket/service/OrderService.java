@@ -1,61 +1,260 @@
 package com.smartbasket.service;
 
+import com.smartbasket.dto.CartItemResponse;
+import com.smartbasket.dto.OrderDetail;
+import com.smartbasket.dto.OrderSummary;
+import com.smartbasket.dto.PageResponse;
+import com.smartbasket.entity.NotificationType;
 import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OrderEvent;
+import com.smartbasket.entity.OrderStatus;
 import com.smartbasket.entity.User;
-import com.smartbasket.repository.CartItemRepository;
+import com.smartbasket.repository.OrderEventRepository;
 import com.smartbasket.repository.OrderRepository;
+import com.smartbasket.repository.ProductRepository;
 import com.smartbasket.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class OrderService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private final OrderStatusCounters statusCounters = new OrderStatusCounters();
+    
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartService cartService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private HotStockService hotStockService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private OrderEventBus orderEventBus;
     
-    public Order createOrder(Long userId, BigDecimal totalAmount, String shippingAddress, String paymentMethod) {
+    @Autowired
+    private SuggestionService suggestionService;
+    
+    /**
+     * Places an order for the user's current cart. The total is computed from
+     * the cart lines, which are kept as the order's items. Stock for hot SKUs
+     * comes from their in-memory counters and the rest is reserved with one
+     * batch of conditional updates. If any line is short, the whole order
+     * rolls back. A line with a quantity of zero or less fails the order with
+     * IllegalArgumentException.
+     */
+    @Transactional
+    public Order createOrder(Long userId, String shippingAddress, String paymentMethod) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
+        List<CartItemResponse> lines = cartService.loadCart(userId);
+        if (lines.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+        
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItemResponse line : lines) {
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Cart line for product " + line.getProductId() + " has no quantity");
+            }
+            totalAmount = totalAmount.add(line.getSubtotal());
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        
+        Map<Long, Integer> hot = new HashMap<>();
+        Map<Long, Integer> cold = new HashMap<>();
+        quantities.forEach((id, quantity) -> (hotStockService.isHot(id) ? hot : cold).put(id, quantity));
+        
+        List<Long> insufficient = new ArrayList<>(hotStockService.reserve(hot));
+        if (insufficient.isEmpty() && !cold.isEmpty()) {
+            insufficient.addAll(productRepository.reserveStock(cold));
+            
+            // A product switched to hot mode while this checkout waited for its row lock
+            Map<Long, Integer> switched = new HashMap<>();
+            cold.forEach((id, quantity) -> {
+                if (hotStockService.isHot(id)) {
+                    switched.put(id, quantity);
+                }
+            });
+            if (insufficient.isEmpty() && !switched.isEmpty()) {
+                insufficient.addAll(hotStockService.reserveAlreadyPersisted(switched));
+            }
+        }
+        if (!insufficient.isEmpty()) {
+            throw new RuntimeException("Insufficient stock for products " + insufficient);
+        }
+        
         Order order = new Order(user, totalAmount);
         order.setShippingAddress(shippingAddress);
         order.setPaymentMethod(paymentMethod);
-        order.setStatus("PENDING");
+        order.setStatus(OrderStatus.PENDING);
         
         Order savedOrder = orderRepository.save(order);
+        orderRepository.insertItems(savedOrder.getId(), lines);
+        orderEventRepository.save(new OrderEvent(savedOrder.getId(), null, OrderStatus.PENDING));
+        notificationService.enqueue(savedOrder, user, NotificationType.ORDER_CONFIRMATION);
         
         // Clear cart after order creation
-        cartItemRepository.deleteByUserId(userId);
+        cartService.clearCart(userId);
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productService.applyStockReservations(quantities);
+                statusCounters.apply(null, OrderStatus.PENDING);
+                suggestionService.recordOrder(savedOrder.getId(), quantities.keySet());
+            }
+        });
         
         return savedOrder;
     }
     
-    public List<Order> getOrdersByUser(Long userId) {
-        return orderRepository.findByUserId(userId);
+    /**
+     * Returns one keyset page of a user's order history, newest first. Cost
+     * depends on the page size, not on how many orders the user has placed.
+     */
+    public PageResponse<OrderSummary> getOrderHistory(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        // Fetch one extra row to learn whether another page exists
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findSummariesByUserId(userId, window);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findSummariesByUserIdBefore(userId, after.getCreatedAt(), after.getId(), window);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? OrderCursor.encode(page.get(page.size() - 1)) : null;
+        return new PageResponse<>(page, nextCursor);
     }
     
     public Optional<Order> getOrderById(Long orderId) {
         return orderRepository.findById(orderId);
     }
     
+    /**
+     * The order with its line items, read in one query.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderDetail> getOrderDetail(Long orderId) {
+        return orderRepository.findWithItemsById(orderId).map(order -> new OrderDetail(
+                order.getId(),
+                order.getUserId(),
+                order.getTotalAmount(),
+                order.getStatus(),
+                order.getShippingAddress(),
+                order.getPaymentMethod(),
+                order.getCreatedAt(),
+                order.getUpdatedAt(),
+                new ArrayList<>(order.getItems())
+        ));
+    }
+    
     public List<Order> getOrdersByStatus(String status) {
-        return orderRepository.findByStatus(status);
+        return orderRepository.findByStatus(parseStatus(status));
+    }
+    
+    public List<OrderEvent> getOrderEvents(Long orderId) {
+        return orderEventRepository.findByOrderIdOrderByIdAsc(orderId);
     }
     
+    /**
+     * Moves an order to {@code status} and appends the change to the event
+     * log. The order row is locked so concurrent updates apply one at a time.
+     * Throws IllegalArgumentException for an unknown status and
+     * IllegalStateException when the lifecycle doesn't allow the move.
+     */
+    @Transactional
     public Order updateOrderStatus(Long orderId, String status) {
-        Order order = orderRepository.findById(orderId)
+        OrderStatus next = parseStatus(status);
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        order.setStatus(status);
-        return orderRepository.save(order);
+        OrderStatus current = order.getStatus();
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException("Cannot move order " + orderId + " from " + current + " to " + next);
+        }
+        
+        order.setStatus(next);
+        OrderEvent event = orderEventRepository.save(new OrderEvent(orderId, current, next));
+        notificationService.enqueue(order, order.getUser(),
+                next == OrderStatus.CANCELLED ? NotificationType.ORDER_CANCELLATION : NotificationType.ORDER_STATUS);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                statusCounters.apply(current, next);
+                orderEventBus.publish(event);
+            }
+        });
+        return order;
+    }
+    
+    /**
+     * Number of orders currently in each status.
+     */
+    public Map<OrderStatus, Long> getStatusCounts() {
+        return statusCounters.snapshot();
+    }
+    
+    /**
+     * Folds the event log into the status counters: every event adds one to
+     * the status it entered and takes one from the status it left.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildStatusCounters() {
+        statusCounters.reset(toCounts(orderEventRepository.countEntries()), toCounts(orderEventRepository.countExits()));
+    }
+    
+    private static Map<OrderStatus, Long> toCounts(List<Object[]> rows) {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (Object[] row : rows) {
+            counts.put((OrderStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+    
+    private static OrderStatus parseStatus(String status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status is required");
+        }
+        return OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
     }
 }
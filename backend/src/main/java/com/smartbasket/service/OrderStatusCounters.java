@@ -0,0 +1,50 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.OrderStatus;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Number of orders currently in each status, kept in step with the event log.
+ *
+ * Each committed transition moves one order from its old status to the new
+ * one, so dashboard counts are an array read instead of a table scan.
+ */
+final class OrderStatusCounters {
+    
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    
+    /**
+     * Applies one transition; {@code from} is null when the order was created.
+     */
+    void apply(OrderStatus from, OrderStatus to) {
+        if (from != null) {
+            counts.decrementAndGet(from.ordinal());
+        }
+        counts.incrementAndGet(to.ordinal());
+    }
+    
+    /**
+     * Replaces every count with entries minus exits per status, as folded from the log.
+     */
+    void reset(Map<OrderStatus, Long> entries, Map<OrderStatus, Long> exits) {
+        for (OrderStatus status : STATUSES) {
+            counts.set(status.ordinal(), entries.getOrDefault(status, 0L) - exits.getOrDefault(status, 0L));
+        }
+    }
+    
+    long get(OrderStatus status) {
+        return counts.get(status.ordinal());
+    }
+    
+    Map<OrderStatus, Long> snapshot() {
+        Map<OrderStatus, Long> snapshot = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : STATUSES) {
+            snapshot.put(status, counts.get(status.ordinal()));
+        }
+        return snapshot;
+    }
+}
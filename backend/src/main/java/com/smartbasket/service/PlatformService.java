@@ -1,31 +1,104 @@
 package com.smartbasket.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartbasket.entity.Platform;
 import com.smartbasket.repository.PlatformRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Platforms are a handful of rows that change rarely, so reads are served
+ * from an immutable snapshot, already sorted by delivery time and already
+ * serialized to JSON. Saving or deleting a platform drops the snapshot and
+ * the next read rebuilds it. Changes made on another node, or directly in
+ * the database, show up after that node's next write or restart.
+ */
 @Service
 public class PlatformService {
     
     @Autowired
     private PlatformRepository platformRepository;
     
+    @Autowired
+    private PriceComparisonService priceComparisonService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private volatile Snapshot snapshot;
+    
     public List<Platform> getAllPlatforms() {
-        return platformRepository.findAllByOrderByAvgDeliveryMinutesAsc();
+        return snapshot().platforms;
+    }
+    
+    /**
+     * The sorted platform list as JSON, for serving without re-encoding.
+     */
+    public EncodedResponse getAllPlatformsJson() {
+        return snapshot().json;
     }
     
     public Optional<Platform> getPlatformById(Long id) {
-        return platformRepository.findById(id);
+        return Optional.ofNullable(snapshot().byId.get(id));
     }
     
     public Platform savePlatform(Platform platform) {
-        return platformRepository.save(platform);
+        Platform saved = platformRepository.save(platform);
+        invalidate();
+        return saved;
     }
     
     public void deletePlatform(Long id) {
         platformRepository.deleteById(id);
+        invalidate();
+    }
+    
+    private synchronized void invalidate() {
+        snapshot = null;
+        priceComparisonService.invalidate();
+    }
+    
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = buildSnapshot();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+    
+    private Snapshot buildSnapshot() {
+        List<Platform> platforms = Collections.unmodifiableList(platformRepository.findAllByOrderByAvgDeliveryMinutesAsc());
+        Map<Long, Platform> byId = new HashMap<>();
+        for (Platform platform : platforms) {
+            byId.put(platform.getId(), platform);
+        }
+        try {
+            return new Snapshot(platforms, byId, EncodedResponse.of(objectMapper.writeValueAsBytes(platforms)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize platforms", e);
+        }
+    }
+    
+    private static final class Snapshot {
+        final List<Platform> platforms;
+        final Map<Long, Platform> byId;
+        final EncodedResponse json;
+        
+        Snapshot(List<Platform> platforms, Map<Long, Platform> byId, EncodedResponse json) {
+            this.platforms = platforms;
+            this.byId = byId;
+            this.json = json;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.BasketOptimizationResponse;
+import com.smartbasket.dto.CartItemResponse;
+import com.smartbasket.dto.PlatformBasket;
+import com.smartbasket.dto.PlatformQuote;
+import com.smartbasket.dto.PriceComparisonResponse;
+import com.smartbasket.entity.Platform;
+import com.smartbasket.entity.PlatformPrice;
+import com.smartbasket.entity.Product;
+import com.smartbasket.repository.PlatformPriceRepository;
+import com.smartbasket.repository.PlatformRepository;
+import com.smartbasket.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class PriceComparisonService {
+    
+    @Autowired
+    private PlatformPriceRepository platformPriceRepository;
+    
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+    
+    @Autowired
+    private PlatformRepository platformRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CartService cartService;
+    
+    private volatile PriceMatrix matrix;
+    
+    /**
+     * Compares the given quantity of one product across every platform.
+     * Throws IllegalArgumentException unless the quantity is positive.
+     */
+    public PriceComparisonResponse compareProduct(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return compare(new long[] {productId}, new int[] {quantity});
+    }
+    
+    /**
+     * Compares a user's whole cart across every platform, delivery fees included.
+     */
+    public PriceComparisonResponse compareCart(Long userId) {
+        List<CartItemResponse> items = cartService.getCart(userId);
+        long[] productIds = new long[items.size()];
+        int[] quantities = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            productIds[i] = items.get(i).getProductId();
+            quantities[i] = items.get(i).getQuantity();
+        }
+        return compare(productIds, quantities);
+    }
+    
+    public PriceComparisonResponse compare(long[] productIds, int[] quantities) {
+        PriceMatrix current = matrix();
+        int platforms = current.platformCount();
+        int[] rows = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            rows[i] = current.row(productIds[i]);
+        }
+        
+        List<PlatformQuote> quotes = new ArrayList<>(platforms);
+        PlatformQuote cheapest = null;
+        PlatformQuote fastest = null;
+        for (int p = 0; p < platforms; p++) {
+            long itemTotal = 0;
+            int missing = 0;
+            for (int i = 0; i < rows.length; i++) {
+                long unit = current.price(rows[i], p);
+                if (unit == PriceMatrix.MISSING) {
+                    missing++;
+                } else {
+                    itemTotal += unit * quantities[i];
+                }
+            }
+            PlatformQuote quote = new PlatformQuote(
+                    current.platformId(p),
+                    current.platformName(p),
+                    missing,
+                    PriceMatrix.fromPaise(itemTotal),
+                    PriceMatrix.fromPaise(current.deliveryFeeFor(p, itemTotal)),
+                    current.deliveryMinutes(p)
+            );
+            quotes.add(quote);
+            if (!quote.isAvailable()) {
+                continue;
+            }
+            if (cheapest == null || quote.getTotal().compareTo(cheapest.getTotal()) < 0) {
+                cheapest = quote;
+            }
+            if (fastest == null || quote.getDeliveryMinutes() < fastest.getDeliveryMinutes()
+                    || (quote.getDeliveryMinutes().equals(fastest.getDeliveryMinutes())
+                        && quote.getTotal().compareTo(fastest.getTotal()) < 0)) {
+                fastest = quote;
+            }
+        }
+        return new PriceComparisonResponse(quotes, cheapest, fastest);
+    }
+    
+    /**
+     * Splits a user's cart across platforms for the lowest total including
+     * delivery fees. When {@code maxDeliveryMinutes} is set, slower platforms
+     * are left out. Items no eligible platform lists come back as unavailable.
+     */
+    public BasketOptimizationResponse optimizeCart(Long userId, Integer maxDeliveryMinutes) {
+        PriceMatrix current = matrix();
+        int platforms = current.platformCount();
+        boolean[] allowed = new boolean[platforms];
+        for (int p = 0; p < platforms; p++) {
+            allowed[p] = maxDeliveryMinutes == null || current.deliveryMinutes(p) <= maxDeliveryMinutes;
+        }
+        
+        List<CartItemResponse> servable = new ArrayList<>();
+        List<Long> unavailable = new ArrayList<>();
+        for (CartItemResponse item : cartService.getCart(userId)) {
+            int row = current.row(item.getProductId());
+            boolean listed = false;
+            for (int p = 0; p < platforms && !listed; p++) {
+                listed = allowed[p] && current.price(row, p) != PriceMatrix.MISSING;
+            }
+            if (listed) {
+                servable.add(item);
+            } else {
+                unavailable.add(item.getProductId());
+            }
+        }
+        
+        int[] rows = new int[servable.size()];
+        int[] quantities = new int[servable.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = current.row(servable.get(i).getProductId());
+            quantities[i] = servable.get(i).getQuantity();
+        }
+        BasketOptimizer.Result result = rows.length == 0
+                ? new BasketOptimizer.Result(new int[0], 0, true)
+                : BasketOptimizer.solve(current, rows, quantities, allowed);
+        
+        List<PlatformBasket> baskets = new ArrayList<>();
+        long itemTotal = 0;
+        long deliveryFees = 0;
+        Integer slowest = null;
+        for (int p = 0; p < platforms; p++) {
+            List<CartItemResponse> lines = new ArrayList<>();
+            long subtotal = 0;
+            for (int i = 0; i < rows.length; i++) {
+                if (result.assignment[i] != p) {
+                    continue;
+                }
+                CartItemResponse item = servable.get(i);
+                long unit = current.price(rows[i], p);
+                subtotal += unit * quantities[i];
+                lines.add(new CartItemResponse(item.getId(), item.getProductId(), item.getProductName(),
+                        item.getQuantity(), PriceMatrix.fromPaise(unit)));
+            }
+            if (lines.isEmpty()) {
+                continue;
+            }
+            long fee = current.deliveryFeeFor(p, subtotal);
+            itemTotal += subtotal;
+            deliveryFees += fee;
+            slowest = slowest == null ? current.deliveryMinutes(p) : Math.max(slowest, current.deliveryMinutes(p));
+            baskets.add(new PlatformBasket(current.platformId(p), current.platformName(p), lines,
+                    PriceMatrix.fromPaise(subtotal), PriceMatrix.fromPaise(fee), current.deliveryMinutes(p)));
+        }
+        return new BasketOptimizationResponse(baskets, unavailable, PriceMatrix.fromPaise(itemTotal),
+                PriceMatrix.fromPaise(deliveryFees), slowest, result.exact);
+    }
+    
+    public PlatformPrice savePlatformPrice(Long productId, Long platformId, BigDecimal price, Boolean available) {
+        if (price == null || price.signum() < 0) {
+            throw new IllegalArgumentException("Price must be zero or positive");
+        }
+        PlatformPrice platformPrice = platformPriceRepository.findByProductIdAndPlatformId(productId, platformId)
+                .orElseGet(() -> {
+                    Product product = productRepository.findById(productId)
+                            .orElseThrow(() -> new RuntimeException("Product not found"));
+                    Platform platform = platformRepository.findById(platformId)
+                            .orElseThrow(() -> new RuntimeException("Platform not found"));
+                    return new PlatformPrice(product, platform, price);
+                });
+        platformPrice.setPrice(price);
+        if (available != null) {
+            platformPrice.setAvailable(available);
+        }
+        PlatformPrice saved = platformPriceRepository.save(platformPrice);
+        priceHistoryStore.record(productId, platformId, price);
+        updateMatrix(productId, platformId,
+                Boolean.FALSE.equals(saved.getAvailable()) ? PriceMatrix.MISSING : PriceMatrix.toPaise(price));
+        return saved;
+    }
+    
+    /**
+     * Drops the current matrix so the next comparison rebuilds it, e.g. after
+     * platform delivery terms change.
+     */
+    public void invalidate() {
+        matrix = null;
+    }
+    
+    // Patches the one cell in place; only a product or platform the matrix has no slot for needs a rebuild
+    private synchronized void updateMatrix(Long productId, Long platformId, long paise) {
+        PriceMatrix current = matrix;
+        if (current != null && !current.setPrice(productId, platformId, paise)) {
+            rebuildMatrix();
+        }
+    }
+    
+    public synchronized void rebuildMatrix() {
+        matrix = PriceMatrix.build(platformRepository.findAll(), platformPriceRepository.findAvailablePriceRows());
+    }
+    
+    PriceMatrix matrix() {
+        PriceMatrix current = matrix;
+        if (current == null) {
+            synchronized (this) {
+                if (matrix == null) {
+                    rebuildMatrix();
+                }
+                current = matrix;
+            }
+        }
+        return current;
+    }
+}
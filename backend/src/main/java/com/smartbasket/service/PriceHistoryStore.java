@@ -0,0 +1,212 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.PlatformPriceHistory;
+import com.smartbasket.dto.PriceHistoryResponse;
+import com.smartbasket.entity.Platform;
+import com.smartbasket.repository.PlatformPriceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price history per product and platform, recorded whenever a platform
+ * price changes and queried as min / max / time-weighted average over any
+ * window. See {@link PriceSeries} for the encoding and rollups.
+ *
+ * Recent points stay on the heap until a series has a full block, which is
+ * sealed into memory-mapped segment files under
+ * {@code smartbasket.price-history.dir} and read back at startup. Points
+ * older than {@code write-after-minutes} that don't fill a block yet are
+ * appended to the same files as small points frames, so a slowly changing
+ * series is durable without sealing blocks of a point or two.
+ * With no directory configured the history lives in a temporary directory
+ * for the life of the process, like the in-memory database.
+ */
+@Service
+public class PriceHistoryStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryStore.class);
+    
+    private static final int PLATFORM_BITS = 20;
+    
+    @Autowired
+    private PlatformPriceRepository platformPriceRepository;
+    
+    @Value("${smartbasket.price-history.dir:}")
+    private String directory;
+    
+    @Value("${smartbasket.price-history.write-after-minutes:60}")
+    private long writeAfterMinutes;
+    
+    private final Map<Long, PriceSeries> series = new ConcurrentHashMap<>();
+    
+    private PriceSegments segments;
+    private Path temporaryDirectory;
+    
+    @PostConstruct
+    void open() throws IOException {
+        Path path;
+        if (directory == null || directory.isBlank()) {
+            path = temporaryDirectory = Files.createTempDirectory("smartbasket-price-history");
+        } else {
+            path = Path.of(directory);
+        }
+        long start = System.currentTimeMillis();
+        segments = new PriceSegments(path, (key, ref, block) -> {
+            if ((key & PriceSeries.TAIL_POINTS) != 0) {
+                series.computeIfAbsent(key & ~PriceSeries.TAIL_POINTS, k -> new PriceSeries()).recoverTail(block);
+            } else {
+                series.computeIfAbsent(key, k -> new PriceSeries()).recover(block, ref);
+            }
+        });
+        if (!series.isEmpty()) {
+            logger.info("Price history recovered {} series from {} in {} ms",
+                    series.size(), path, System.currentTimeMillis() - start);
+        }
+    }
+    
+    /**
+     * Records the current platform prices, so every listing has a starting
+     * point. Prices that match the recovered history add nothing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordCurrentPrices() {
+        for (PlatformPriceRepository.PriceRow row : platformPriceRepository.findAvailablePriceRows()) {
+            record(row.getProductId(), row.getPlatformId(), row.getPrice());
+        }
+    }
+    
+    public void record(Long productId, Long platformId, BigDecimal price) {
+        record(productId, platformId, price, Instant.now());
+    }
+    
+    /**
+     * Appends an observation; one equal to the last recorded price is
+     * dropped, so recording on a schedule costs nothing while prices hold.
+     */
+    public void record(Long productId, Long platformId, BigDecimal price, Instant at) {
+        long key = key(productId, platformId);
+        PriceSeries target = series.computeIfAbsent(key, k -> new PriceSeries());
+        synchronized (target) {
+            target.add(at.getEpochSecond(), PriceMatrix.toPaise(price));
+            if (target.isTailFull()) {
+                seal(key, target);
+            }
+        }
+    }
+    
+    /**
+     * Min, max and time-weighted average on each of {@code platforms} over
+     * [from, to). Platforms with no price in effect during the window are
+     * left out.
+     */
+    public PriceHistoryResponse getHistory(Long productId, List<Platform> platforms, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        // Points are kept to the second; round up so a change made earlier in
+        // the current second still counts when to is now
+        long end = to.getEpochSecond() + (to.getNano() > 0 ? 1 : 0);
+        List<PlatformPriceHistory> histories = new ArrayList<>();
+        for (Platform platform : platforms) {
+            PriceSeries target = series.get(key(productId, platform.getId()));
+            if (target == null) {
+                continue;
+            }
+            PriceSeries.Window window = new PriceSeries.Window(from.getEpochSecond(), end);
+            synchronized (target) {
+                target.query(window, segments);
+            }
+            if (window.finish()) {
+                histories.add(new PlatformPriceHistory(
+                        platform.getId(),
+                        platform.getName(),
+                        PriceMatrix.fromPaise(window.openingPrice),
+                        PriceMatrix.fromPaise(window.closingPrice()),
+                        PriceMatrix.fromPaise(window.min),
+                        PriceMatrix.fromPaise(window.max),
+                        PriceMatrix.fromPaise(window.averagePrice()),
+                        window.changes
+                ));
+            }
+        }
+        return new PriceHistoryResponse(productId, from, to, histories);
+    }
+    
+    /**
+     * Writes unsealed points older than {@code write-after-minutes} to the
+     * segments. Tails stay open, so only full blocks are ever sealed.
+     */
+    @Scheduled(fixedDelayString = "${smartbasket.price-history.compaction-interval-ms:300000}")
+    public void compact() {
+        long cutoff = Instant.now().getEpochSecond() - writeAfterMinutes * 60;
+        int written = 0;
+        for (Map.Entry<Long, PriceSeries> entry : series.entrySet()) {
+            PriceSeries target = entry.getValue();
+            synchronized (target) {
+                if (target.unwrittenSince() <= cutoff) {
+                    writeTail(entry.getKey(), target);
+                    written++;
+                }
+            }
+        }
+        if (written > 0) {
+            segments.force();
+            logger.debug("Price history wrote the tails of {} series", written);
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        for (Map.Entry<Long, PriceSeries> entry : series.entrySet()) {
+            synchronized (entry.getValue()) {
+                writeTail(entry.getKey(), entry.getValue());
+            }
+        }
+        segments.force();
+        if (temporaryDirectory != null) {
+            FileSystemUtils.deleteRecursively(temporaryDirectory);
+        }
+    }
+    
+    private void seal(long key, PriceSeries target) {
+        try {
+            target.seal(key, segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeTail(long key, PriceSeries target) {
+        try {
+            target.writeTail(key, segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static long key(Long productId, Long platformId) {
+        if (platformId >= 1L << PLATFORM_BITS) {
+            throw new IllegalArgumentException("Platform id " + platformId + " is too large for price history");
+        }
+        return productId << PLATFORM_BITS | platformId;
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Platform;
+import com.smartbasket.repository.PlatformPriceRepository.PriceRow;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Product x platform price matrix in paise.
+ *
+ * Rows are products in id order and columns are platforms in id order.
+ * Prices live in one flat array, and a missing listing is stored as
+ * {@link #MISSING}. A cart comparison is a binary search per item plus a pass
+ * over the platform columns, with no collections and no repository calls.
+ *
+ * The rows, columns and platform terms are fixed once built. Single prices
+ * can be updated in place with {@link #setPrice}; a product or platform
+ * without a slot needs a new matrix.
+ */
+final class PriceMatrix {
+    
+    static final long MISSING = -1L;
+    
+    private final long[] productIds;
+    private final long[] platformIds;
+    private final String[] platformNames;
+    private final long[] deliveryFees;
+    private final long[] freeDeliveryThresholds;
+    private final int[] deliveryMinutes;
+    private final AtomicLongArray prices;
+    
+    private PriceMatrix(long[] productIds, Platform[] platforms, AtomicLongArray prices) {
+        int columns = platforms.length;
+        this.productIds = productIds;
+        this.platformIds = new long[columns];
+        this.platformNames = new String[columns];
+        this.deliveryFees = new long[columns];
+        this.freeDeliveryThresholds = new long[columns];
+        this.deliveryMinutes = new int[columns];
+        for (int p = 0; p < columns; p++) {
+            platformIds[p] = platforms[p].getId();
+            platformNames[p] = platforms[p].getName();
+            deliveryFees[p] = toPaise(platforms[p].getBaseDeliveryFee());
+            freeDeliveryThresholds[p] = toPaise(platforms[p].getFreeDeliveryThreshold());
+            deliveryMinutes[p] = platforms[p].getAvgDeliveryMinutes();
+        }
+        this.prices = prices;
+    }
+    
+    static PriceMatrix build(List<Platform> platformList, List<PriceRow> rows) {
+        Platform[] platforms = platformList.toArray(new Platform[0]);
+        Arrays.sort(platforms, Comparator.comparing(Platform::getId));
+        long[] platformIds = Arrays.stream(platforms).mapToLong(Platform::getId).toArray();
+        
+        long[] productIds = rows.stream().mapToLong(PriceRow::getProductId).distinct().sorted().toArray();
+        long[] prices = new long[productIds.length * platforms.length];
+        Arrays.fill(prices, MISSING);
+        for (PriceRow row : rows) {
+            int r = Arrays.binarySearch(productIds, row.getProductId());
+            int p = Arrays.binarySearch(platformIds, row.getPlatformId());
+            if (p >= 0) {
+                prices[r * platforms.length + p] = toPaise(row.getPrice());
+            }
+        }
+        return new PriceMatrix(productIds, platforms, new AtomicLongArray(prices));
+    }
+    
+    int platformCount() {
+        return platformIds.length;
+    }
+    
+    long platformId(int p) {
+        return platformIds[p];
+    }
+    
+    String platformName(int p) {
+        return platformNames[p];
+    }
+    
+    long deliveryFee(int p) {
+        return deliveryFees[p];
+    }
+    
+    long freeDeliveryThreshold(int p) {
+        return freeDeliveryThresholds[p];
+    }
+    
+    int deliveryMinutes(int p) {
+        return deliveryMinutes[p];
+    }
+    
+    /**
+     * Delivery fee charged by platform {@code p} for an order of
+     * {@code itemTotal} paise.
+     */
+    long deliveryFeeFor(int p, long itemTotal) {
+        return itemTotal >= freeDeliveryThresholds[p] ? 0 : deliveryFees[p];
+    }
+    
+    /** Row index of a product, or -1 when no platform lists it. */
+    int row(long productId) {
+        int r = Arrays.binarySearch(productIds, productId);
+        return r >= 0 ? r : -1;
+    }
+    
+    /** Unit price in paise, or {@link #MISSING}. Row -1 is always missing. */
+    long price(int row, int p) {
+        return row < 0 ? MISSING : prices.get(row * platformIds.length + p);
+    }
+    
+    /**
+     * Sets one unit price in paise, or {@link #MISSING} to delist it.
+     * Returns false when the matrix has no slot for the product or platform
+     * and the price can't be stored without a rebuild.
+     */
+    boolean setPrice(long productId, long platformId, long paise) {
+        int r = row(productId);
+        int p = Arrays.binarySearch(platformIds, platformId);
+        if (r < 0 || p < 0) {
+            // Nothing to delist
+            return paise == MISSING;
+        }
+        prices.set(r * platformIds.length + p, paise);
+        return true;
+    }
+    
+    static long toPaise(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
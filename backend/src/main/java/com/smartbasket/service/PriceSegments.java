@@ -0,0 +1,135 @@
+package com.smartbasket.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only files of sealed price blocks and open-tail points frames,
+ * memory-mapped so the blocks live in the page cache rather than on the
+ * heap. Each frame is {@code [int length][long seriesKey][block]}; the
+ * length is written last, so a crash mid-append leaves a zero that ends
+ * recovery at the last whole frame. A block is addressed by a ref packing
+ * its segment number and offset.
+ */
+final class PriceSegments {
+    
+    static final int SEGMENT_BYTES = 64 << 20;
+    
+    private static final int FRAME_HEADER = Integer.BYTES + Long.BYTES;
+    
+    private final Path directory;
+    
+    // Only appended to; readers index it without the lock
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int writeOffset;
+    private long bytesWritten;
+    
+    interface Recovered {
+        void block(long seriesKey, long ref, ByteBuffer block);
+    }
+    
+    /**
+     * Maps the segments already in {@code directory}, handing every whole
+     * block to {@code recovered} in write order, and positions appends after
+     * the last one.
+     */
+    PriceSegments(Path directory, Recovered recovered) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().matches("segment-\\d+\\.dat")).sorted().toList();
+        }
+        List<MappedByteBuffer> mapped = new ArrayList<>();
+        for (Path file : files) {
+            MappedByteBuffer segment = map(file);
+            int offset = 0;
+            while (offset + FRAME_HEADER <= SEGMENT_BYTES) {
+                int length = segment.getInt(offset);
+                if (length <= 0) {
+                    break;
+                }
+                long ref = ((long) mapped.size() << 32) | (offset + FRAME_HEADER);
+                recovered.block(segment.getLong(offset + Integer.BYTES), ref, block(segment, offset + FRAME_HEADER));
+                offset += FRAME_HEADER + length;
+                bytesWritten += FRAME_HEADER + length;
+            }
+            mapped.add(segment);
+            writeOffset = offset;
+        }
+        if (mapped.isEmpty()) {
+            mapped.add(map(segmentPath(0)));
+        }
+        segments = mapped.toArray(new MappedByteBuffer[0]);
+    }
+    
+    /**
+     * Appends one encoded block and returns its ref.
+     */
+    synchronized long append(long seriesKey, byte[] block) throws IOException {
+        if (block.length > SEGMENT_BYTES - FRAME_HEADER) {
+            throw new IllegalArgumentException("Block of " + block.length + " bytes doesn't fit a segment");
+        }
+        MappedByteBuffer[] current = segments;
+        if (writeOffset + FRAME_HEADER + block.length > SEGMENT_BYTES) {
+            current[current.length - 1].force();
+            MappedByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = map(segmentPath(current.length));
+            segments = current = grown;
+            writeOffset = 0;
+        }
+        MappedByteBuffer segment = current[current.length - 1];
+        segment.putLong(writeOffset + Integer.BYTES, seriesKey);
+        segment.put(writeOffset + FRAME_HEADER, block);
+        segment.putInt(writeOffset, block.length);
+        long ref = ((long) (current.length - 1) << 32) | (writeOffset + FRAME_HEADER);
+        writeOffset += FRAME_HEADER + block.length;
+        bytesWritten += FRAME_HEADER + block.length;
+        return ref;
+    }
+    
+    /**
+     * A read-only view starting at the block {@code ref} points to.
+     */
+    ByteBuffer read(long ref) {
+        return block(segments[(int) (ref >>> 32)], (int) ref);
+    }
+    
+    synchronized long bytesWritten() {
+        return bytesWritten;
+    }
+    
+    int segmentCount() {
+        return segments.length;
+    }
+    
+    synchronized void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+    
+    private static ByteBuffer block(MappedByteBuffer segment, int offset) {
+        return segment.asReadOnlyBuffer().position(offset);
+    }
+    
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%05d.dat", index));
+    }
+    
+    // The file is sparse until blocks are written into it
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+        }
+    }
+}
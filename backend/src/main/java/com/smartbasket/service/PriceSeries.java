@@ -0,0 +1,518 @@
+package com.smartbasket.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Price observations for one product on one platform, as a step function:
+ * a price holds from its timestamp until the next one.
+ *
+ * New points go to an unsealed tail of two varint columns, seconds since
+ * the previous point and the zigzag price change in paise. Only a full tail
+ * is sealed into a block in {@link PriceSegments}; until then its points are
+ * made durable by appending the ones not yet written as a small points frame,
+ * which recovery replays into the tail and a later sealed block supersedes.
+ * Once sealed, only the block's summary stays on the heap: first and last
+ * point, min, max, point count and the time-weighted price sum between its
+ * points. Prefix sums and a min/max segment tree over those summaries answer
+ * a window in O(log n), decoding at most the two blocks at its edges.
+ *
+ * Callers synchronize on the series.
+ */
+final class PriceSeries {
+    
+    static final int BLOCK_POINTS = 256;
+    
+    // Encoded block: count, then the summary fields, then the two columns
+    static final int BLOCK_HEADER = Integer.BYTES + 7 * Long.BYTES + Integer.BYTES;
+    
+    // Set in the series key of a frame holding tail points rather than a sealed block
+    static final long TAIL_POINTS = Long.MIN_VALUE;
+    
+    // Points frame: count and the time column's length, then the two columns
+    private static final int POINTS_HEADER = 2 * Integer.BYTES;
+    
+    // Summary fields per sealed block in `blocks`
+    private static final int START = 0, FIRST_PRICE = 1, LAST_TIME = 2, LAST_PRICE = 3, MIN = 4, MAX = 5,
+            SUM = 6, COUNT = 7, REF = 8, STRIDE = 9;
+    
+    // Below this many blocks a linear pass over the summaries beats keeping a tree
+    private static final int ROLLUP_MIN_BLOCKS = 8;
+    
+    private static final long[] NO_BLOCKS = new long[0];
+    
+    private long[] blocks = NO_BLOCKS;
+    private int blockCount;
+    
+    // Prefix sums of weighted price and count, then the min and max trees. Built on the
+    // first query after a seal, and never below ROLLUP_MIN_BLOCKS
+    private long[] rollup;
+    
+    private Tail tail;
+    
+    private long lastTime = Long.MIN_VALUE;
+    private long lastPrice = -1;
+    
+    /**
+     * Appends an observation. Returns false if it doesn't change the price.
+     * A timestamp earlier than the last point is treated as arriving at the
+     * same moment, so the series never goes back in time.
+     */
+    boolean add(long epochSecond, long paise) {
+        if (paise == lastPrice) {
+            return false;
+        }
+        long time = Math.max(epochSecond, lastTime);
+        if (tail == null) {
+            tail = new Tail(lastTime == Long.MIN_VALUE ? 0 : lastTime, Math.max(lastPrice, 0));
+        }
+        tail.add(time, paise);
+        lastTime = time;
+        lastPrice = paise;
+        return true;
+    }
+    
+    boolean isTailFull() {
+        return tail != null && tail.count >= BLOCK_POINTS;
+    }
+    
+    // Time of the oldest point not yet written to the segments, or Long.MAX_VALUE when there are none
+    long unwrittenSince() {
+        return tail == null || tail.written == tail.count ? Long.MAX_VALUE : tail.unwrittenSince;
+    }
+    
+    int tailPoints() {
+        return tail == null ? 0 : tail.count;
+    }
+    
+    int blockCount() {
+        return blockCount;
+    }
+    
+    /**
+     * Writes the tail to {@code segments} as a sealed block.
+     */
+    void seal(long key, PriceSegments segments) throws IOException {
+        if (tail == null) {
+            return;
+        }
+        byte[] encoded = tail.encode();
+        long ref = segments.append(key, encoded);
+        addBlock(ByteBuffer.wrap(encoded), ref);
+        tail = null;
+    }
+    
+    /**
+     * Appends the tail points not yet in {@code segments} as a points frame,
+     * leaving the tail open.
+     */
+    void writeTail(long key, PriceSegments segments) throws IOException {
+        if (tail == null || tail.written == tail.count) {
+            return;
+        }
+        segments.append(key | TAIL_POINTS, tail.encodeUnwritten());
+        tail.markWritten();
+    }
+    
+    /**
+     * Adds a block found in the segments at startup. Blocks and points frames
+     * must arrive in the order they were written.
+     */
+    void recover(ByteBuffer block, long ref) {
+        // The block was sealed from the tail, so it holds every point replayed so far
+        tail = null;
+        addBlock(block, ref);
+        lastTime = blocks[(blockCount - 1) * STRIDE + LAST_TIME];
+        lastPrice = blocks[(blockCount - 1) * STRIDE + LAST_PRICE];
+    }
+    
+    /**
+     * Replays a points frame found in the segments at startup into the tail.
+     */
+    void recoverTail(ByteBuffer points) {
+        int position = points.position();
+        int count = points.getInt(position);
+        int[] timeAt = {position + POINTS_HEADER};
+        int[] priceAt = {timeAt[0] + points.getInt(position + Integer.BYTES)};
+        // Each frame continues from the last point written before it
+        long time = lastTime == Long.MIN_VALUE ? 0 : lastTime;
+        long price = Math.max(lastPrice, 0);
+        for (int i = 0; i < count; i++) {
+            time += getVarLong(points, timeAt);
+            long change = getVarLong(points, priceAt);
+            price += (change >>> 1) ^ -(change & 1);
+            add(time, price);
+        }
+        tail.markWritten();
+    }
+    
+    /**
+     * Folds the part of the series that falls in [{@code from}, {@code to})
+     * into {@code window}.
+     */
+    void query(Window window, PriceSegments segments) {
+        long from = window.from;
+        long to = window.to;
+        // The block in effect at `from`, then every block starting before `to`
+        int first = Math.max(0, lastBlockStartingBefore(from + 1));
+        int last = lastBlockStartingBefore(to);
+        if (rollup == null && blockCount >= ROLLUP_MIN_BLOCKS) {
+            rollup = buildRollup();
+        }
+        int k = first;
+        while (k <= last) {
+            if (blocks[k * STRIDE + LAST_TIME] <= from) {
+                // Only its last price reaches into the window
+                window.point(blocks[k * STRIDE + LAST_TIME], blocks[k * STRIDE + LAST_PRICE]);
+                k++;
+            } else if (blocks[k * STRIDE + START] > from && blocks[k * STRIDE + LAST_TIME] < to) {
+                int end = k;
+                while (end < last && blocks[(end + 1) * STRIDE + LAST_TIME] < to) {
+                    end++;
+                }
+                mergeBlocks(window, k, end);
+                k = end + 1;
+            } else {
+                scan(window, segments.read(blocks[k * STRIDE + REF]));
+                k++;
+            }
+        }
+        if (tail != null && tail.firstTime < to) {
+            scan(window, ByteBuffer.wrap(tail.encode()));
+        }
+    }
+    
+    private void addBlock(ByteBuffer block, long ref) {
+        int position = block.position();
+        if ((blockCount + 1) * STRIDE > blocks.length) {
+            blocks = Arrays.copyOf(blocks, Math.max(STRIDE, blocks.length * 2));
+        }
+        int base = blockCount * STRIDE;
+        blocks[base + COUNT] = block.getInt(position);
+        blocks[base + START] = block.getLong(position + 4);
+        blocks[base + FIRST_PRICE] = block.getLong(position + 12);
+        blocks[base + LAST_TIME] = block.getLong(position + 20);
+        blocks[base + LAST_PRICE] = block.getLong(position + 28);
+        blocks[base + MIN] = block.getLong(position + 36);
+        blocks[base + MAX] = block.getLong(position + 44);
+        blocks[base + SUM] = block.getLong(position + 52);
+        blocks[base + REF] = ref;
+        blockCount++;
+        rollup = null;
+    }
+    
+    // Weighted sum of block k including the gap until the next block starts
+    private long bridgedSum(int k) {
+        long sum = blocks[k * STRIDE + SUM];
+        if (k + 1 < blockCount) {
+            sum += blocks[k * STRIDE + LAST_PRICE] * (blocks[(k + 1) * STRIDE + START] - blocks[k * STRIDE + LAST_TIME]);
+        }
+        return sum;
+    }
+    
+    private long[] buildRollup() {
+        int n = blockCount;
+        long[] r = new long[2 * (n + 1) + 4 * n];
+        int counts = n + 1, mins = 2 * (n + 1), maxes = mins + 2 * n;
+        for (int k = 0; k < n; k++) {
+            r[k + 1] = r[k] + bridgedSum(k);
+            r[counts + k + 1] = r[counts + k] + blocks[k * STRIDE + COUNT];
+            r[mins + n + k] = blocks[k * STRIDE + MIN];
+            r[maxes + n + k] = blocks[k * STRIDE + MAX];
+        }
+        for (int i = n - 1; i > 0; i--) {
+            r[mins + i] = Math.min(r[mins + 2 * i], r[mins + 2 * i + 1]);
+            r[maxes + i] = Math.max(r[maxes + 2 * i], r[maxes + 2 * i + 1]);
+        }
+        return r;
+    }
+    
+    // Blocks a..b lie wholly inside the window; fold them in from their summaries
+    private void mergeBlocks(Window window, int a, int b) {
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum, count;
+        if (rollup != null) {
+            int n = blockCount;
+            int counts = n + 1, mins = 2 * (n + 1), maxes = mins + 2 * n;
+            sum = rollup[b + 1] - rollup[a];
+            count = rollup[counts + b + 1] - rollup[counts + a];
+            for (int lo = a + n, hi = b + n + 1; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) {
+                    min = Math.min(min, rollup[mins + lo]);
+                    max = Math.max(max, rollup[maxes + lo]);
+                    lo++;
+                }
+                if ((hi & 1) == 1) {
+                    hi--;
+                    min = Math.min(min, rollup[mins + hi]);
+                    max = Math.max(max, rollup[maxes + hi]);
+                }
+            }
+        } else {
+            sum = 0;
+            count = 0;
+            for (int k = a; k <= b; k++) {
+                sum += bridgedSum(k);
+                count += blocks[k * STRIDE + COUNT];
+                min = Math.min(min, blocks[k * STRIDE + MIN]);
+                max = Math.max(max, blocks[k * STRIDE + MAX]);
+            }
+        }
+        // The gap after b is the window's to account for, not the blocks'
+        if (b + 1 < blockCount) {
+            sum -= blocks[b * STRIDE + LAST_PRICE] * (blocks[(b + 1) * STRIDE + START] - blocks[b * STRIDE + LAST_TIME]);
+        }
+        window.point(blocks[a * STRIDE + START], blocks[a * STRIDE + FIRST_PRICE]);
+        window.span(blocks[b * STRIDE + LAST_TIME], blocks[b * STRIDE + LAST_PRICE], sum, min, max, (int) count - 1);
+    }
+    
+    // Index of the last sealed block that starts before `time`, or -1
+    private int lastBlockStartingBefore(long time) {
+        int lo = 0, hi = blockCount - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (blocks[mid * STRIDE + START] < time) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+    
+    private static long getVarLong(ByteBuffer buffer, int[] at) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(at[0]++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    private static void scan(Window window, ByteBuffer block) {
+        int position = block.position();
+        int count = block.getInt(position);
+        int timeLength = block.getInt(position + BLOCK_HEADER - Integer.BYTES);
+        long time = block.getLong(position + 4);
+        long price = block.getLong(position + 12);
+        int timeAt = position + BLOCK_HEADER;
+        int priceAt = timeAt + timeLength;
+        window.point(time, price);
+        for (int i = 1; i < count && time < window.to; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = block.get(timeAt++);
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            long change = 0;
+            shift = 0;
+            do {
+                b = block.get(priceAt++);
+                change |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            time += delta;
+            price += (change >>> 1) ^ -(change & 1);
+            window.point(time, price);
+        }
+    }
+    
+    /**
+     * Running min, max and time-weighted sum of the step function over
+     * [{@code from}, {@code to}). The price in effect at {@code from} counts;
+     * with no point at or before {@code from} the window starts at the first
+     * point.
+     */
+    static final class Window {
+        final long from;
+        final long to;
+        
+        private boolean priced;
+        private long price;
+        private long since;
+        
+        long openingPrice = -1;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long weightedSum;
+        long coveredSeconds;
+        int changes;
+        
+        Window(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        void point(long time, long paise) {
+            if (time <= from) {
+                priced = true;
+                price = paise;
+                since = from;
+                return;
+            }
+            if (time >= to) {
+                return;
+            }
+            if (priced) {
+                hold(time);
+            }
+            if (openingPrice < 0) {
+                openingPrice = priced ? price : paise;
+            }
+            priced = true;
+            price = paise;
+            since = time;
+            changes++;
+        }
+        
+        // A run of points summarized: the series moved to `lastPrice` at `lastTime`
+        void span(long lastTime, long lastPrice, long sum, long spanMin, long spanMax, int spanChanges) {
+            weightedSum += sum;
+            coveredSeconds += lastTime - since;
+            min = Math.min(min, spanMin);
+            max = Math.max(max, spanMax);
+            changes += spanChanges;
+            price = lastPrice;
+            since = lastTime;
+        }
+        
+        /**
+         * Closes the window. Returns false if no price was in effect in it.
+         */
+        boolean finish() {
+            if (!priced) {
+                return false;
+            }
+            if (openingPrice < 0) {
+                openingPrice = price;
+            }
+            hold(to);
+            return true;
+        }
+        
+        long closingPrice() {
+            return price;
+        }
+        
+        long averagePrice() {
+            return coveredSeconds == 0 ? price : Math.round((double) weightedSum / coveredSeconds);
+        }
+        
+        private void hold(long until) {
+            weightedSum += price * (until - since);
+            coveredSeconds += until - since;
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+    }
+    
+    /**
+     * Points not yet sealed, as the two varint columns a block stores. The
+     * first {@code written} of them are already in the segments as points
+     * frames.
+     */
+    private static final class Tail {
+        // The point before the tail, which its first points frame continues from
+        final long baseTime;
+        final long basePrice;
+        int count;
+        long firstTime;
+        long firstPrice;
+        long lastTime;
+        long lastPrice;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long sum;
+        byte[] times = new byte[16];
+        int timesLength;
+        byte[] prices = new byte[16];
+        int pricesLength;
+        int written;
+        int writtenTimesLength;
+        int writtenPricesLength;
+        long unwrittenSince;
+        
+        Tail(long baseTime, long basePrice) {
+            this.baseTime = baseTime;
+            this.basePrice = basePrice;
+        }
+        
+        void add(long time, long paise) {
+            if (count == written) {
+                unwrittenSince = time;
+            }
+            if (count == 0) {
+                firstTime = time;
+                firstPrice = paise;
+            } else {
+                sum += lastPrice * (time - lastTime);
+                long change = paise - lastPrice;
+                times = ensureRoom(times, timesLength);
+                timesLength = putVarLong(times, timesLength, time - lastTime);
+                prices = ensureRoom(prices, pricesLength);
+                pricesLength = putVarLong(prices, pricesLength, (change << 1) ^ (change >> 63));
+            }
+            lastTime = time;
+            lastPrice = paise;
+            min = Math.min(min, paise);
+            max = Math.max(max, paise);
+            count++;
+        }
+        
+        byte[] encode() {
+            ByteBuffer out = ByteBuffer.allocate(BLOCK_HEADER + timesLength + pricesLength);
+            out.putInt(count).putLong(firstTime).putLong(firstPrice).putLong(lastTime).putLong(lastPrice)
+                    .putLong(min).putLong(max).putLong(sum).putInt(timesLength)
+                    .put(times, 0, timesLength).put(prices, 0, pricesLength);
+            return out.array();
+        }
+        
+        // The points after `written`, each as a change from the one before
+        byte[] encodeUnwritten() {
+            // The tail's first point isn't in the columns, so the first frame leads with it
+            byte[] leadTime = new byte[10];
+            byte[] leadPrice = new byte[10];
+            int leadTimeLength = 0;
+            int leadPriceLength = 0;
+            if (written == 0) {
+                long change = firstPrice - basePrice;
+                leadTimeLength = putVarLong(leadTime, 0, firstTime - baseTime);
+                leadPriceLength = putVarLong(leadPrice, 0, (change << 1) ^ (change >> 63));
+            }
+            int timeLength = leadTimeLength + timesLength - writtenTimesLength;
+            int priceLength = leadPriceLength + pricesLength - writtenPricesLength;
+            ByteBuffer out = ByteBuffer.allocate(POINTS_HEADER + timeLength + priceLength);
+            out.putInt(count - written).putInt(timeLength)
+                    .put(leadTime, 0, leadTimeLength).put(times, writtenTimesLength, timesLength - writtenTimesLength)
+                    .put(leadPrice, 0, leadPriceLength).put(prices, writtenPricesLength, pricesLength - writtenPricesLength);
+            return out.array();
+        }
+        
+        void markWritten() {
+            written = count;
+            writtenTimesLength = timesLength;
+            writtenPricesLength = pricesLength;
+        }
+        
+        // A varint is at most 10 bytes
+        private static byte[] ensureRoom(byte[] column, int length) {
+            return length + 10 > column.length ? Arrays.copyOf(column, column.length * 2) : column;
+        }
+        
+        private static int putVarLong(byte[] column, int at, long value) {
+            while ((value & ~0x7FL) != 0) {
+                column[at++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            column[at++] = (byte) value;
+            return at;
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CatalogProduct;
+import com.smartbasket.entity.Product;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-optimized snapshot of the product catalog.
+ *
+ * Products are held in id order; category and brand filters are served from
+ * sorted posting lists of array positions and combined with ranked hits from
+ * {@link ProductSearchIndex}. Snapshots are never changed once published, so
+ * readers never lock and never touch the database. Saving or deleting one
+ * product derives the next snapshot from the current one: only that slot and
+ * the posting lists it moves between are copied, and every other product is
+ * shared.
+ *
+ * The snapshot holds read-only {@link CatalogProduct} copies, never the JPA
+ * entities. Everything but stock is fixed once copied. Stock is an atomic
+ * counter per product that the copy reads, so committed checkouts can take
+ * from it while readers and serializers see the current value. Counters are
+ * shared along with their products, so a reservation made against the
+ * previous snapshot still lands in the next one.
+ */
+final class ProductCatalogIndex {
+    
+    private static final int[] NO_POSTINGS = new int[0];
+    
+    private final long version;
+    private final CatalogProduct[] products;
+    private final AtomicInteger[] stock;
+    private final long[] ids;
+    private final Map<String, int[]> byCategory;
+    private final Map<String, int[]> byBrand;
+    private final int[] priceOrder;
+    private final List<CatalogProduct> all;
+    
+    private ProductCatalogIndex(long version, CatalogProduct[] products, AtomicInteger[] stock, long[] ids,
+                                Map<String, int[]> byCategory, Map<String, int[]> byBrand, int[] priceOrder) {
+        this.version = version;
+        this.products = products;
+        this.stock = stock;
+        this.ids = ids;
+        this.byCategory = byCategory;
+        this.byBrand = byBrand;
+        this.priceOrder = priceOrder;
+        this.all = Collections.unmodifiableList(Arrays.asList(products));
+    }
+    
+    static ProductCatalogIndex build(List<Product> source, long version) {
+        Product[] sorted = source.toArray(new Product[0]);
+        Arrays.sort(sorted, Comparator.comparing(Product::getId));
+        CatalogProduct[] products = new CatalogProduct[sorted.length];
+        AtomicInteger[] stock = new AtomicInteger[sorted.length];
+        long[] ids = new long[sorted.length];
+        Map<String, List<Integer>> categories = new HashMap<>();
+        Map<String, List<Integer>> brands = new HashMap<>();
+        for (int i = 0; i < sorted.length; i++) {
+            stock[i] = stockOf(sorted[i]);
+            CatalogProduct product = new CatalogProduct(sorted[i], stock[i]);
+            products[i] = product;
+            ids[i] = product.getId();
+            categories.computeIfAbsent(normalize(product.getCategory()), k -> new ArrayList<>()).add(i);
+            brands.computeIfAbsent(normalize(product.getBrand()), k -> new ArrayList<>()).add(i);
+        }
+        return new ProductCatalogIndex(version, products, stock, ids, toPostings(categories), toPostings(brands),
+                sortByPrice(products));
+    }
+    
+    /**
+     * The next snapshot with {@code saved} added, or replacing the product
+     * with its id.
+     */
+    ProductCatalogIndex with(Product saved, long nextVersion) {
+        AtomicInteger count = stockOf(saved);
+        CatalogProduct product = new CatalogProduct(saved, count);
+        String category = normalize(product.getCategory());
+        String brand = normalize(product.getBrand());
+        int pos = Arrays.binarySearch(ids, product.getId());
+        if (pos >= 0) {
+            CatalogProduct old = products[pos];
+            CatalogProduct[] next = products.clone();
+            next[pos] = product;
+            AtomicInteger[] nextStock = stock.clone();
+            nextStock[pos] = count;
+            boolean priceMoved = old.getPrice().compareTo(product.getPrice()) != 0;
+            return new ProductCatalogIndex(nextVersion, next, nextStock, ids,
+                    move(byCategory, normalize(old.getCategory()), category, pos),
+                    move(byBrand, normalize(old.getBrand()), brand, pos),
+                    priceMoved ? insertByPrice(next, remove(priceOrder, pos, 0), pos) : priceOrder);
+        }
+        
+        // New ids are usually the highest, so this is normally an append and nothing shifts
+        int at = -pos - 1;
+        CatalogProduct[] next = new CatalogProduct[products.length + 1];
+        System.arraycopy(products, 0, next, 0, at);
+        next[at] = product;
+        System.arraycopy(products, at, next, at + 1, products.length - at);
+        AtomicInteger[] nextStock = new AtomicInteger[stock.length + 1];
+        System.arraycopy(stock, 0, nextStock, 0, at);
+        nextStock[at] = count;
+        System.arraycopy(stock, at, nextStock, at + 1, stock.length - at);
+        long[] nextIds = new long[ids.length + 1];
+        System.arraycopy(ids, 0, nextIds, 0, at);
+        nextIds[at] = product.getId();
+        System.arraycopy(ids, at, nextIds, at + 1, ids.length - at);
+        return new ProductCatalogIndex(nextVersion, next, nextStock, nextIds,
+                add(shift(byCategory, at, 1), category, at),
+                add(shift(byBrand, at, 1), brand, at),
+                insertByPrice(next, shift(priceOrder, at, 1), at));
+    }
+    
+    /**
+     * The next snapshot without the product {@code id}.
+     */
+    ProductCatalogIndex without(Long id, long nextVersion) {
+        int pos = id == null ? -1 : Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return new ProductCatalogIndex(nextVersion, products, stock, ids, byCategory, byBrand, priceOrder);
+        }
+        CatalogProduct old = products[pos];
+        CatalogProduct[] next = new CatalogProduct[products.length - 1];
+        System.arraycopy(products, 0, next, 0, pos);
+        System.arraycopy(products, pos + 1, next, pos, next.length - pos);
+        AtomicInteger[] nextStock = new AtomicInteger[stock.length - 1];
+        System.arraycopy(stock, 0, nextStock, 0, pos);
+        System.arraycopy(stock, pos + 1, nextStock, pos, nextStock.length - pos);
+        long[] nextIds = new long[ids.length - 1];
+        System.arraycopy(ids, 0, nextIds, 0, pos);
+        System.arraycopy(ids, pos + 1, nextIds, pos, nextIds.length - pos);
+        return new ProductCatalogIndex(nextVersion, next, nextStock, nextIds,
+                shift(drop(byCategory, normalize(old.getCategory()), pos), pos, -1),
+                shift(drop(byBrand, normalize(old.getBrand()), pos), pos, -1),
+                remove(priceOrder, pos, -1));
+    }
+    
+    /**
+     * Takes a committed reservation out of the product's stock, if the
+     * product is in this snapshot. Returns whether that moved the product
+     * between in stock and out of stock.
+     */
+    boolean reserveStock(Long id, int quantity) {
+        int pos = id == null ? -1 : Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return false;
+        }
+        int after = stock[pos].addAndGet(-quantity);
+        return (after > 0) != (after + quantity > 0);
+    }
+    
+    long getVersion() {
+        return version;
+    }
+    
+    int size() {
+        return products.length;
+    }
+    
+    List<CatalogProduct> all() {
+        return all;
+    }
+    
+    Optional<CatalogProduct> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        return pos >= 0 ? Optional.of(products[pos]) : Optional.empty();
+    }
+    
+    /**
+     * Returns the products matching every supplied filter. Null or blank
+     * filters are ignored; with no filters the whole catalog is returned.
+     * {@code searchHits} are product ids in rank order from the search index,
+     * or null when there is no search term.
+     */
+    List<CatalogProduct> find(String category, String brand, long[] searchHits) {
+        int[] matches = match(category, brand, null);
+        if (searchHits == null) {
+            if (matches == null) {
+                return all;
+            }
+            List<CatalogProduct> result = new ArrayList<>(matches.length);
+            for (int pos : matches) {
+                result.add(products[pos]);
+            }
+            return result;
+        }
+        
+        // Keep the search ranking and drop hits outside the category/brand filter
+        BitSet members = matches == null ? null : toBitSet(matches);
+        List<CatalogProduct> result = new ArrayList<>(searchHits.length);
+        for (long id : searchHits) {
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos >= 0 && (members == null || members.get(pos))) {
+                result.add(products[pos]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Seeks past {@code after} in id order and returns up to {@code limit}
+     * matching products. A null {@code after} starts from the beginning.
+     */
+    List<CatalogProduct> pageById(String category, String brand, long[] searchHits, Long after, int limit) {
+        int[] matches = match(category, brand, searchHits);
+        List<CatalogProduct> page = new ArrayList<>(limit);
+        if (matches == null) {
+            int start = after == null ? 0 : upperBound(ids, after);
+            for (int pos = start; pos < products.length && page.size() < limit; pos++) {
+                page.add(products[pos]);
+            }
+        } else {
+            int start = 0;
+            if (after != null) {
+                int lo = 0, hi = matches.length;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (ids[matches[mid]] <= after) lo = mid + 1; else hi = mid;
+                }
+                start = lo;
+            }
+            for (int k = start; k < matches.length && page.size() < limit; k++) {
+                page.add(products[matches[k]]);
+            }
+        }
+        return page;
+    }
+    
+    /**
+     * Seeks past the ({@code afterPrice}, {@code afterId}) key in ascending
+     * price order and returns up to {@code limit} matching products.
+     */
+    List<CatalogProduct> pageByPrice(String category, String brand, long[] searchHits,
+                              BigDecimal afterPrice, Long afterId, int limit) {
+        int[] matches = match(category, brand, searchHits);
+        BitSet members = matches == null ? null : toBitSet(matches);
+        
+        int start = 0;
+        if (afterPrice != null && afterId != null) {
+            int lo = 0, hi = priceOrder.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareByPrice(products[priceOrder[mid]], afterPrice, afterId) <= 0) lo = mid + 1; else hi = mid;
+            }
+            start = lo;
+        }
+        
+        List<CatalogProduct> page = new ArrayList<>(limit);
+        for (int k = start; k < priceOrder.length && page.size() < limit; k++) {
+            int pos = priceOrder[k];
+            if (members == null || members.get(pos)) {
+                page.add(products[pos]);
+            }
+        }
+        return page;
+    }
+    
+    /**
+     * Resolves the filters to array positions in id order, or null when no
+     * filter applies and the whole catalog matches.
+     */
+    private int[] match(String category, String brand, long[] searchHits) {
+        int[] candidates = null;
+        if (hasText(category)) {
+            candidates = byCategory.getOrDefault(normalize(category), NO_POSTINGS);
+        }
+        if (hasText(brand)) {
+            int[] brandPostings = byBrand.getOrDefault(normalize(brand), NO_POSTINGS);
+            candidates = candidates == null ? brandPostings : intersect(candidates, brandPostings);
+        }
+        if (searchHits == null) {
+            return candidates;
+        }
+        
+        BitSet members = candidates == null ? null : toBitSet(candidates);
+        int[] out = new int[searchHits.length];
+        int n = 0;
+        for (long id : searchHits) {
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos >= 0 && (members == null || members.get(pos))) {
+                out[n++] = pos;
+            }
+        }
+        int[] positions = Arrays.copyOf(out, n);
+        Arrays.sort(positions);
+        return positions;
+    }
+    
+    private BitSet toBitSet(int[] positions) {
+        BitSet bits = new BitSet(products.length);
+        for (int pos : positions) {
+            bits.set(pos);
+        }
+        return bits;
+    }
+    
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    private static int compareByPrice(CatalogProduct product, BigDecimal price, long id) {
+        int cmp = product.getPrice().compareTo(price);
+        return cmp != 0 ? cmp : Long.compare(product.getId(), id);
+    }
+    
+    private static int[] sortByPrice(CatalogProduct[] products) {
+        Integer[] order = new Integer[products.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareByPrice(products[a], products[b].getPrice(), products[b].getId()));
+        int[] out = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            out[i] = order[i];
+        }
+        return out;
+    }
+    
+    private static int upperBound(long[] sorted, long key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+    
+    private static Map<String, int[]> toPostings(Map<String, List<Integer>> grouped) {
+        Map<String, int[]> postings = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, positions) ->
+                postings.put(key, positions.stream().mapToInt(Integer::intValue).toArray()));
+        return postings;
+    }
+    
+    private static AtomicInteger stockOf(Product product) {
+        return new AtomicInteger(product.getStock() == null ? 0 : product.getStock());
+    }
+    
+    // Inserts `pos` into price order; positions in `order` already account for it
+    private static int[] insertByPrice(CatalogProduct[] products, int[] order, int pos) {
+        CatalogProduct product = products[pos];
+        int lo = 0, hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareByPrice(products[order[mid]], product.getPrice(), product.getId()) <= 0) lo = mid + 1; else hi = mid;
+        }
+        int[] out = new int[order.length + 1];
+        System.arraycopy(order, 0, out, 0, lo);
+        out[lo] = pos;
+        System.arraycopy(order, lo, out, lo + 1, order.length - lo);
+        return out;
+    }
+    
+    // Postings with `pos` moved from one key's list to another's
+    private static Map<String, int[]> move(Map<String, int[]> postings, String from, String to, int pos) {
+        return from.equals(to) ? postings : add(drop(postings, from, pos), to, pos);
+    }
+    
+    private static Map<String, int[]> add(Map<String, int[]> postings, String key, int pos) {
+        Map<String, int[]> next = new HashMap<>(postings);
+        int[] list = next.getOrDefault(key, NO_POSTINGS);
+        int at = -Arrays.binarySearch(list, pos) - 1;
+        int[] out = new int[list.length + 1];
+        System.arraycopy(list, 0, out, 0, at);
+        out[at] = pos;
+        System.arraycopy(list, at, out, at + 1, list.length - at);
+        next.put(key, out);
+        return next;
+    }
+    
+    private static Map<String, int[]> drop(Map<String, int[]> postings, String key, int pos) {
+        Map<String, int[]> next = new HashMap<>(postings);
+        int[] left = remove(next.getOrDefault(key, NO_POSTINGS), pos, 0);
+        if (left.length == 0) {
+            next.remove(key);
+        } else {
+            next.put(key, left);
+        }
+        return next;
+    }
+    
+    // Postings renumbered for a slot inserted (delta 1) or removed (delta -1) at `from`
+    private static Map<String, int[]> shift(Map<String, int[]> postings, int from, int delta) {
+        Map<String, int[]> next = new HashMap<>(postings.size() * 2);
+        postings.forEach((key, list) -> next.put(key, shift(list, from, delta)));
+        return next;
+    }
+    
+    private static int[] shift(int[] positions, int from, int delta) {
+        int[] out = positions.clone();
+        for (int i = 0; i < out.length; i++) {
+            if (out[i] >= from) {
+                out[i] += delta;
+            }
+        }
+        return out;
+    }
+    
+    // Without `pos`, and with later positions moved by `delta`
+    private static int[] remove(int[] positions, int pos, int delta) {
+        int[] out = new int[positions.length - 1];
+        int n = 0;
+        for (int p : positions) {
+            if (p != pos) {
+                out[n++] = p > pos ? p + delta : p;
+            }
+        }
+        return out;
+    }
+    
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
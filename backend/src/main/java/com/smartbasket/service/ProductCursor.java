@@ -0,0 +1,52 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CatalogProduct;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for product pages. Encodes the sort key of the last
+ * product returned, so the next page seeks straight past it.
+ */
+final class ProductCursor {
+    
+    private final String sort;
+    private final BigDecimal price;
+    private final long id;
+    
+    private ProductCursor(String sort, BigDecimal price, long id) {
+        this.sort = sort;
+        this.price = price;
+        this.id = id;
+    }
+    
+    static String encode(String sort, CatalogProduct last) {
+        String raw = "price".equals(sort)
+                ? "price:" + last.getPrice().toPlainString() + ":" + last.getId()
+                : "id:" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static ProductCursor decode(String cursor, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if ("id".equals(parts[0]) && parts.length == 2 && "id".equals(expectedSort)) {
+                return new ProductCursor("id", null, Long.parseLong(parts[1]));
+            }
+            if ("price".equals(parts[0]) && parts.length == 3 && "price".equals(expectedSort)) {
+                return new ProductCursor("price", new BigDecimal(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+    
+    String getSort() { return sort; }
+    
+    BigDecimal getPrice() { return price; }
+    
+    long getId() { return id; }
+}
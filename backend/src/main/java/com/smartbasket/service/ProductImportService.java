@@ -0,0 +1,476 @@
+package com.smartbasket.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartbasket.dto.ImportReport;
+import com.smartbasket.entity.Product;
+import com.smartbasket.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams a supplier catalog (CSV with a header row, or one JSON object per
+ * line) into the products table, upserting on SKU.
+ *
+ * The input is never held in memory. The calling thread cuts it into chunks
+ * of raw records, parser threads turn those into validated products, and
+ * writer threads upsert them in JDBC batches, one transaction per batch.
+ * Bounded queues between the stages keep a slow database from letting the
+ * reader run ahead. Bad rows are counted and sampled rather than failing the
+ * import, and the catalog indexes are rebuilt once at the end.
+ *
+ * Batches commit as they go, so a failed import leaves the rows written so
+ * far in place; re-running the same file is safe.
+ */
+@Service
+public class ProductImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    
+    public enum Format {
+        CSV, NDJSON;
+        
+        /**
+         * Picks the format from a name, media type or file name, or null if
+         * it names neither.
+         */
+        public static Format of(String hint) {
+            String value = hint == null ? "" : hint.toLowerCase(Locale.ROOT);
+            if (value.contains("csv")) {
+                return CSV;
+            }
+            if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json")) {
+                return NDJSON;
+            }
+            return null;
+        }
+    }
+    
+    private static final int CHUNK_RECORDS = 1000;
+    private static final int MAX_REJECT_SAMPLES = 100;
+    private static final int MAX_SKU_LENGTH = 64;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    
+    // Field slots shared by both formats
+    private static final String[] FIELDS = {"sku", "name", "category", "brand", "description", "price", "image_url", "stock"};
+    private static final int SKU = 0, NAME = 1, CATEGORY = 2, BRAND = 3, DESCRIPTION = 4, PRICE = 5, IMAGE_URL = 6, STOCK = 7;
+    
+    private static final List<RawRecord> NO_MORE_RECORDS = new ArrayList<>(0);
+    private static final List<Product> NO_MORE_PRODUCTS = new ArrayList<>(0);
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${smartbasket.import.parse-threads:2}")
+    private int parseThreads;
+    
+    @Value("${smartbasket.import.writer-threads:2}")
+    private int writerThreads;
+    
+    @Value("${smartbasket.import.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${smartbasket.import.queue-chunks:8}")
+    private int queueChunks;
+    
+    @Value("${smartbasket.import.progress-every:50000}")
+    private long progressEvery;
+    
+    private final ReentrantLock running = new ReentrantLock();
+    
+    // The import in progress, or the last one to finish
+    private volatile ImportJob lastJob;
+    
+    /**
+     * Runs an import to completion on the calling thread plus the pipeline's
+     * own threads. Only one import runs at a time.
+     */
+    public ImportReport importProducts(InputStream in, Format format) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Another catalog import is already running");
+        }
+        try {
+            ImportJob job = new ImportJob(format);
+            lastJob = job;
+            String status = "FAILED";
+            try {
+                runPipeline(in, job);
+                status = "COMPLETED";
+            } catch (IllegalArgumentException e) {
+                job.error = e.getMessage();
+                throw e;
+            } catch (Exception e) {
+                logger.error("Catalog import failed after {} rows", job.rowsRead.get(), e);
+                job.error = e.getMessage();
+            } finally {
+                // Once for the whole file; committed batches count even if the import failed
+                if (job.imported.get() > 0) {
+                    productService.rebuildIndexes();
+                }
+                job.finishedAt = System.currentTimeMillis();
+                job.status = status;
+            }
+            ImportReport report = job.report();
+            logger.info("Catalog import {}: {} rows read, {} imported, {} rejected in {} ms",
+                    report.getStatus(), report.getRowsRead(), report.getImported(), report.getRejected(),
+                    report.getElapsedMillis());
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+    
+    /**
+     * Progress of the running import, or the result of the last one.
+     */
+    public ImportReport getLastImport() {
+        ImportJob job = lastJob;
+        return job == null ? null : job.report();
+    }
+    
+    private void runPipeline(InputStream in, ImportJob job) throws Exception {
+        BlockingQueue<List<RawRecord>> records = new ArrayBlockingQueue<>(queueChunks);
+        BlockingQueue<List<Product>> batches = new ArrayBlockingQueue<>(queueChunks);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService stages = Executors.newFixedThreadPool(parseThreads + writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Void> completion = new ExecutorCompletionService<>(stages);
+        List<Future<Void>> futures = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            CsvRecordReader csv = job.format == Format.CSV ? new CsvRecordReader(reader) : null;
+            int[] columns = csv == null ? null : columns(csv.next());
+            
+            AtomicInteger parsersLeft = new AtomicInteger(parseThreads);
+            for (int i = 0; i < parseThreads; i++) {
+                futures.add(completion.submit(() -> {
+                    parse(records, batches, columns, job);
+                    if (parsersLeft.decrementAndGet() == 0) {
+                        for (int w = 0; w < writerThreads; w++) {
+                            batches.put(NO_MORE_PRODUCTS);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < writerThreads; i++) {
+                futures.add(completion.submit(() -> {
+                    write(batches, job);
+                    return null;
+                }));
+            }
+            
+            List<RawRecord> chunk = new ArrayList<>(CHUNK_RECORDS);
+            long ndjsonLine = 0;
+            while (true) {
+                String text;
+                long line;
+                if (csv != null) {
+                    text = csv.next();
+                    line = csv.recordLine();
+                } else {
+                    text = reader.readLine();
+                    line = ++ndjsonLine;
+                    if (text != null && text.isBlank()) {
+                        continue;
+                    }
+                }
+                if (text == null) {
+                    break;
+                }
+                chunk.add(new RawRecord(line, text));
+                job.rowsRead.incrementAndGet();
+                if (chunk.size() == CHUNK_RECORDS) {
+                    put(records, chunk, futures);
+                    chunk = new ArrayList<>(CHUNK_RECORDS);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                put(records, chunk, futures);
+            }
+            for (int i = 0; i < parseThreads; i++) {
+                put(records, NO_MORE_RECORDS, futures);
+            }
+            // In completion order, so a failed stage surfaces before we wait on one it starved
+            for (int i = 0; i < futures.size(); i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            stages.shutdownNow();
+        }
+    }
+    
+    private void parse(BlockingQueue<List<RawRecord>> records, BlockingQueue<List<Product>> batches,
+                       int[] columns, ImportJob job) throws InterruptedException {
+        List<Product> batch = new ArrayList<>(batchSize);
+        while (true) {
+            List<RawRecord> chunk = records.take();
+            if (chunk == NO_MORE_RECORDS) {
+                break;
+            }
+            for (RawRecord record : chunk) {
+                try {
+                    String[] values = columns != null ? csvValues(record.text, columns) : jsonValues(record.text);
+                    batch.add(toProduct(values));
+                } catch (IllegalArgumentException e) {
+                    job.reject(record.line, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    batches.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.put(batch);
+        }
+    }
+    
+    private void write(BlockingQueue<List<Product>> batches, ImportJob job) throws InterruptedException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        while (true) {
+            List<Product> batch = batches.take();
+            if (batch == NO_MORE_PRODUCTS) {
+                return;
+            }
+            try {
+                transaction.executeWithoutResult(status -> productRepository.upsertBySku(batch));
+            } catch (DataIntegrityViolationException e) {
+                // Another writer inserted one of these SKUs first; this time it matches
+                transaction.executeWithoutResult(status -> productRepository.upsertBySku(batch));
+            }
+            long before = job.imported.getAndAdd(batch.size());
+            if (before / progressEvery != (before + batch.size()) / progressEvery) {
+                logger.info("Catalog import progress: {} rows imported, {} rejected",
+                        before + batch.size(), job.rejected.sum());
+            }
+        }
+    }
+    
+    /**
+     * Hands a chunk to the next stage. A stage that died stops draining its
+     * queue, so the reader checks on them instead of blocking forever.
+     */
+    private static <T> void put(BlockingQueue<T> queue, T item, List<Future<Void>> stages) throws Exception {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<Void> stage : stages) {
+                if (stage.isDone()) {
+                    stage.get();
+                }
+            }
+        }
+    }
+    
+    // Index of each field slot in the CSV header, -1 for optional columns that are absent
+    private static int[] columns(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        List<String> names = CsvRecordReader.split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        if (names == null) {
+            throw new IllegalArgumentException("CSV header is malformed");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            positions.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("imageurl", "image_url"), i);
+        }
+        int[] columns = new int[FIELDS.length];
+        for (int slot = 0; slot < FIELDS.length; slot++) {
+            columns[slot] = positions.getOrDefault(FIELDS[slot], -1);
+            if (columns[slot] < 0 && slot != DESCRIPTION && slot != IMAGE_URL && slot != STOCK) {
+                throw new IllegalArgumentException("CSV header is missing column: " + FIELDS[slot]);
+            }
+        }
+        return columns;
+    }
+    
+    private static String[] csvValues(String record, int[] columns) {
+        List<String> fields = CsvRecordReader.split(record);
+        if (fields == null) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        String[] values = new String[FIELDS.length];
+        for (int slot = 0; slot < FIELDS.length; slot++) {
+            int column = columns[slot];
+            if (column >= fields.size()) {
+                throw new IllegalArgumentException("expected at least " + (column + 1) + " fields, found " + fields.size());
+            }
+            values[slot] = column < 0 ? null : fields.get(column);
+        }
+        return values;
+    }
+    
+    private String[] jsonValues(String line) {
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed JSON");
+        }
+        if (json == null || !json.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        String[] values = new String[FIELDS.length];
+        for (int slot = 0; slot < FIELDS.length; slot++) {
+            JsonNode value = json.get(FIELDS[slot]);
+            if (value == null && slot == IMAGE_URL) {
+                value = json.get("imageUrl");
+            }
+            values[slot] = value == null || value.isNull() ? null : value.asText();
+        }
+        return values;
+    }
+    
+    private static Product toProduct(String[] values) {
+        Product product = new Product(
+                required(values, NAME, MAX_TEXT_LENGTH),
+                required(values, CATEGORY, MAX_TEXT_LENGTH),
+                required(values, BRAND, MAX_TEXT_LENGTH),
+                price(values[PRICE]));
+        product.setSku(required(values, SKU, MAX_SKU_LENGTH));
+        product.setDescription(optional(values, DESCRIPTION));
+        product.setImageUrl(optional(values, IMAGE_URL));
+        product.setStock(stock(values[STOCK]));
+        return product;
+    }
+    
+    private static String required(String[] values, int slot, int maxLength) {
+        String value = values[slot] == null ? "" : values[slot].trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(FIELDS[slot] + " is required");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(FIELDS[slot] + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+    
+    private static String optional(String[] values, int slot) {
+        String value = values[slot] == null ? "" : values[slot].trim();
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(FIELDS[slot] + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static BigDecimal price(String value) {
+        BigDecimal price;
+        try {
+            price = new BigDecimal(value == null ? "" : value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number");
+        }
+        if (price.signum() <= 0 || price.compareTo(MAX_PRICE) > 0) {
+            throw new IllegalArgumentException("price must be between 0.01 and " + MAX_PRICE);
+        }
+        if (price.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("price has more than 2 decimal places");
+        }
+        return price;
+    }
+    
+    private static int stock(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        int stock;
+        try {
+            stock = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("stock is not a whole number");
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("stock must not be negative");
+        }
+        return stock;
+    }
+    
+    private static final class RawRecord {
+        final long line;
+        final String text;
+        
+        RawRecord(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+    
+    private static final class ImportJob {
+        final Format format;
+        final long startedAt = System.currentTimeMillis();
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final LongAdder rejected = new LongAdder();
+        final List<String> rejectSamples = new ArrayList<>();
+        volatile String status = "RUNNING";
+        volatile String error;
+        volatile long finishedAt;
+        
+        ImportJob(Format format) {
+            this.format = format;
+        }
+        
+        void reject(long line, String reason) {
+            rejected.increment();
+            synchronized (rejectSamples) {
+                if (rejectSamples.size() < MAX_REJECT_SAMPLES) {
+                    rejectSamples.add("line " + line + ": " + reason);
+                }
+            }
+        }
+        
+        ImportReport report() {
+            List<String> samples;
+            synchronized (rejectSamples) {
+                samples = new ArrayList<>(rejectSamples);
+            }
+            long end = finishedAt == 0 ? System.currentTimeMillis() : finishedAt;
+            return new ImportReport(status, format.name(), rowsRead.get(), imported.get(), rejected.sum(),
+                    end - startedAt, samples, error);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded full-text index over product name, brand, category and description.
+ *
+ * Each query token is resolved against an inverted index of stemmed terms.
+ * The last token also matches as a prefix for typeahead. Tokens with no
+ * exact or prefix hit fall back to terms with similar trigrams, which covers
+ * typos like "panner". Matches are ranked with BM25, and name hits count
+ * more than description hits. Products are added and removed one at a time
+ * as the catalog changes.
+ */
+final class ProductSearchIndex {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_FUZZY_EXPANSIONS = 3;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.3;
+    private static final double PREFIX_BOOST = 0.7;
+    private static final double FUZZY_BOOST = 0.5;
+    
+    // term -> (product id -> weighted term frequency)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> trigramToTerms = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> docTerms = new HashMap<>();
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+    private long totalLength;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigramToTerms.clear();
+            docTerms.clear();
+            docLengths.clear();
+            totalLength = 0;
+            for (Product product : products) {
+                addLocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getId());
+            addLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ids of products matching every query token, best match
+     * first. An empty array means nothing matched.
+     */
+    long[] search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+        
+        lock.readLock().lock();
+        try {
+            int docCount = docTerms.size();
+            if (docCount == 0) {
+                return new long[0];
+            }
+            double avgLength = (double) totalLength / docCount;
+            
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                Map<String, Double> expansions = expand(tokens.get(i), i == tokens.size() - 1);
+                Map<Long, Double> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Double> expansion : expansions.entrySet()) {
+                    Map<Long, Integer> docs = postings.get(expansion.getKey());
+                    double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                        int tf = doc.getValue();
+                        int length = docLengths.get(doc.getKey());
+                        double norm = tf + K1 * (1 - B + B * length / avgLength);
+                        double score = expansion.getValue() * idf * (tf * (K1 + 1)) / norm;
+                        tokenScores.merge(doc.getKey(), score, Math::max);
+                    }
+                }
+                
+                // Every token has to match something in the product
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double tokenScore = tokenScores.get(entry.getKey());
+                        if (tokenScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + tokenScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return new long[0];
+                }
+            }
+            
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .mapToLong(Map.Entry::getKey)
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Resolves one query token to indexed terms with a weight per term:
+     * exact match, then prefix matches (last token only), then trigram
+     * neighbours when nothing else matched.
+     */
+    private Map<String, Double> expand(String token, boolean allowPrefix) {
+        Map<String, Double> expansions = new LinkedHashMap<>();
+        if (postings.containsKey(token)) {
+            expansions.put(token, 1.0);
+        }
+        if (allowPrefix) {
+            int added = 0;
+            for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (added++ >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, PREFIX_BOOST);
+            }
+        }
+        if (!expansions.isEmpty() || token.length() < 3) {
+            return expansions;
+        }
+        
+        Set<String> queryGrams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<String> terms = trigramToTerms.get(gram);
+            if (terms != null) {
+                for (String term : terms) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        shared.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(),
+                        (double) e.getValue() / (queryGrams.size() + trigrams(e.getKey()).size() - e.getValue())))
+                .filter(e -> e.getValue() >= MIN_TRIGRAM_SIMILARITY)
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(MAX_FUZZY_EXPANSIONS)
+                .forEach(e -> expansions.put(e.getKey(), FUZZY_BOOST * e.getValue()));
+        return expansions;
+    }
+    
+    private void addLocked(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getBrand(), BRAND_WEIGHT);
+        addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        
+        Long id = product.getId();
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            String term = entry.getKey();
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs == null) {
+                docs = new HashMap<>();
+                postings.put(term, docs);
+                for (String gram : trigrams(term)) {
+                    trigramToTerms.computeIfAbsent(gram, k -> new HashSet<>()).add(term);
+                }
+            }
+            docs.put(id, entry.getValue());
+            length += entry.getValue();
+        }
+        docTerms.put(id, terms);
+        docLengths.put(id, length);
+        totalLength += length;
+    }
+    
+    private void removeLocked(Long productId) {
+        Map<String, Integer> terms = docTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= docLengths.remove(productId);
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            String term = entry.getKey();
+            Map<Long, Integer> docs = postings.get(term);
+            docs.remove(productId);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                for (String gram : trigrams(term)) {
+                    Set<String> gramTerms = trigramToTerms.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        trigramToTerms.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void addField(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+    
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String raw : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!raw.isEmpty()) {
+                tokens.add(stem(raw));
+            }
+        }
+        return tokens;
+    }
+    
+    // Light plural folding so "tomatoes", "tomatos" and "tomato" share a term
+    private static String stem(String token) {
+        if (token.length() <= 3) {
+            return token;
+        }
+        if (token.endsWith("ies")) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.endsWith("oes")) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+    
+    private static Set<String> trigrams(String term) {
+        String padded = "^" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
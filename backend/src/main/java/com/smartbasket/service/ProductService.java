@@ -1,11 +1,31 @@
 package com.smartbasket.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartbasket.dto.CatalogProduct;
+import com.smartbasket.dto.PageResponse;
+import com.smartbasket.dto.ProductSummary;
+import com.smartbasket.dto.ResponseCacheStats;
 import com.smartbasket.entity.Product;
 import com.smartbasket.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ProductService {
@@ -13,31 +33,309 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Read path is served entirely from this snapshot; writers publish a new one
+    private volatile ProductCatalogIndex catalog;
+    
+    private long catalogVersion;
+    
+    // Incrementally maintained; the catalog snapshot resolves its hits to products
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    
+    // Serialized products; an entry is reused while catalog version and stock are unchanged
+    private final Map<Long, EncodedProduct> encodedProducts = new ConcurrentHashMap<>();
+    
+    // Bumped after any change a product listing could show. Stock counts only
+    // bump it when a product sells out or comes back, or once they are stale
+    private final AtomicLong contentVersion = new AtomicLong();
+    
+    private final AtomicBoolean stockChanged = new AtomicBoolean();
+    
+    private volatile long contentChangedAt = System.nanoTime();
+    
+    @Value("${smartbasket.response-cache.stock-refresh-millis:5000}")
+    private long stockRefreshMillis;
+    
+    @Value("${smartbasket.response-cache.max-entries:1000}")
+    private int responseCacheEntries;
+    
+    @Value("${smartbasket.response-cache.max-bytes:67108864}")
+    private long responseCacheBytes;
+    
+    private ResponseCache responseCache;
+    
+    @PostConstruct
+    void initResponseCache() {
+        responseCache = new ResponseCache(responseCacheEntries, responseCacheBytes);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCatalog() {
+        rebuildIndexes();
+    }
+    
+    public List<CatalogProduct> getAllProducts() {
+        return catalog().all();
+    }
+    
+    public Optional<CatalogProduct> getProductById(Long id) {
+        return catalog().findById(id);
+    }
+    
+    /**
+     * The product as JSON, serialized at most once per catalog version and
+     * stock level. Stock is the one field checkouts change in place, so it
+     * is part of the key.
+     */
+    public Optional<EncodedResponse> getProductJson(Long id) {
+        ProductCatalogIndex current = catalog();
+        Optional<CatalogProduct> product = current.findById(id);
+        if (product.isEmpty()) {
+            return Optional.empty();
+        }
+        int stock = product.get().getStock();
+        EncodedProduct cached = encodedProducts.get(id);
+        if (cached != null && cached.version == current.getVersion() && cached.stock == stock) {
+            return Optional.of(cached.json);
+        }
+        try {
+            EncodedResponse json = EncodedResponse.of(objectMapper.writeValueAsBytes(product.get()));
+            encodedProducts.put(id, new EncodedProduct(current.getVersion(), stock, json));
+            return Optional.of(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product " + id, e);
+        }
+    }
+    
+    public List<CatalogProduct> getProductsByCategory(String category) {
+        return catalog().find(category, null, null);
+    }
+    
+    public List<CatalogProduct> getProductsByBrand(String brand) {
+        return catalog().find(null, brand, null);
+    }
+    
+    public List<CatalogProduct> searchProducts(String name) {
+        return findProducts(null, null, name);
+    }
+    
+    /**
+     * Filters the catalog by any combination of category, brand and full-text
+     * search. Search results come back best match first.
+     */
+    public List<CatalogProduct> findProducts(String category, String brand, String search) {
+        ProductCatalogIndex current = catalog();
+        return current.find(category, brand, searchHits(search));
+    }
+    
+    /**
+     * Returns one keyset page of the filtered catalog, projected to the
+     * requested fields. {@code sort} is "id" (default) or "price".
+     */
+    public PageResponse<ProductSummary> getProductPage(String category, String brand, String search,
+                                                       String sort, String cursor, int limit, Set<String> fields) {
+        String order = sort == null || sort.isBlank() ? "id" : sort.toLowerCase(Locale.ROOT);
+        if (!order.equals("id") && !order.equals("price")) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor, order);
+        
+        // Fetch one extra row to learn whether another page exists
+        ProductCatalogIndex current = catalog();
+        long[] hits = searchHits(search);
+        List<CatalogProduct> rows = order.equals("price")
+                ? current.pageByPrice(category, brand, hits,
+                        after == null ? null : after.getPrice(), after == null ? null : after.getId(), pageSize + 1)
+                : current.pageById(category, brand, hits, after == null ? null : after.getId(), pageSize + 1);
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<CatalogProduct> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<ProductSummary> items = new ArrayList<>(page.size());
+        for (CatalogProduct product : page) {
+            items.add(ProductSummary.of(product, fields));
+        }
+        String nextCursor = hasMore ? ProductCursor.encode(order, page.get(page.size() - 1)) : null;
+        return new PageResponse<>(items, nextCursor);
     }
     
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    /**
+     * The {@code GET /api/products} response for these parameters as JSON
+     * bytes, cached per normalized query until the catalog or any stock
+     * level changes. Without {@code limit}, {@code cursor} or
+     * {@code fields} it is the full filtered list, otherwise a keyset page.
+     */
+    public EncodedResponse getProductsJson(String category, String brand, String search,
+                                           String sort, String cursor, Integer limit, String fields,
+                                           int defaultLimit) {
+        boolean paged = limit != null || cursor != null || fields != null;
+        Set<String> fieldSet = paged ? parseFields(fields) : null;
+        int pageSize = limit != null ? limit : defaultLimit;
+        
+        StringBuilder key = new StringBuilder()
+                .append(ProductCatalogIndex.normalize(category)).append('\0')
+                .append(ProductCatalogIndex.normalize(brand)).append('\0')
+                .append(ProductCatalogIndex.normalize(search));
+        if (paged) {
+            key.append('\0').append(ProductCatalogIndex.normalize(sort))
+                    .append('\0').append(cursor == null ? "" : cursor)
+                    .append('\0').append(Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE)))
+                    .append('\0').append(String.join(",", new TreeSet<>(fieldSet)));
+        }
+        
+        long sinceChange = System.nanoTime() - contentChangedAt;
+        if (stockChanged.get() && sinceChange >= TimeUnit.MILLISECONDS.toNanos(stockRefreshMillis)
+                && stockChanged.compareAndSet(true, false)) {
+            contentChanged();
+        }
+        return responseCache.get(key.toString(), contentVersion.get(), () -> {
+            Object body = paged
+                    ? getProductPage(category, brand, search, sort, cursor, pageSize, fieldSet)
+                    : findProducts(category, brand, search);
+            try {
+                return EncodedResponse.compressible(objectMapper.writeValueAsBytes(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize products", e);
+            }
+        });
     }
     
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    public void recordCompressedServed(EncodedResponse response) {
+        responseCache.recordCompressedServed(response);
     }
     
-    public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrand(brand);
+    public ResponseCacheStats getResponseCacheStats() {
+        return responseCache.stats();
     }
     
-    public List<Product> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    /**
+     * Parses a comma-separated {@code fields} parameter, falling back to the
+     * summary defaults when it is absent.
+     */
+    public Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ProductSummary.DEFAULT_FIELDS;
+        }
+        Set<String> parsed = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!ProductSummary.ALL_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            parsed.add(name);
+        }
+        return parsed;
     }
     
+    /**
+     * Saves the product and applies just that row to the search index and
+     * the catalog snapshot.
+     */
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        if (catalog == null) {
+            rebuildIndexes();
+        } else {
+            searchIndex.index(saved);
+            synchronized (this) {
+                catalog = catalog.with(saved, ++catalogVersion);
+            }
+            contentChanged();
+        }
+        return saved;
     }
     
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        if (catalog == null) {
+            rebuildIndexes();
+        } else {
+            searchIndex.remove(id);
+            synchronized (this) {
+                catalog = catalog.without(id, ++catalogVersion);
+            }
+            contentChanged();
+        }
+        encodedProducts.remove(id);
+    }
+    
+    /**
+     * Mirrors committed stock reservations into the catalog snapshot so reads
+     * stay current without rebuilding it on every checkout. Cached listings
+     * are dropped at once only when a product sells out; other count changes
+     * reach them within {@code stock-refresh-millis}.
+     */
+    public void applyStockReservations(Map<Long, Integer> quantities) {
+        ProductCatalogIndex current = catalog;
+        if (current == null) {
+            return;
+        }
+        boolean availabilityChanged = false;
+        for (Map.Entry<Long, Integer> reservation : quantities.entrySet()) {
+            availabilityChanged |= current.reserveStock(reservation.getKey(), reservation.getValue());
+        }
+        if (availabilityChanged) {
+            contentChanged();
+        } else {
+            stockChanged.set(true);
+        }
+    }
+    
+    /**
+     * Rebuilds the catalog snapshot from the database, for changes made
+     * outside {@link #saveProduct} and {@link #deleteProduct}.
+     */
+    public synchronized void rebuildCatalog() {
+        catalog = ProductCatalogIndex.build(productRepository.findAll(), ++catalogVersion);
+        contentChanged();
+    }
+    
+    /**
+     * Rebuilds the catalog snapshot and the search index from the database.
+     */
+    public synchronized void rebuildIndexes() {
+        List<Product> products = productRepository.findAll();
+        searchIndex.rebuild(products);
+        catalog = ProductCatalogIndex.build(products, ++catalogVersion);
+        contentChanged();
+    }
+    
+    private void contentChanged() {
+        stockChanged.set(false);
+        contentChangedAt = System.nanoTime();
+        contentVersion.incrementAndGet();
+    }
+    
+    private long[] searchHits(String search) {
+        return search == null || search.isBlank() ? null : searchIndex.search(search);
+    }
+    
+    private ProductCatalogIndex catalog() {
+        ProductCatalogIndex current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                if (catalog == null) {
+                    rebuildIndexes();
+                }
+                current = catalog;
+            }
+        }
+        return current;
+    }
+    
+    private static final class EncodedProduct {
+        final long version;
+        final int stock;
+        final EncodedResponse json;
+        
+        EncodedProduct(long version, int stock, EncodedResponse json) {
+            this.version = version;
+            this.stock = stock;
+            this.json = json;
+        }
     }
 }
@@ -0,0 +1,122 @@
+package com.smartbasket.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket per key, kept as a single "theoretical arrival time" (GCRA).
+ *
+ * Each key holds one AtomicLong: the time at which its bucket would be full
+ * again. A request moves it forward by one emission interval with a CAS and
+ * is refused when that would put it more than the burst ahead of now, so a
+ * check never locks and never allocates for a known key. A key whose time is
+ * in the past has a full bucket and is indistinguishable from a new one, so
+ * such keys are dropped whenever the map is swept. When the map is full of
+ * live keys, new keys are let through untracked rather than refused; the
+ * caller's other limits still apply, and an attacker can't lock real users
+ * out by flooding the map with made-up keys.
+ */
+public final class RateLimiter {
+    
+    private static final long SWEEP_INTERVAL_NANOS = 10_000_000_000L;
+    // While full, sweep at most this often so a flood of new keys can't make every call O(n)
+    private static final long FULL_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+    
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    
+    /**
+     * @param perMinute sustained requests per minute per key
+     * @param burst requests a key may make at once from a full bucket
+     * @param maxKeys upper bound on tracked keys
+     */
+    public RateLimiter(int perMinute, int burst, int maxKeys) {
+        if (perMinute <= 0 || burst <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Rate limits must be positive");
+        }
+        this.intervalNanos = 60_000_000_000L / perMinute;
+        this.burstNanos = intervalNanos * burst;
+        this.maxKeys = maxKeys;
+    }
+    
+    /**
+     * Takes one token for {@code key}. Returns 0 if the request may proceed,
+     * otherwise how many nanoseconds until it would be allowed.
+     */
+    public long acquire(String key) {
+        long now = System.nanoTime();
+        sweepIfDue(now, SWEEP_INTERVAL_NANOS);
+        
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweepIfDue(now, FULL_SWEEP_INTERVAL_NANOS);
+                if (buckets.size() >= maxKeys) {
+                    untracked.increment();
+                    allowed.increment();
+                    return 0;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                limited.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+    
+    public int size() {
+        return buckets.size();
+    }
+    
+    public long getAllowed() {
+        return allowed.sum();
+    }
+    
+    public long getLimited() {
+        return limited.sum();
+    }
+    
+    public long getUntracked() {
+        return untracked.sum();
+    }
+    
+    private void sweepIfDue(long now, long interval) {
+        long last = lastSweep.get();
+        if (now - last > interval && lastSweep.compareAndSet(last, now)) {
+            sweep(now);
+        }
+    }
+    
+    // Drops keys whose bucket has refilled completely. A request racing with
+    // the removal can lose its token, which only ever errs toward allowing.
+    private void sweep(long now) {
+        Iterator<AtomicLong> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() - now <= 0) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.ResponseCacheStats;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Encoded response bodies keyed by a normalized request, bounded by entry
+ * count and total bytes with LRU eviction. Every entry records the content
+ * version it was built from; a lookup under a newer version rebuilds it, so
+ * bumping the version invalidates everything without walking the map.
+ * <p>
+ * Hits only read the map and stamp the entry's last use, so they never
+ * contend. Inserts and evictions, which follow an encode anyway, take one
+ * lock and evict the least recently used entry by scanning the stamps.
+ */
+final class ResponseCache {
+    
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile long bytes;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder encodedBytesSaved = new LongAdder();
+    private final LongAdder compressedBytesSaved = new LongAdder();
+    
+    ResponseCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * Returns the cached response for {@code key} at {@code version},
+     * encoding it with {@code encoder} on a miss. Concurrent misses on one
+     * key may each encode; the last one wins.
+     */
+    EncodedResponse get(String key, long version, Supplier<EncodedResponse> encoder) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            entry.lastUsed = System.nanoTime();
+            hits.increment();
+            encodedBytesSaved.add(entry.response.getBody().length);
+            return entry.response;
+        }
+        misses.increment();
+        EncodedResponse response = encoder.get();
+        // One oversized body shouldn't flush everything else
+        if (response.size() > maxBytes / 4) {
+            return response;
+        }
+        synchronized (writeLock) {
+            Entry previous = entries.put(key, new Entry(version, response));
+            long total = bytes + response.size();
+            if (previous != null) {
+                total -= previous.response.size();
+            }
+            while (entries.size() > maxEntries || total > maxBytes) {
+                Map.Entry<String, Entry> eldest = leastRecentlyUsed();
+                if (eldest == null) {
+                    break;
+                }
+                entries.remove(eldest.getKey());
+                total -= eldest.getValue().response.size();
+            }
+            bytes = total;
+        }
+        return response;
+    }
+    
+    void recordCompressedServed(EncodedResponse response) {
+        compressedBytesSaved.add(response.getBody().length - response.getGzipBody().length);
+    }
+    
+    ResponseCacheStats stats() {
+        return new ResponseCacheStats(hits.sum(), misses.sum(), entries.size(), bytes,
+                encodedBytesSaved.sum(), compressedBytesSaved.sum());
+    }
+    
+    // Called under the write lock, so the map only changes under us through hits
+    private Map.Entry<String, Entry> leastRecentlyUsed() {
+        Map.Entry<String, Entry> eldest = null;
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (eldest == null || candidate.getValue().lastUsed - eldest.getValue().lastUsed < 0) {
+                eldest = candidate;
+            }
+        }
+        return eldest;
+    }
+    
+    private static final class Entry {
+        final long version;
+        final EncodedResponse response;
+        volatile long lastUsed = System.nanoTime();
+        
+        Entry(long version, EncodedResponse response) {
+            this.version = version;
+            this.response = response;
+        }
+    }
+}
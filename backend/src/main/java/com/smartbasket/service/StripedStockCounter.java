@@ -0,0 +1,123 @@
+package com.smartbasket.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free stock counter for one hot product.
+ *
+ * Available stock is split across padded stripes, and each reservation CASes
+ * a single stripe picked from the calling thread. A stripe never goes below
+ * zero, so the sum can never oversell. When the home stripe is short, the
+ * reservation gathers the rest from other stripes and returns it if the
+ * total still falls short. A reservation that fails that way while the
+ * stripes still add up to enough retries under the counter's lock, so
+ * competing gatherers can't make each other fail. The counter only guards
+ * availability; what committed checkouts took is recorded in the database.
+ */
+final class StripedStockCounter {
+    
+    // One stripe per cache line: 8 longs apart
+    private static final int PAD = 8;
+    
+    private final Long productId;
+    private final int stripes;
+    private final AtomicLongArray available;
+    
+    StripedStockCounter(Long productId, long stock) {
+        this.productId = productId;
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.stripes = n;
+        this.available = new AtomicLongArray(n * PAD);
+        long share = Math.max(stock, 0) / n;
+        long remainder = Math.max(stock, 0) % n;
+        for (int i = 0; i < n; i++) {
+            available.set(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+    
+    Long getProductId() {
+        return productId;
+    }
+    
+    boolean tryReserve(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Cannot reserve " + quantity + " of product " + productId);
+        }
+        int home = home();
+        if (gather(home, quantity)) {
+            return true;
+        }
+        if (available() < quantity) {
+            // Sold out: don't queue on the lock
+            return false;
+        }
+        // Two partial gatherers can each hold part of the stock, undo, and both fail.
+        // Retry one at a time, for as long as the stripes still add up to enough.
+        synchronized (this) {
+            while (available() >= quantity) {
+                if (gather(home, quantity)) {
+                    return true;
+                }
+                Thread.onSpinWait();
+            }
+            return false;
+        }
+    }
+    
+    void release(int quantity) {
+        available.addAndGet(home() * PAD, quantity);
+    }
+    
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += available.get(i * PAD);
+        }
+        return total;
+    }
+    
+    // Takes quantity from the home stripe, then from the others; returns it all if the total falls short
+    private boolean gather(int home, int quantity) {
+        long gathered = take(home, quantity);
+        if (gathered == quantity) {
+            return true;
+        }
+        long[] taken = new long[stripes];
+        taken[home] = gathered;
+        for (int k = 1; k < stripes && gathered < quantity; k++) {
+            int stripe = (home + k) & (stripes - 1);
+            long got = take(stripe, quantity - gathered);
+            taken[stripe] = got;
+            gathered += got;
+        }
+        if (gathered == quantity) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) {
+                available.addAndGet(stripe * PAD, taken[stripe]);
+            }
+        }
+        return false;
+    }
+    
+    // Takes up to {@code wanted} from one stripe without letting it go negative
+    private long take(int stripe, long wanted) {
+        int index = stripe * PAD;
+        while (true) {
+            long current = available.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            long got = Math.min(current, wanted);
+            if (available.compareAndSet(index, current, current - got)) {
+                return got;
+            }
+        }
+    }
+    
+    private int home() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & (stripes - 1);
+    }
+}
@@ -0,0 +1,263 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartItemResponse;
+import com.smartbasket.dto.CatalogProduct;
+import com.smartbasket.dto.ProductSuggestion;
+import com.smartbasket.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Frequently bought together" suggestions mined from order history.
+ *
+ * Every order counts once for each pair of distinct products in it. Counts
+ * live in a {@link CooccurrenceMatrix}, which keeps each product's top K
+ * partners ranked, so a product lookup reads K entries and a cart lookup
+ * K per cart line. Checkouts hand their baskets to a single updater thread
+ * after commit, keeping the counting off the request; if its queue is full
+ * the basket is dropped until the nightly rebuild, which recounts the whole
+ * history on a fork-join pool and swaps the new matrix in.
+ */
+@Service
+public class SuggestionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Value("${smartbasket.suggestions.top-k:10}")
+    private int topK;
+    
+    // Bulk orders pair everything with everything; counting costs size^2
+    @Value("${smartbasket.suggestions.max-basket-size:100}")
+    private int maxBasketSize;
+    
+    @Value("${smartbasket.suggestions.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${smartbasket.suggestions.rebuild-parallelism:0}")
+    private int rebuildParallelism;
+    
+    private volatile CooccurrenceMatrix matrix;
+    
+    // Guards matrix updates and pending
+    private final Object updateLock = new Object();
+    
+    // Baskets counted while a rebuild reads the history, replayed into the new matrix
+    private List<Basket> pending;
+    
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final LongAdder dropped = new LongAdder();
+    
+    private ThreadPoolExecutor updater;
+    
+    @PostConstruct
+    void startUpdater() {
+        matrix = new CooccurrenceMatrix(topK);
+        updater = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "suggestion-updater");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    void stopUpdater() throws InterruptedException {
+        updater.shutdown();
+        updater.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmSuggestions() {
+        rebuild();
+    }
+    
+    /**
+     * Queues a committed order for counting. Never blocks the caller.
+     */
+    public void recordOrder(Long orderId, Collection<Long> productIds) {
+        long[] products = productIds.stream().mapToLong(Long::longValue).distinct().toArray();
+        if (products.length < 2 || products.length > maxBasketSize) {
+            return;
+        }
+        Basket basket = new Basket(orderId, products);
+        try {
+            updater.execute(() -> apply(basket));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            logger.debug("Suggestion update queue full; order {} waits for the next rebuild", orderId);
+        }
+    }
+    
+    /**
+     * Recounts the whole order history in parallel and swaps the result in.
+     * Orders counted incrementally while the history was being read are
+     * replayed into the new matrix unless the read already saw them.
+     */
+    @Scheduled(cron = "${smartbasket.suggestions.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.tryLock()) {
+            logger.info("Suggestion rebuild already running");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            synchronized (updateLock) {
+                pending = new ArrayList<>();
+            }
+            Map<Long, long[]> history;
+            CooccurrenceMatrix rebuilt;
+            try {
+                history = orderRepository.findBaskets();
+                List<long[]> baskets = new ArrayList<>(history.size());
+                for (long[] basket : history.values()) {
+                    if (basket.length >= 2 && basket.length <= maxBasketSize) {
+                        baskets.add(basket);
+                    }
+                }
+                int parallelism = rebuildParallelism > 0 ? rebuildParallelism : Runtime.getRuntime().availableProcessors();
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    rebuilt = CooccurrenceMatrix.build(baskets, topK, pool);
+                } finally {
+                    pool.shutdown();
+                }
+            } catch (RuntimeException e) {
+                synchronized (updateLock) {
+                    pending = null;
+                }
+                throw e;
+            }
+            int replayed = 0;
+            synchronized (updateLock) {
+                for (Basket basket : pending) {
+                    if (!history.containsKey(basket.orderId)) {
+                        rebuilt.addBasket(basket.products);
+                        replayed++;
+                    }
+                }
+                pending = null;
+                matrix = rebuilt;
+            }
+            logger.info("Suggestions rebuilt from {} orders in {} ms: {} products, {} pairs, {} replayed",
+                    history.size(), System.currentTimeMillis() - start, rebuilt.productCount(),
+                    rebuilt.pairCount(), replayed);
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+    
+    /**
+     * Products most often bought with {@code productId}, best first.
+     */
+    public List<ProductSuggestion> getProductSuggestions(Long productId, int limit) {
+        CooccurrenceMatrix.Ranked ranked = matrix.ranked(productId);
+        List<ProductSuggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && suggestions.size() < clamp(limit); i++) {
+            addSuggestion(suggestions, ranked.ids[i], ranked.counts[i]);
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Products most often bought with the cart's contents, scored by summing
+     * each cart product's top-K counts. Products already in the cart are left
+     * out.
+     */
+    public List<ProductSuggestion> getCartSuggestions(Long userId, int limit) {
+        List<CartItemResponse> cart = cartService.getCart(userId);
+        CooccurrenceMatrix current = matrix;
+        Set<Long> inCart = new HashSet<>();
+        for (CartItemResponse line : cart) {
+            inCart.add(line.getProductId());
+        }
+        LongIntMap scores = new LongIntMap(cart.size() * topK);
+        for (Long productId : inCart) {
+            CooccurrenceMatrix.Ranked ranked = current.ranked(productId);
+            for (int i = 0; i < ranked.size(); i++) {
+                if (!inCart.contains(ranked.ids[i])) {
+                    scores.add(ranked.ids[i], ranked.counts[i]);
+                }
+            }
+        }
+        
+        List<long[]> candidates = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> candidates.add(new long[] {id, score}));
+        // Best first: highest score, then lowest id
+        candidates.sort((x, y) -> x[1] != y[1] ? Long.compare(y[1], x[1]) : Long.compare(x[0], y[0]));
+        
+        List<ProductSuggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && suggestions.size() < clamp(limit); i++) {
+            addSuggestion(suggestions, candidates.get(i)[0], (int) candidates.get(i)[1]);
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Orders not counted because the update queue was full; the next rebuild
+     * includes them.
+     */
+    public long getDroppedUpdates() {
+        return dropped.sum();
+    }
+    
+    private void apply(Basket basket) {
+        synchronized (updateLock) {
+            matrix.addBasket(basket.products);
+            if (pending != null) {
+                pending.add(basket);
+            }
+        }
+    }
+    
+    // Deleted products stay in the counts until the next rebuild
+    private void addSuggestion(List<ProductSuggestion> suggestions, long productId, int count) {
+        Optional<CatalogProduct> product = productService.getProductById(productId);
+        product.ifPresent(p -> suggestions.add(new ProductSuggestion(
+                p.getId(), p.getName(), p.getCategory(), p.getBrand(), p.getPrice(), p.getImageUrl(), count)));
+    }
+    
+    private int clamp(int limit) {
+        return Math.max(1, Math.min(limit, topK));
+    }
+    
+    private static final class Basket {
+        final long orderId;
+        final long[] products;
+        
+        Basket(long orderId, long[] products) {
+            this.orderId = orderId;
+            this.products = products;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.smartbasket.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stateless session tokens signed with HMAC-SHA256.
+ *
+ * A token is {@code base64url(userId, expiresAt) "." base64url(hmac)}, so any
+ * node holding the secret can check it without a database lookup. Tokens that
+ * already passed verification are cached by the full token string; a repeat
+ * call costs one lock-free map lookup and an expiry check instead of a MAC
+ * computation. When the cache is full, expired tokens are swept out first,
+ * then sampled entries closest to expiry. A forged signature never matches a cached key, so the
+ * cache can't be used to skip verification.
+ */
+@Service
+public class TokenService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_BYTES = 16;
+    
+    @Value("${smartbasket.auth.token-secret:}")
+    private String secret;
+    
+    @Value("${smartbasket.auth.token-ttl-minutes:720}")
+    private long ttlMinutes;
+    
+    @Value("${smartbasket.auth.verified-cache-size:10000}")
+    private int cacheSize;
+    
+    private SecretKeySpec key;
+    
+    // Mac instances are not thread-safe; one per thread avoids a provider lookup per call
+    private ThreadLocal<Mac> macs;
+    
+    // Entries from a small scan of the map, of which the one nearest expiry is evicted
+    private static final int EVICTION_SAMPLE = 8;
+    
+    private final ConcurrentHashMap<String, Verified> verified = new ConcurrentHashMap<>();
+    
+    // One caller trims the cache at a time; the others carry on without waiting
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            logger.warn("smartbasket.auth.token-secret is not set; using a random key, tokens will not survive a restart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+    
+    public String issue(Long userId) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlMinutes * 60;
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES).putLong(userId).putLong(expiresAt).array();
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(payload);
+        return encoded + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(encoded));
+    }
+    
+    /**
+     * Returns the user id the token was issued to, or null if the token is
+     * malformed, tampered with or expired.
+     */
+    public Long verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        Verified cached = verified.get(token);
+        if (cached != null) {
+            cacheHits.increment();
+            if (cached.expiresAt > now) {
+                return cached.userId;
+            }
+            verified.remove(token, cached);
+            return null;
+        }
+        cacheMisses.increment();
+        
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String encoded = token.substring(0, dot);
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(encoded);
+            signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(sign(encoded), signature)) {
+            return null;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Long userId = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        if (expiresAt <= now) {
+            return null;
+        }
+        // Trimmed before the put, so the token just verified is never the one evicted
+        if (verified.size() >= cacheSize && trimming.compareAndSet(false, true)) {
+            try {
+                trim(now);
+            } finally {
+                trimming.set(false);
+            }
+        }
+        verified.put(token, new Verified(userId, expiresAt));
+        return userId;
+    }
+    
+    /**
+     * Pulls the token out of an {@code Authorization: Bearer ...} header.
+     */
+    public static String fromHeader(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return authorization.substring(7).trim();
+    }
+    
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+    
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+    
+    // Trims to 90% of the limit so a full cache isn't swept on every miss
+    private void trim(long now) {
+        int target = cacheSize - cacheSize / 10;
+        verified.values().removeIf(entry -> entry.expiresAt <= now);
+        while (verified.size() > target) {
+            Iterator<Map.Entry<String, Verified>> sample = verified.entrySet().iterator();
+            Map.Entry<String, Verified> soonest = null;
+            for (int i = 0; i < EVICTION_SAMPLE && sample.hasNext(); i++) {
+                Map.Entry<String, Verified> candidate = sample.next();
+                if (soonest == null || candidate.getValue().expiresAt < soonest.getValue().expiresAt) {
+                    soonest = candidate;
+                }
+            }
+            if (soonest == null) {
+                return;
+            }
+            verified.remove(soonest.getKey(), soonest.getValue());
+        }
+    }
+    
+    private byte[] sign(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    private static final class Verified {
+        final Long userId;
+        final long expiresAt;
+        
+        Verified(Long userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.UserLookupStats;
+import com.smartbasket.entity.User;
+import com.smartbasket.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers "is this email / phone registered?" without a query where it can.
+ *
+ * A Bloom filter per key type rules out keys that were never registered,
+ * which is the common case for sign-ups and first OTP logins. Keys seen
+ * recently map straight to their user id through bounded LRU maps. Only
+ * keys the filter can't rule out and the LRU doesn't know go to the
+ * database. Both are warmed from the users table at startup and updated by
+ * {@link AuthService} as users register or change phone.
+ *
+ * A stale answer never causes a wrong result: a key wrongly reported as
+ * absent runs into the unique constraint on insert and the caller falls back
+ * to the database, and a cached id is checked against the row it loads.
+ */
+@Service
+public class UserLookupCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserLookupCache.class);
+    
+    private static final int WARM_BATCH_SIZE = 10_000;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${smartbasket.user-lookup.expected-users:100000}")
+    private long expectedUsers;
+    
+    @Value("${smartbasket.user-lookup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${smartbasket.user-lookup.max-cached-ids:50000}")
+    private int maxCachedIds;
+    
+    // Null until warmed; lookups before that go to the database
+    private volatile BloomFilter emails;
+    private volatile BloomFilter phones;
+    
+    private Map<String, Long> emailOwners;
+    private Map<String, Long> phoneOwners;
+    
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder positiveHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    
+    @PostConstruct
+    void init() {
+        emailOwners = lru(maxCachedIds);
+        phoneOwners = lru(maxCachedIds);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        rebuild(expectedUsers);
+    }
+    
+    /**
+     * Rebuilds the filters with room for twice the current users once they
+     * fill up, since a Bloom filter's error rate climbs past its capacity.
+     */
+    @Scheduled(fixedDelayString = "${smartbasket.user-lookup.resize-check-ms:60000}")
+    public void resizeIfFull() {
+        BloomFilter current = emails;
+        if (current != null && current.getEntries() > current.getCapacity()) {
+            rebuild(current.getEntries() * 2);
+        }
+    }
+    
+    public boolean isEmailRegistered(String email) {
+        BloomFilter filter = emails;
+        if (filter != null && !filter.mightContain(email)) {
+            negativeHits.increment();
+            return false;
+        }
+        if (emailOwners.get(email) != null) {
+            positiveHits.increment();
+            return true;
+        }
+        misses.increment();
+        boolean registered = userRepository.existsByEmail(email);
+        if (!registered && filter != null) {
+            falsePositives.increment();
+        }
+        return registered;
+    }
+    
+    public Optional<User> findByPhone(String phone) {
+        BloomFilter filter = phones;
+        if (filter != null && !filter.mightContain(phone)) {
+            negativeHits.increment();
+            return Optional.empty();
+        }
+        Long cachedId = phoneOwners.get(phone);
+        if (cachedId != null) {
+            Optional<User> user = userRepository.findById(cachedId).filter(u -> phone.equals(u.getPhone()));
+            if (user.isPresent()) {
+                positiveHits.increment();
+                return user;
+            }
+            phoneOwners.remove(phone, cachedId);
+        }
+        misses.increment();
+        Optional<User> user = userRepository.findByPhone(phone);
+        if (user.isPresent()) {
+            phoneOwners.put(phone, user.get().getId());
+        } else if (filter != null) {
+            falsePositives.increment();
+        }
+        return user;
+    }
+    
+    /**
+     * Records a user that was just saved.
+     */
+    public void add(User user) {
+        add(user.getId(), user.getEmail(), user.getPhone());
+    }
+    
+    public void phoneChanged(User user, String oldPhone) {
+        if (oldPhone != null) {
+            phoneOwners.remove(oldPhone, user.getId());
+        }
+        add(user.getId(), null, user.getPhone());
+    }
+    
+    public UserLookupStats getStats() {
+        BloomFilter filter = emails;
+        return new UserLookupStats(
+                negativeHits.sum(),
+                positiveHits.sum(),
+                misses.sum(),
+                falsePositives.sum(),
+                filter == null ? 0.0 : filter.expectedFalsePositiveRate(),
+                emailOwners.size(),
+                phoneOwners.size()
+        );
+    }
+    
+    private void add(Long id, String email, String phone) {
+        BloomFilter emailFilter = emails;
+        BloomFilter phoneFilter = phones;
+        if (email != null) {
+            if (emailFilter != null) {
+                emailFilter.add(email);
+            }
+            emailOwners.put(email, id);
+        }
+        if (phone != null) {
+            if (phoneFilter != null) {
+                phoneFilter.add(phone);
+            }
+            phoneOwners.put(phone, id);
+        }
+    }
+    
+    // Users saved while this runs may be missing from the new filters; the
+    // unique constraints cover them until they are looked up
+    private synchronized void rebuild(long capacity) {
+        long start = System.currentTimeMillis();
+        BloomFilter emailFilter = new BloomFilter(capacity, falsePositiveRate);
+        BloomFilter phoneFilter = new BloomFilter(capacity, falsePositiveRate);
+        long after = 0;
+        long count = 0;
+        while (true) {
+            List<Object[]> rows = userRepository.findLookupKeysAfter(after, PageRequest.of(0, WARM_BATCH_SIZE));
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                String email = (String) row[1];
+                String phone = (String) row[2];
+                emailFilter.add(email);
+                emailOwners.put(email, id);
+                if (phone != null) {
+                    phoneFilter.add(phone);
+                    phoneOwners.put(phone, id);
+                }
+                after = id;
+            }
+            count += rows.size();
+            if (rows.size() < WARM_BATCH_SIZE) {
+                break;
+            }
+        }
+        emails = emailFilter;
+        phones = phoneFilter;
+        logger.info("User lookup filters built for {} users (capacity {}) in {} ms",
+                count, capacity, System.currentTimeMillis() - start);
+    }
+    
+    private static Map<String, Long> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartbasket.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartbasket.service.RateLimiter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRateLimitFilterTest {
+    
+    private final AuthRateLimitFilter filter = new AuthRateLimitFilter(
+            new RateLimiter(1, 100, 1000), new RateLimiter(1, 2, 1000), new ObjectMapper());
+    
+    @Test
+    void bodyIsReplayedThroughAReadListener() throws Exception {
+        String json = "{\"email\":\"a@example.com\",\"password\":\"secret\"}";
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> callbacks = new ArrayList<>();
+        
+        filter.doFilter(login(json), new MockHttpServletResponse(), (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    callbacks.add("data");
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+                
+                @Override
+                public void onAllDataRead() {
+                    callbacks.add("done");
+                }
+                
+                @Override
+                public void onError(Throwable t) {
+                    callbacks.add("error");
+                }
+            });
+        });
+        
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(json);
+        assertThat(callbacks).containsExactly("data", "done");
+    }
+    
+    @Test
+    void accountBucketIgnoresCaseAndWhitespace() throws Exception {
+        assertThat(status("{\"email\":\"a@example.com\"}")).isEqualTo(200);
+        assertThat(status("{\"email\":\" A@Example.COM \"}")).isEqualTo(200);
+        
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        filter.doFilter(login("{\"email\":\"a@EXAMPLE.com\"}"), refused, (request, response) -> { });
+        assertThat(refused.getStatus()).isEqualTo(429);
+        assertThat(refused.getHeader("Retry-After")).isNotNull();
+        // Another account from the same address is unaffected
+        assertThat(status("{\"email\":\"b@example.com\"}")).isEqualTo(200);
+    }
+    
+    @Test
+    void phoneNumbersAreNormalisedToDigits() throws Exception {
+        assertThat(status("{\"phone\":\"+91 98765-43210\"}")).isEqualTo(200);
+        assertThat(status("{\"phone\":\"919876543210\"}")).isEqualTo(200);
+        assertThat(status("{\"phone\":\"(91) 9876543210\"}")).isEqualTo(429);
+    }
+    
+    private int status(String json) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(login(json), response, (req, res) -> { });
+        return response.getStatus();
+    }
+    
+    private static MockHttpServletRequest login(String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartbasket.config;
+
+import com.smartbasket.service.CartCache;
+import com.smartbasket.service.LocalCartCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartCacheConfigTest {
+    
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(CartCacheConfig.class);
+    
+    @Test
+    void localCacheIsTheDefault() {
+        runner.run(context -> assertThat(context).getBean(CartCache.class).isInstanceOf(LocalCartCache.class));
+    }
+    
+    @Test
+    void anotherTypeLeavesRoomForItsOwnBean() {
+        runner.withPropertyValues("smartbasket.cart-cache.type=shared")
+                .run(context -> assertThat(context).doesNotHaveBean(CartCache.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.smartbasket.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CorsConfigTest {
+    
+    private static final String ORIGIN = "http://localhost:5173";
+    
+    @Autowired
+    private MockMvc mvc;
+    
+    @Test
+    void rateLimitedResponsesCarryCorsHeaders() throws Exception {
+        String body = "{\"email\":\"" + UUID.randomUUID() + "@example.com\",\"password\":\"wrong\"}";
+        MvcResult last = null;
+        // The account bucket allows a burst of 5
+        for (int i = 0; i < 6; i++) {
+            last = mvc.perform(post("/api/auth/login")
+                    .header(HttpHeaders.ORIGIN, ORIGIN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body)).andReturn();
+        }
+        
+        assertThat(last.getResponse().getStatus()).isEqualTo(429);
+        assertThat(last.getResponse().getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo(ORIGIN);
+        assertThat(last.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+    }
+    
+    @Test
+    void preflightIsAnsweredForKnownOrigins() throws Exception {
+        mvc.perform(options("/api/cart/1")
+                        .header(HttpHeaders.ORIGIN, ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true"));
+    }
+    
+    @Test
+    void emulatorOriginIsAllowedOnEveryEndpoint() throws Exception {
+        for (String path : new String[] {"/api/platforms", "/api/products/1"}) {
+            mvc.perform(options(path)
+                            .header(HttpHeaders.ORIGIN, "http://10.0.2.2:8081")
+                            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "http://10.0.2.2:8081"));
+        }
+    }
+    
+    @Test
+    void unknownOriginsAreRefused() throws Exception {
+        mvc.perform(options("/api/cart/1")
+                        .header(HttpHeaders.ORIGIN, "http://evil.example")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,44 @@
+package com.smartbasket.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LoggingConfigTest {
+    
+    @Test
+    void warningsAndErrorsGoThroughTheQueueThatNeverDrops() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        AsyncAppender sampled = (AsyncAppender) root.getAppender("ASYNC");
+        AsyncAppender kept = (AsyncAppender) root.getAppender("ASYNC_WARN");
+        
+        assertThat(sampled.isNeverBlock()).isTrue();
+        assertThat(kept.isNeverBlock()).isFalse();
+        assertThat(kept.getDiscardingThreshold()).isZero();
+        
+        for (Level level : new Level[] {Level.DEBUG, Level.INFO}) {
+            assertThat(accepts(sampled, root, level)).as(level.toString()).isTrue();
+            assertThat(accepts(kept, root, level)).as(level.toString()).isFalse();
+        }
+        for (Level level : new Level[] {Level.WARN, Level.ERROR}) {
+            assertThat(accepts(sampled, root, level)).as(level.toString()).isFalse();
+            assertThat(accepts(kept, root, level)).as(level.toString()).isTrue();
+        }
+    }
+    
+    private static boolean accepts(AsyncAppender appender, ch.qos.logback.classic.Logger logger, Level level) {
+        LoggingEvent event = new LoggingEvent(LoggingConfigTest.class.getName(), logger, level, "line", null, null);
+        return appender.getFilterChainDecision(event) != FilterReply.DENY;
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartbasket.controller;
+
+import com.smartbasket.entity.Platform;
+import com.smartbasket.entity.Product;
+import com.smartbasket.service.PlatformService;
+import com.smartbasket.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.math.BigDecimal;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+    
+    @Autowired
+    private MockMvc mvc;
+    
+    @Autowired
+    private PlatformService platformService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void platformListIsNotResentWhileUnchanged() throws Exception {
+        String etag = etag("/api/platforms");
+        assertNotModified("/api/platforms", etag);
+        
+        Platform saved = platformService.savePlatform(new Platform("Test Mart " + UUID.randomUUID(),
+                new BigDecimal("15.00"), new BigDecimal("99.00"), 20, "https://example.com/mart"));
+        String afterSave = etag("/api/platforms");
+        assertThat(afterSave).isNotEqualTo(etag);
+        assertThat(body("/api/platforms", etag)).contains(saved.getName());
+        assertNotModified("/api/platforms", afterSave);
+        
+        platformService.deletePlatform(saved.getId());
+        String afterDelete = etag("/api/platforms");
+        assertThat(afterDelete).isNotEqualTo(afterSave);
+        assertThat(body("/api/platforms", afterSave)).doesNotContain(saved.getName());
+    }
+    
+    @Test
+    void productIsNotResentWhileUnchanged() throws Exception {
+        Product product = new Product("Jaggery " + UUID.randomUUID(), "Grocery", "Organic India", new BigDecimal("60.00"));
+        product.setStock(4);
+        Product saved = productService.saveProduct(product);
+        String path = "/api/products/" + saved.getId();
+        
+        String etag = etag(path);
+        assertNotModified(path, etag);
+        
+        saved.setPrice(new BigDecimal("65.00"));
+        productService.saveProduct(saved);
+        assertThat(body(path, etag)).contains("65.0");
+        assertThat(etag(path)).isNotEqualTo(etag);
+        
+        productService.deleteProduct(saved.getId());
+        mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotFound());
+    }
+    
+    private String etag(String path) throws Exception {
+        MvcResult result = mvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+    
+    private void assertNotModified(String path, String etag) throws Exception {
+        mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+    
+    // A stale ETag gets the full current body
+    private String body(String path, String staleEtag) throws Exception {
+        return mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, staleEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartbasket.repository;
+
+import com.smartbasket.dto.CartItemResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OrderItemRepositoryImplTest {
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    @InjectMocks
+    private OrderItemRepositoryImpl repository;
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyLineGoesInOneBatch() throws Exception {
+        List<CartItemResponse> lines = List.of(
+                new CartItemResponse(1L, 10L, "Milk", 2, new BigDecimal("30.00")),
+                new CartItemResponse(2L, 11L, "Bread", 1, new BigDecimal("40.00")),
+                new CartItemResponse(3L, 12L, "Eggs", 12, new BigDecimal("6.50")));
+        
+        repository.insertItems(99L, lines);
+        
+        // The batch size is the cart size, so the driver gets a single batch
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<CartItemResponse>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(lines), eq(3), setter.capture());
+        
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement, lines.get(2));
+        verify(statement).setLong(1, 99L);
+        verify(statement).setLong(2, 12L);
+        verify(statement).setString(3, "Eggs");
+        verify(statement).setBigDecimal(4, new BigDecimal("6.50"));
+        verify(statement).setInt(5, 12);
+    }
+}
@@ -0,0 +1,162 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Platform;
+import com.smartbasket.repository.PlatformPriceRepository.PriceRow;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static com.smartbasket.service.TestMatrices.platform;
+import static com.smartbasket.service.TestMatrices.row;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BasketOptimizerTest {
+    
+    @Test
+    void matchesBruteForceOnSmallCarts() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            int platforms = 2 + random.nextInt(4);
+            int items = 1 + random.nextInt(7);
+            Instance instance = randomInstance(random, platforms, items);
+            
+            BasketOptimizer.Result result = BasketOptimizer.solve(
+                    instance.matrix, instance.rows, instance.quantities, instance.allowed);
+            long expected = bruteForce(instance);
+            
+            assertThat(result.exact).as("round %d", round).isTrue();
+            assertThat(result.cost).as("round %d", round).isEqualTo(expected);
+            assertThat(cost(instance, result.assignment)).as("round %d", round).isEqualTo(result.cost);
+        }
+    }
+    
+    @Test
+    void freeItemsStillPayDelivery() {
+        // Platform 1 lists item 2 for free but charges 25.00 delivery under 200.00
+        PriceMatrix matrix = PriceMatrix.build(
+                List.of(platform(1, "25.00", "200.00", 10), platform(2, "30.00", "100.00", 20)),
+                List.of(row(1, 2, "120.00"), row(2, 1, "0.00"), row(2, 2, "10.00")));
+        int[] rows = {matrix.row(1), matrix.row(2)};
+        
+        BasketOptimizer.Result result = BasketOptimizer.solve(matrix, rows, new int[] {1, 1}, new boolean[] {true, true});
+        
+        // Splitting costs 120 + 0 + 25 delivery; keeping both on platform 2 is 130 with free delivery
+        assertThat(result.cost).isEqualTo(13_000);
+        assertThat(result.assignment).containsExactly(1, 1);
+    }
+    
+    @Test
+    void largeCartsFallBackToAConsistentHeuristic() {
+        Random random = new Random(7);
+        Instance instance = randomInstance(random, 5, BasketOptimizer.EXACT_ITEM_LIMIT + 8);
+        
+        BasketOptimizer.Result result = BasketOptimizer.solve(
+                instance.matrix, instance.rows, instance.quantities, instance.allowed);
+        
+        assertThat(result.exact).isFalse();
+        assertThat(cost(instance, result.assignment)).isEqualTo(result.cost);
+        for (int i = 0; i < instance.rows.length; i++) {
+            int p = result.assignment[i];
+            assertThat(instance.allowed[p]).isTrue();
+            assertThat(instance.matrix.price(instance.rows[i], p)).isNotEqualTo(PriceMatrix.MISSING);
+        }
+    }
+    
+    private static Instance randomInstance(Random random, int platformCount, int items) {
+        List<Platform> platforms = new ArrayList<>();
+        for (int p = 1; p <= platformCount; p++) {
+            platforms.add(platform(p, (15 + random.nextInt(30)) + ".00", (100 + random.nextInt(300)) + ".00",
+                    5 + random.nextInt(30)));
+        }
+        boolean[] allowed = new boolean[platformCount];
+        for (int p = 0; p < platformCount; p++) {
+            allowed[p] = random.nextInt(4) != 0;
+        }
+        allowed[random.nextInt(platformCount)] = true;
+        
+        List<PriceRow> rows = new ArrayList<>();
+        for (int item = 1; item <= items; item++) {
+            // Every item is listed by at least one allowed platform, like the service guarantees
+            int guaranteed = random.nextInt(platformCount);
+            while (!allowed[guaranteed]) {
+                guaranteed = (guaranteed + 1) % platformCount;
+            }
+            for (int p = 0; p < platformCount; p++) {
+                if (p == guaranteed || random.nextInt(3) != 0) {
+                    // Some listings are free, which must not make a platform look unused
+                    int rupees = random.nextInt(8) == 0 ? 0 : 5 + random.nextInt(150);
+                    rows.add(row(item, p + 1, rupees + "." + (random.nextInt(2) == 0 ? "00" : "50")));
+                }
+            }
+        }
+        PriceMatrix matrix = PriceMatrix.build(platforms, rows);
+        int[] rowIndexes = new int[items];
+        int[] quantities = new int[items];
+        for (int i = 0; i < items; i++) {
+            rowIndexes[i] = matrix.row(i + 1);
+            quantities[i] = 1 + random.nextInt(3);
+        }
+        return new Instance(matrix, rowIndexes, quantities, allowed);
+    }
+    
+    // Tries every assignment of items to allowed platforms that list them
+    private static long bruteForce(Instance instance) {
+        int platforms = instance.matrix.platformCount();
+        int[] assignment = new int[instance.rows.length];
+        long best = Long.MAX_VALUE;
+        while (true) {
+            if (servable(instance, assignment)) {
+                best = Math.min(best, cost(instance, assignment));
+            }
+            int i = 0;
+            while (i < assignment.length && ++assignment[i] == platforms) {
+                assignment[i++] = 0;
+            }
+            if (i == assignment.length) {
+                return best;
+            }
+        }
+    }
+    
+    private static boolean servable(Instance instance, int[] assignment) {
+        for (int i = 0; i < assignment.length; i++) {
+            if (!instance.allowed[assignment[i]]
+                    || instance.matrix.price(instance.rows[i], assignment[i]) == PriceMatrix.MISSING) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long cost(Instance instance, int[] assignment) {
+        int platforms = instance.matrix.platformCount();
+        long[] subtotals = new long[platforms];
+        boolean[] used = new boolean[platforms];
+        for (int i = 0; i < assignment.length; i++) {
+            int p = assignment[i];
+            subtotals[p] += instance.matrix.price(instance.rows[i], p) * instance.quantities[i];
+            used[p] = true;
+        }
+        long total = 0;
+        for (int p = 0; p < platforms; p++) {
+            if (used[p]) {
+                total += subtotals[p] + instance.matrix.deliveryFeeFor(p, subtotals[p]);
+            }
+        }
+        return total;
+    }
+    
+    private static final class Instance {
+        final PriceMatrix matrix;
+        final int[] rows;
+        final int[] quantities;
+        final boolean[] allowed;
+        
+        Instance(PriceMatrix matrix, int[] rows, int[] quantities, boolean[] allowed) {
+            this.matrix = matrix;
+            this.rows = rows;
+            this.quantities = quantities;
+            this.allowed = allowed;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartItemResponse;
+import com.smartbasket.dto.CartOperation;
+import com.smartbasket.entity.Product;
+import com.smartbasket.entity.User;
+import com.smartbasket.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceTest {
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private CartCache cartCache;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Long userId;
+    private Long milk;
+    private Long bread;
+    private Long eggs;
+    
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(new User(UUID.randomUUID() + "@example.com", "x", "Cart Test")).getId();
+        milk = product("Milk");
+        bread = product("Bread");
+        eggs = product("Eggs");
+    }
+    
+    @Test
+    void batchFoldsOperationsPerProduct() {
+        cartService.addToCart(userId, milk, 2);
+        cartService.addToCart(userId, bread, 1);
+        
+        cartService.applyBatch(userId, List.of(
+                new CartOperation("ADD", milk, 3),
+                new CartOperation("ADD", eggs, 2),
+                new CartOperation("add", eggs, 1),
+                new CartOperation("UPDATE", bread, 4),
+                new CartOperation("REMOVE", bread, null),
+                new CartOperation("ADD", bread, 2)));
+        
+        assertThat(quantities(cartService.loadCart(userId))).isEqualTo(Map.of(milk, 5, bread, 2, eggs, 3));
+        // The batch evicts, so the next read reloads what was committed
+        assertThat(quantities(cartService.getCart(userId))).isEqualTo(Map.of(milk, 5, bread, 2, eggs, 3));
+    }
+    
+    @Test
+    void batchRemovesLinesThatFoldToZero() {
+        cartService.addToCart(userId, milk, 2);
+        cartService.addToCart(userId, bread, 1);
+        
+        cartService.applyBatch(userId, List.of(
+                new CartOperation("UPDATE", milk, 0),
+                new CartOperation("ADD", bread, 2),
+                new CartOperation("REMOVE", bread, null),
+                new CartOperation("ADD", eggs, 1),
+                new CartOperation("REMOVE", eggs, null)));
+        
+        assertThat(cartService.loadCart(userId)).isEmpty();
+    }
+    
+    @Test
+    void cachedCartReadsIssueNoStatements() {
+        cartService.addToCart(userId, milk, 2);
+        cartCache.evict(userId);
+        Statistics statistics = statistics();
+        
+        statistics.clear();
+        assertThat(quantities(cartService.getCart(userId))).isEqualTo(Map.of(milk, 2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        
+        statistics.clear();
+        assertThat(quantities(cartService.getCart(userId))).isEqualTo(Map.of(milk, 2));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+    
+    @Test
+    void writesToExistingLinesUseOneLookupAndOneUpdate() {
+        CartItemResponse line = cartService.addToCart(userId, milk, 2);
+        Statistics statistics = statistics();
+        
+        statistics.clear();
+        cartService.addToCart(userId, milk, 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        
+        statistics.clear();
+        cartService.updateCartItem(line.getId(), 5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(quantities(cartService.getCart(userId))).isEqualTo(Map.of(milk, 5));
+    }
+    
+    @Test
+    void batchOfChangesAndRemovalsIsThreeStatements() {
+        cartService.addToCart(userId, milk, 1);
+        cartService.addToCart(userId, bread, 1);
+        cartService.addToCart(userId, eggs, 1);
+        Statistics statistics = statistics();
+        
+        statistics.clear();
+        cartService.applyBatch(userId, List.of(
+                new CartOperation("ADD", milk, 1),
+                new CartOperation("UPDATE", bread, 3),
+                new CartOperation("REMOVE", eggs, null)));
+        
+        // One IN lookup, one batched update for both lines, one bulk delete
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(quantities(cartService.loadCart(userId))).isEqualTo(Map.of(milk, 2, bread, 3));
+    }
+    
+    private Long product(String name) {
+        Product product = new Product(name + " " + UUID.randomUUID(), "Dairy", "Amul", new BigDecimal("25.00"));
+        product.setStock(100);
+        return productService.saveProduct(product).getId();
+    }
+    
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    private static Map<Long, Integer> quantities(List<CartItemResponse> lines) {
+        return lines.stream().collect(Collectors.toMap(CartItemResponse::getProductId, CartItemResponse::getQuantity));
+    }
+}
@@ -0,0 +1,131 @@
+package com.smartbasket.service;
+
+import com.smartbasket.repository.ProductRepository;
+import com.smartbasket.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static com.smartbasket.service.TestCheckouts.buyer;
+import static com.smartbasket.service.TestCheckouts.saleProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutContentionTest {
+    
+    private static final int STOCK = 10;
+    private static final int BUYERS = 24;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private HotStockService hotStockService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void rowReservationsNeverOversell() throws Exception {
+        Long productId = saleProduct(productService, STOCK);
+        
+        int placed = checkoutConcurrently(productId);
+        
+        int remaining = productRepository.findById(productId).orElseThrow().getStock();
+        assertThat(placed).isPositive().isLessThanOrEqualTo(STOCK);
+        assertThat(remaining).isEqualTo(STOCK - placed);
+        assertThat(productService.getProductById(productId).orElseThrow().getStock()).isEqualTo(remaining);
+    }
+    
+    @Test
+    void hotCounterReservationsNeverOversell() throws Exception {
+        Long productId = saleProduct(productService, STOCK);
+        hotStockService.setHotStock(productId, true);
+        
+        int placed = checkoutConcurrently(productId);
+        hotStockService.flush();
+        
+        assertThat(placed).isEqualTo(STOCK);
+        assertThat(hotStockService.getAvailable().get(productId)).isZero();
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isZero();
+        hotStockService.setHotStock(productId, false);
+    }
+    
+    @Test
+    void nonPositiveQuantitiesAreRefused() {
+        Long productId = saleProduct(productService, STOCK);
+        Long userId = buyer(userRepository);
+        
+        assertThatThrownBy(() -> cartService.addToCart(userId, productId, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cartService.addToCart(userId, productId, -3))
+                .isInstanceOf(IllegalArgumentException.class);
+        Long lineId = cartService.addToCart(userId, productId, 1).getId();
+        assertThatThrownBy(() -> cartService.updateCartItem(lineId, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Spring's repository exception translation wraps it
+        assertThatThrownBy(() -> productRepository.reserveStock(Map.of(productId, -5)))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StripedStockCounter(productId, STOCK).tryReserve(-5))
+                .isInstanceOf(IllegalArgumentException.class);
+        
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(STOCK);
+    }
+    
+    // Every buyer has one unit in their cart and they all check out at once
+    private int checkoutConcurrently(Long productId) throws Exception {
+        List<Long> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Long userId = buyer(userRepository);
+            cartService.addToCart(userId, productId, 1);
+            buyers.add(userId);
+        }
+        
+        ExecutorService pool = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Long userId : buyers) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(userId, "1 Test Street", "COD");
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        
+        int placed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                placed++;
+            }
+        }
+        return placed;
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartItemResponse;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CompactCartTest {
+    
+    @Test
+    void bytesRoundTrip() {
+        CompactCart cart = CompactCart.of(List.of(
+                        new CartItemResponse(10L, 5L, "Milk", 2, new BigDecimal("25.50")),
+                        new CartItemResponse(11L, 7L, "Bread", 1, new BigDecimal("40.00"))))
+                .withLine(12L, 9L, 3, new BigDecimal("0.99"))
+                .withoutItem(10L);
+        
+        CompactCart decoded = CompactCart.fromBytes(cart.toBytes());
+        
+        assertThat(decoded).isEqualTo(cart);
+        assertThat(decoded.toResponses(id -> "p" + id))
+                .extracting(CartItemResponse::getId, CartItemResponse::getProductName, CartItemResponse::getQuantity)
+                .containsExactly(
+                        tuple(11L, "p7", 1),
+                        tuple(12L, "p9", 3));
+        assertThat(decoded.toResponses(id -> "p" + id).get(1).getPrice()).isEqualByComparingTo("0.99");
+        assertThat(CompactCart.fromBytes(CompactCart.EMPTY.toBytes())).isSameAs(CompactCart.EMPTY);
+    }
+    
+    @Test
+    void malformedBytesAreRejected() {
+        byte[] bytes = CompactCart.of(List.of(new CartItemResponse(10L, 5L, "Milk", 2, new BigDecimal("25.50"))))
+                .toBytes();
+        
+        assertThatThrownBy(() -> CompactCart.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompactCart.fromBytes(new byte[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] unknown = bytes.clone();
+        unknown[0] = 9;
+        assertThatThrownBy(() -> CompactCart.fromBytes(unknown))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("format");
+    }
+}
@@ -0,0 +1,151 @@
+package com.smartbasket.service;
+
+import com.smartbasket.repository.ProductRepository;
+import com.smartbasket.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static com.smartbasket.service.TestCheckouts.buyer;
+import static com.smartbasket.service.TestCheckouts.saleProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HotStockServiceTest {
+    
+    @Autowired
+    private HotStockService hotStockService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void committedReservationsSurviveARestart() {
+        Long productId = saleProduct(productService, 10);
+        hotStockService.setHotStock(productId, true);
+        for (int i = 0; i < 3; i++) {
+            checkout(buyer(userRepository), productId, 1);
+        }
+        
+        // Not flushed yet: the row is untouched and the reservations are only in the delta table
+        assertThat(rowStock(productId)).isEqualTo(10);
+        assertThat(deltaRows(productId)).isEqualTo(3);
+        
+        // What a restart runs once the counters are gone
+        hotStockService.reconcile();
+        
+        assertThat(rowStock(productId)).isEqualTo(7);
+        assertThat(deltaRows(productId)).isZero();
+        assertThat(hotStockService.getAvailable().get(productId)).isEqualTo(7);
+        assertThat(productService.getProductById(productId).orElseThrow().getStock()).isEqualTo(7);
+        hotStockService.setHotStock(productId, false);
+    }
+    
+    @Test
+    void concurrentFlushesApplyEveryDeltaOnce() throws Exception {
+        int stock = 150;
+        Long productId = saleProduct(productService, stock);
+        hotStockService.setHotStock(productId, true);
+        
+        int threads = 12;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean buying = new AtomicBoolean(true);
+        List<Future<Integer>> buyers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int quantity = 1 + t % 3;
+            buyers.add(pool.submit(() -> {
+                Long userId = buyer(userRepository);
+                start.await();
+                int bought = 0;
+                for (int i = 0; i < 20; i++) {
+                    if (checkout(userId, productId, quantity)) {
+                        bought += quantity;
+                    }
+                }
+                return bought;
+            }));
+        }
+        // The scheduled flush and a second drainer race over the same rows
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Future<?>> drainers = List.of(
+                pool.submit(() -> {
+                    while (buying.get()) {
+                        hotStockService.flush();
+                    }
+                }),
+                pool.submit(() -> {
+                    while (buying.get()) {
+                        transaction.execute(status -> productRepository.applyRecordedDeltas(50));
+                    }
+                }));
+        start.countDown();
+        
+        int bought = 0;
+        for (Future<Integer> buyer : buyers) {
+            bought += buyer.get(60, TimeUnit.SECONDS);
+        }
+        buying.set(false);
+        for (Future<?> drainer : drainers) {
+            drainer.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        hotStockService.flush();
+        
+        assertThat(bought).isPositive().isLessThanOrEqualTo(stock);
+        assertThat(deltaRows(productId)).isZero();
+        assertThat(rowStock(productId)).isEqualTo(stock - bought);
+        assertThat(hotStockService.getAvailable().get(productId)).isEqualTo(stock - bought);
+        hotStockService.setHotStock(productId, false);
+    }
+    
+    private boolean checkout(Long userId, Long productId, int quantity) {
+        cartService.addToCart(userId, productId, quantity);
+        try {
+            orderService.createOrder(userId, "1 Test Street", "COD");
+            return true;
+        } catch (RuntimeException e) {
+            cartService.clearCart(userId);
+            return false;
+        }
+    }
+    
+    private int rowStock(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getStock();
+    }
+    
+    private int deltaRows(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_deltas WHERE product_id = ?",
+                Integer.class, productId);
+    }
+}
@@ -0,0 +1,55 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CartItemResponse;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCartCacheTest {
+    
+    private final LocalCartCache cache = new LocalCartCache(1000, 300);
+    
+    @Test
+    void fillIsDroppedWhenAWriteLandsWhileLoading() {
+        long version = cache.version(1L);
+        // A write commits between the fill's query and its put; there is no entry to patch yet
+        cache.update(1L, cart -> cart.withLine(10L, 5L, 3, new BigDecimal("25.00")));
+        
+        assertThat(cache.putIfUnchanged(1L, version, cart(2))).isFalse();
+        assertThat(cache.get(1L)).isEmpty();
+    }
+    
+    @Test
+    void fillIsDroppedAfterAnEvict() {
+        long version = cache.version(1L);
+        cache.evict(1L);
+        
+        assertThat(cache.putIfUnchanged(1L, version, cart(2))).isFalse();
+        assertThat(cache.get(1L)).isEmpty();
+    }
+    
+    @Test
+    void undisturbedFillIsStoredAndLaterWritesPatchIt() {
+        long version = cache.version(1L);
+        // Writes for other users do not block this fill unless they share its slot
+        cache.evict(2L);
+        
+        assertThat(cache.putIfUnchanged(1L, version, cart(2))).isTrue();
+        cache.update(1L, cart -> cart.withLine(10L, 5L, 7, new BigDecimal("25.00")));
+        assertThat(cache.get(1L).orElseThrow().toResponses(id -> "Milk").get(0).getQuantity()).isEqualTo(7);
+    }
+    
+    @Test
+    void boundIsEnforcedAcrossSegments() {
+        LocalCartCache small = new LocalCartCache(64, 300);
+        for (long user = 0; user < 10_000; user++) {
+            small.put(user, CompactCart.EMPTY);
+        }
+        assertThat(small.stats().getSize()).isLessThanOrEqualTo(64);
+    }
+    
+    private static CompactCart cart(int quantity) {
+        return CompactCart.of(List.of(new CartItemResponse(10L, 5L, "Milk", quantity, new BigDecimal("25.00"))));
+    }
+}
@@ -0,0 +1,117 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.NotificationType;
+import com.smartbasket.entity.OutboxMessage;
+import com.smartbasket.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+    
+    private static final AtomicLong IDS = new AtomicLong();
+    
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+    
+    @Mock
+    private NotificationSender notificationSender;
+    
+    @InjectMocks
+    private NotificationService service;
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stopSenders();
+    }
+    
+    @Test
+    void oneRunSendsAtMostTheBatchLimit() {
+        start(2, 4, 1000);
+        // An outbox that never runs dry
+        when(outboxMessageRepository.findDue(any(), any())).thenAnswer(invocation -> messages(2));
+        
+        service.dispatch();
+        
+        verify(outboxMessageRepository, times(3)).findDue(any(), any());
+        verify(outboxMessageRepository, times(3)).markSent(anyCollection(), any());
+        assertThat(service.getStats().getSent()).isEqualTo(6);
+    }
+    
+    @Test
+    void saturatedSendersDeferMessagesInsteadOfSendingOnTheCaller() throws Exception {
+        // One worker and a queue of two: the fourth send has nowhere to go
+        start(2, 1, 200);
+        List<OutboxMessage> batch = messages(4);
+        when(outboxMessageRepository.findDue(any(), any())).thenReturn(batch);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<Thread> sendThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            sendThreads.add(Thread.currentThread());
+            release.await();
+            return null;
+        }).when(notificationSender).send(any());
+        
+        try {
+            service.dispatch();
+        } finally {
+            release.countDown();
+        }
+        
+        assertThat(sendThreads).doesNotContain(Thread.currentThread());
+        // The run stops at the saturated batch rather than fetching another
+        verify(outboxMessageRepository, times(1)).findDue(any(), any());
+        // The three that were handed to the pool timed out and back off; the fourth was never tried
+        verify(outboxMessageRepository).saveAll(savedFailures(3));
+        assertThat(batch.get(3).getAttempts()).isZero();
+        assertThat(batch.get(3).getLastError()).isNull();
+    }
+    
+    private void start(int batchSize, int senderThreads, long sendTimeoutMillis) {
+        ReflectionTestUtils.setField(service, "batchSize", batchSize);
+        ReflectionTestUtils.setField(service, "senderThreads", senderThreads);
+        ReflectionTestUtils.setField(service, "sendTimeoutMillis", sendTimeoutMillis);
+        ReflectionTestUtils.setField(service, "maxBatchesPerRun", 3);
+        service.startSenders();
+    }
+    
+    private static Collection<OutboxMessage> savedFailures(int count) {
+        return argThat(failures -> {
+            List<OutboxMessage> list = new ArrayList<>();
+            failures.forEach(list::add);
+            return list.size() == count && list.stream().allMatch(message -> message.getAttempts() == 1);
+        });
+    }
+    
+    private static List<OutboxMessage> messages(int count) {
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = IDS.incrementAndGet();
+            OutboxMessage message = new OutboxMessage("order-" + id + "-CONFIRMATION", NotificationType.ORDER_CONFIRMATION,
+                    id, "user@example.com", "{}");
+            ReflectionTestUtils.setField(message, "id", id);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
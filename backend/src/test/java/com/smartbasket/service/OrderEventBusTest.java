@@ -0,0 +1,130 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OrderEvent;
+import com.smartbasket.entity.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.function.Supplier;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class OrderEventBusTest {
+    
+    private static final Long ORDER_ID = 7L;
+    
+    private final OrderEventBus bus = new OrderEventBus();
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bus, "bufferSize", 16);
+        ReflectionTestUtils.setField(bus, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(bus, "writerThreads", 2);
+        bus.startWriters();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bus.shutdown();
+    }
+    
+    @Test
+    void changeCommittedDuringLoadFollowsTheSnapshot() throws Exception {
+        MvcResult result = stream(() -> {
+            // Confirmed after the order was read, plus a late duplicate of the creation event
+            bus.publish(event(OrderStatus.PENDING, OrderStatus.CONFIRMED));
+            bus.publish(event(null, OrderStatus.PENDING));
+            return Optional.of(order(OrderStatus.PENDING));
+        });
+        String body = awaitContent(result, "CONFIRMED\"");
+        
+        assertThat(body.indexOf("event:order")).isLessThan(body.indexOf("event:status"));
+        assertThat(occurrences(body, "event:status")).isEqualTo(1);
+        assertThat(body.substring(body.indexOf("event:status"))).contains("\"toStatus\":\"CONFIRMED\"");
+    }
+    
+    @Test
+    void changeAlreadyInTheSnapshotIsNotSentAgain() throws Exception {
+        MvcResult result = stream(() -> {
+            bus.publish(event(OrderStatus.PENDING, OrderStatus.CONFIRMED));
+            return Optional.of(order(OrderStatus.CONFIRMED));
+        });
+        awaitContent(result, "event:order");
+        bus.publish(event(OrderStatus.CONFIRMED, OrderStatus.PACKED));
+        String body = awaitContent(result, "PACKED\"");
+        
+        assertThat(occurrences(body, "event:status")).isEqualTo(1);
+        assertThat(body.substring(body.indexOf("event:status"))).contains("\"toStatus\":\"PACKED\"");
+    }
+    
+    @Test
+    void missingOrderLeavesNoSubscriber() {
+        assertThat(bus.subscribe(ORDER_ID, Optional::empty)).isEmpty();
+        assertThat(bus.getOpenStreams()).isZero();
+    }
+    
+    private MvcResult stream(Supplier<Optional<Order>> loader) throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new StreamController(bus, loader)).build();
+        return mvc.perform(get("/stream")).andExpect(request().asyncStarted()).andReturn();
+    }
+    
+    // Events are written by the bus's writer threads, so wait for them to arrive
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertThat(body).contains(expected);
+        // Give a stray duplicate the chance to show up before the caller counts events
+        Thread.sleep(100);
+        return result.getResponse().getContentAsString();
+    }
+    
+    private static int occurrences(String body, String text) {
+        int count = 0;
+        for (int i = body.indexOf(text); i >= 0; i = body.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+    
+    private static Order order(OrderStatus status) {
+        Order order = new Order(null, new BigDecimal("120.00"));
+        order.setId(ORDER_ID);
+        order.setStatus(status);
+        return order;
+    }
+    
+    private static OrderEvent event(OrderStatus from, OrderStatus to) {
+        return new OrderEvent(ORDER_ID, from, to);
+    }
+    
+    @RestController
+    static class StreamController {
+        private final OrderEventBus bus;
+        private final Supplier<Optional<Order>> loader;
+        
+        StreamController(OrderEventBus bus, Supplier<Optional<Order>> loader) {
+            this.bus = bus;
+            this.loader = loader;
+        }
+        
+        @GetMapping("/stream")
+        SseEmitter stream() {
+            return bus.subscribe(ORDER_ID, loader).orElseThrow();
+        }
+    }
+}
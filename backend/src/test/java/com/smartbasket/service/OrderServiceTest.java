@@ -0,0 +1,82 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.OrderDetail;
+import com.smartbasket.entity.Order;
+import com.smartbasket.entity.OrderItem;
+import com.smartbasket.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.util.Map;
+import static com.smartbasket.service.TestCheckouts.buyer;
+import static com.smartbasket.service.TestCheckouts.saleProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceTest {
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void cartLinesBecomeOrderItemsAndReadBackInOneQuery() {
+        Long userId = buyer(userRepository);
+        Long first = saleProduct(productService, 10);
+        Long second = saleProduct(productService, 10);
+        Long third = saleProduct(productService, 10);
+        cartService.addToCart(userId, first, 2);
+        cartService.addToCart(userId, second, 1);
+        cartService.addToCart(userId, third, 3);
+        
+        Order order = orderService.createOrder(userId, "1 Test Street", "COD");
+        
+        // Three lines at 20.00 each
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("120.00");
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS items, SUM(quantity) AS units FROM order_items WHERE order_id = ?", order.getId());
+        assertThat(((Number) row.get("items")).intValue()).isEqualTo(3);
+        assertThat(((Number) row.get("units")).intValue()).isEqualTo(6);
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        OrderDetail detail = orderService.getOrderDetail(order.getId()).orElseThrow();
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(detail.getUserId()).isEqualTo(userId);
+        assertThat(detail.getItems())
+                .extracting(OrderItem::getProductId, OrderItem::getQuantity, OrderItem::getUnitPrice)
+                .containsExactlyInAnyOrder(
+                        tuple(first, 2, new BigDecimal("20.00")),
+                        tuple(second, 1, new BigDecimal("20.00")),
+                        tuple(third, 3, new BigDecimal("20.00")));
+        assertThat(detail.getItems()).allSatisfy(item -> assertThat(item.getProductName()).startsWith("Flash Sale "));
+    }
+    
+    @Test
+    void unknownOrderHasNoDetail() {
+        assertThat(orderService.getOrderDetail(-1L)).isEmpty();
+    }
+}
@@ -0,0 +1,116 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.OrderEvent;
+import com.smartbasket.entity.OrderStatus;
+import com.smartbasket.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import java.util.EnumMap;
+import java.util.Map;
+import static com.smartbasket.service.TestCheckouts.buyer;
+import static com.smartbasket.service.TestCheckouts.saleProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderStatusTest {
+    
+    @Autowired
+    private MockMvc mvc;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void ordersMoveOneStepAtATimeUntilFinal() {
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                boolean allowed = !from.isFinal() && (to == OrderStatus.CANCELLED || to.ordinal() == from.ordinal() + 1);
+                assertThat(from.canTransitionTo(to)).as(from + " -> " + to).isEqualTo(allowed);
+            }
+        }
+    }
+    
+    @Test
+    void illegalMovesAreConflictsAndUnknownStatusesBadRequests() throws Exception {
+        Long orderId = placeOrder();
+        
+        update(orderId, "confirmed", status().isOk());
+        // Skipping a step
+        update(orderId, "out for delivery", status().isConflict());
+        update(orderId, "PACKED", status().isOk());
+        update(orderId, "Out For Delivery", status().isOk());
+        update(orderId, "pending", status().isConflict());
+        update(orderId, "shipped", status().isBadRequest());
+        update(orderId, "delivered", status().isOk());
+        // Final: not even cancellation is allowed
+        update(orderId, "cancelled", status().isConflict());
+        
+        assertThat(orderService.getOrderEvents(orderId)).extracting(OrderEvent::getToStatus).containsExactly(
+                OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PACKED,
+                OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED);
+    }
+    
+    @Test
+    void cancellationIsAllowedBeforeDelivery() throws Exception {
+        Long orderId = placeOrder();
+        update(orderId, "confirmed", status().isOk());
+        mvc.perform(put("/api/orders/{id}/status", orderId).param("status", "cancelled"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+        update(orderId, "packed", status().isConflict());
+    }
+    
+    @Test
+    void countersFollowCommittedMovesAndRebuildFromTheEventLog() throws Exception {
+        Map<OrderStatus, Long> before = orderService.getStatusCounts();
+        Long first = placeOrder();
+        Long second = placeOrder();
+        update(first, "confirmed", status().isOk());
+        update(second, "cancelled", status().isOk());
+        // Refused moves leave the counters alone
+        update(first, "delivered", status().isConflict());
+        
+        Map<OrderStatus, Long> after = orderService.getStatusCounts();
+        Map<OrderStatus, Long> expected = new EnumMap<>(before);
+        expected.merge(OrderStatus.CONFIRMED, 1L, Long::sum);
+        expected.merge(OrderStatus.CANCELLED, 1L, Long::sum);
+        assertThat(after).isEqualTo(expected);
+        
+        // Startup folds the event log back into counters that start from nothing
+        OrderStatusCounters counters = (OrderStatusCounters) ReflectionTestUtils.getField(orderService, "statusCounters");
+        counters.reset(Map.of(), Map.of());
+        assertThat(orderService.getStatusCounts().values()).containsOnly(0L);
+        orderService.rebuildStatusCounters();
+        assertThat(orderService.getStatusCounts()).isEqualTo(after);
+    }
+    
+    private void update(Long orderId, String status, ResultMatcher expected) throws Exception {
+        mvc.perform(put("/api/orders/{id}/status", orderId).param("status", status)).andExpect(expected);
+    }
+    
+    private Long placeOrder() {
+        Long userId = buyer(userRepository);
+        cartService.addToCart(userId, saleProduct(productService, 5), 1);
+        return orderService.createOrder(userId, "1 Test Street", "COD").getId();
+    }
+}
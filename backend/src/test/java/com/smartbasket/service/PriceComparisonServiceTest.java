@@ -0,0 +1,104 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.PriceComparisonResponse;
+import com.smartbasket.entity.PlatformPrice;
+import com.smartbasket.entity.Product;
+import com.smartbasket.repository.PlatformPriceRepository;
+import com.smartbasket.repository.PlatformRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import static com.smartbasket.service.TestMatrices.platform;
+import static com.smartbasket.service.TestMatrices.row;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PriceComparisonServiceTest {
+    
+    @Mock
+    private PlatformPriceRepository platformPriceRepository;
+    
+    @Mock
+    private PlatformRepository platformRepository;
+    
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+    
+    @InjectMocks
+    private PriceComparisonService service;
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(platformRepository.findAll()).thenReturn(List.of(
+                platform(1, "25.00", "200.00", 10), platform(2, "30.00", "150.00", 20)));
+    }
+    
+    @Test
+    void rejectsNonPositiveQuantity() {
+        assertThatThrownBy(() -> service.compareProduct(1L, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.compareProduct(1L, -2)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void priceSaveUpdatesOneCellWithoutRebuilding() {
+        when(platformPriceRepository.findAvailablePriceRows()).thenReturn(List.of(
+                row(1, 1, "50.00"), row(1, 2, "45.00")));
+        assertThat(cheapestItemTotal(service.compareProduct(1L, 2))).isEqualByComparingTo("90.00");
+        
+        PlatformPrice existing = new PlatformPrice(new Product(), null, new BigDecimal("50.00"));
+        when(platformPriceRepository.findByProductIdAndPlatformId(1L, 1L)).thenReturn(Optional.of(existing));
+        when(platformPriceRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        service.savePlatformPrice(1L, 1L, new BigDecimal("40.00"), null);
+        
+        PriceComparisonResponse response = service.compareProduct(1L, 2);
+        assertThat(response.getCheapest().getPlatformId()).isEqualTo(1L);
+        assertThat(cheapestItemTotal(response)).isEqualByComparingTo("80.00");
+        verify(platformPriceRepository, times(1)).findAvailablePriceRows();
+    }
+    
+    @Test
+    void delistingClearsTheCell() {
+        when(platformPriceRepository.findAvailablePriceRows()).thenReturn(List.of(
+                row(1, 1, "50.00"), row(1, 2, "45.00")));
+        service.compareProduct(1L, 1);
+        
+        PlatformPrice existing = new PlatformPrice(new Product(), null, new BigDecimal("45.00"));
+        when(platformPriceRepository.findByProductIdAndPlatformId(1L, 2L)).thenReturn(Optional.of(existing));
+        when(platformPriceRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        service.savePlatformPrice(1L, 2L, new BigDecimal("45.00"), false);
+        
+        PriceComparisonResponse response = service.compareProduct(1L, 1);
+        assertThat(response.getCheapest().getPlatformId()).isEqualTo(1L);
+        assertThat(response.getQuotes().get(1).isAvailable()).isFalse();
+        verify(platformPriceRepository, times(1)).findAvailablePriceRows();
+    }
+    
+    @Test
+    void priceForUnlistedProductRebuilds() {
+        when(platformPriceRepository.findAvailablePriceRows()).thenReturn(List.of(row(1, 1, "50.00")));
+        service.compareProduct(1L, 1);
+        
+        PlatformPrice existing = new PlatformPrice(new Product(), null, new BigDecimal("70.00"));
+        when(platformPriceRepository.findByProductIdAndPlatformId(2L, 1L)).thenReturn(Optional.of(existing));
+        when(platformPriceRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        service.savePlatformPrice(2L, 1L, new BigDecimal("70.00"), null);
+        
+        verify(platformPriceRepository, times(2)).findAvailablePriceRows();
+    }
+    
+    private static BigDecimal cheapestItemTotal(PriceComparisonResponse response) {
+        return response.getCheapest().getItemTotal();
+    }
+}
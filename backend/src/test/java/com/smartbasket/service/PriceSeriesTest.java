@@ -0,0 +1,173 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.PlatformPriceHistory;
+import com.smartbasket.entity.Platform;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import static com.smartbasket.service.TestMatrices.platform;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceSeriesTest {
+    
+    private static final long START = 1_700_000_000L;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void windowsOverTailAndFewBlocksMatchABruteForceScan() throws Exception {
+        // Two sealed blocks plus a tail: below the rollup threshold, so summaries are merged linearly
+        checkRandomWindows(600, 1);
+    }
+    
+    @Test
+    void windowsOverManyBlocksMatchABruteForceScan() throws Exception {
+        // Enough blocks for the prefix sums and min/max trees
+        checkRandomWindows(12 * PriceSeries.BLOCK_POINTS + 37, 2);
+    }
+    
+    @Test
+    void staleTailIsWrittenWithoutSealingABlock() throws Exception {
+        PriceSegments segments = new PriceSegments(directory, (key, ref, block) -> { });
+        PriceSeries series = new PriceSeries();
+        series.add(START, 10_000);
+        series.add(START + 3600, 10_500);
+        series.writeTail(1L, segments);
+        series.add(START + 7200, 9_900);
+        series.writeTail(1L, segments);
+        // Nothing new to write
+        series.writeTail(1L, segments);
+        
+        assertThat(series.blockCount()).isZero();
+        assertThat(series.tailPoints()).isEqualTo(3);
+        assertThat(series.unwrittenSince()).isEqualTo(Long.MAX_VALUE);
+        // Two small frames, together smaller than one block header
+        assertThat(segments.bytesWritten()).isLessThan(PriceSeries.BLOCK_HEADER);
+    }
+    
+    @Test
+    void historyIsRecoveredFromBlocksAndTailFrames() throws Exception {
+        Platform platform = platform(3, "25.00", "200.00", 10);
+        Instant first = Instant.ofEpochSecond(START);
+        Random random = new Random(7);
+        
+        PriceHistoryStore store = store();
+        long paise = 10_000;
+        for (int i = 0; i < PriceSeries.BLOCK_POINTS + 20; i++) {
+            paise = nextPrice(random, paise);
+            store.record(5L, platform.getId(), PriceMatrix.fromPaise(paise), first.plusSeconds(i * 60L));
+            if (i % 50 == 0) {
+                // Everything is older than the cutoff, so this writes the tail so far
+                store.compact();
+            }
+        }
+        List<PlatformPriceHistory> before = history(store, platform, first);
+        store.close();
+        
+        PriceHistoryStore reopened = store();
+        List<PlatformPriceHistory> after = history(reopened, platform, first);
+        reopened.close();
+        
+        assertThat(after).usingRecursiveComparison().isEqualTo(before);
+        assertThat(after.get(0).getChanges()).isEqualTo(PriceSeries.BLOCK_POINTS + 20);
+    }
+    
+    private void checkRandomWindows(int points, long seed) throws Exception {
+        Random random = new Random(seed);
+        PriceSegments segments = new PriceSegments(directory, (key, ref, block) -> { });
+        PriceSeries series = new PriceSeries();
+        long[] times = new long[points];
+        long[] prices = new long[points];
+        long time = START;
+        long paise = 10_000;
+        for (int i = 0; i < points; i++) {
+            // Mostly short gaps with the odd long one, so windows start inside and between blocks
+            time += random.nextInt(10) == 0 ? 1 + random.nextInt(5_000) : 1 + random.nextInt(60);
+            paise = nextPrice(random, paise);
+            times[i] = time;
+            prices[i] = paise;
+            assertThat(series.add(time, paise)).isTrue();
+            if (series.isTailFull()) {
+                series.seal(1L, segments);
+            } else if (random.nextInt(40) == 0) {
+                series.writeTail(1L, segments);
+            }
+        }
+        
+        long span = time - START;
+        for (int i = 0; i < 400; i++) {
+            long from = START - 100 + (long) (random.nextDouble() * (span + 200));
+            long to = from + 1 + (long) (random.nextDouble() * random.nextDouble() * (span + 200));
+            PriceSeries.Window window = new PriceSeries.Window(from, to);
+            series.query(window, segments);
+            assertMatchesBruteForce(window, times, prices, from, to);
+        }
+    }
+    
+    // Walks the step function one second at a time
+    private static void assertMatchesBruteForce(PriceSeries.Window window, long[] times, long[] prices,
+                                                long from, long to) {
+        int at = -1;
+        long opening = -1, closing = -1, min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum = 0, covered = 0;
+        int changes = 0;
+        for (long second = from; second < to; second++) {
+            while (at + 1 < times.length && times[at + 1] <= second) {
+                at++;
+                if (times[at] > from) {
+                    changes++;
+                }
+            }
+            if (at < 0) {
+                continue;
+            }
+            long price = prices[at];
+            if (opening < 0) {
+                opening = price;
+            }
+            closing = price;
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            sum += price;
+            covered++;
+        }
+        
+        String context = "window [" + from + ", " + to + ")";
+        assertThat(window.finish()).as(context).isEqualTo(covered > 0);
+        if (covered == 0) {
+            return;
+        }
+        assertThat(window.openingPrice).as(context).isEqualTo(opening);
+        assertThat(window.closingPrice()).as(context).isEqualTo(closing);
+        assertThat(window.min).as(context).isEqualTo(min);
+        assertThat(window.max).as(context).isEqualTo(max);
+        assertThat(window.weightedSum).as(context).isEqualTo(sum);
+        assertThat(window.coveredSeconds).as(context).isEqualTo(covered);
+        assertThat(window.changes).as(context).isEqualTo(changes);
+    }
+    
+    private PriceHistoryStore store() throws Exception {
+        PriceHistoryStore store = new PriceHistoryStore();
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        ReflectionTestUtils.setField(store, "writeAfterMinutes", 0L);
+        store.open();
+        return store;
+    }
+    
+    private static List<PlatformPriceHistory> history(PriceHistoryStore store, Platform platform, Instant first) {
+        return store.getHistory(5L, List.of(platform), first.minusSeconds(30), first.plusSeconds(86_400)).getPlatforms();
+    }
+    
+    // A change of up to 5 rupees either way, never the same price and never below a rupee
+    private static long nextPrice(Random random, long paise) {
+        long next;
+        do {
+            next = Math.max(100, paise + random.nextInt(1_001) - 500);
+        } while (next == paise);
+        return next;
+    }
+}
@@ -0,0 +1,155 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CatalogProduct;
+import com.smartbasket.entity.Product;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogIndexTest {
+    
+    @Test
+    void snapshotHoldsCopiesNotTheEntities() {
+        Product entity = product(1L, "Milk", "Dairy", "Amul", "30.00", 10);
+        ProductCatalogIndex index = ProductCatalogIndex.build(List.of(entity), 1);
+        
+        CatalogProduct held = index.findById(1L).orElseThrow();
+        assertThat(held.getName()).isEqualTo("Milk");
+        assertThat(held.getStock()).isEqualTo(10);
+        
+        entity.setStock(99);
+        entity.setName("Changed");
+        assertThat(held.getStock()).isEqualTo(10);
+        assertThat(held.getName()).isEqualTo("Milk");
+    }
+    
+    @Test
+    void saveReplacesOneSlotAndSharesTheRest() {
+        ProductCatalogIndex before = ProductCatalogIndex.build(List.of(
+                product(1L, "Milk", "Dairy", "Amul", "30.00", 10),
+                product(2L, "Bread", "Bakery", "Modern", "40.00", 5),
+                product(3L, "Curd", "Dairy", "Amul", "20.00", 8)), 1);
+        
+        ProductCatalogIndex after = before.with(product(3L, "Cake", "Bakery", "Modern", "50.00", 2), 2);
+        
+        assertThat(after.getVersion()).isEqualTo(2);
+        assertThat(after.findById(1L).orElseThrow()).isSameAs(before.findById(1L).orElseThrow());
+        assertThat(after.findById(3L).orElseThrow().getName()).isEqualTo("Cake");
+        assertThat(ids(after.find("dairy", null, null))).containsExactly(1L);
+        assertThat(ids(after.find("bakery", "modern", null))).containsExactly(2L, 3L);
+        assertThat(ids(after.pageByPrice(null, null, null, null, null, 10))).containsExactly(1L, 2L, 3L);
+        // The published snapshot is untouched
+        assertThat(before.findById(3L).orElseThrow().getName()).isEqualTo("Curd");
+        assertThat(ids(before.find("dairy", null, null))).containsExactly(1L, 3L);
+    }
+    
+    @Test
+    void reservationOnThePreviousSnapshotCarriesOver() {
+        ProductCatalogIndex before = ProductCatalogIndex.build(List.of(
+                product(1L, "Milk", "Dairy", "Amul", "30.00", 10),
+                product(2L, "Bread", "Bakery", "Modern", "40.00", 5)), 1);
+        ProductCatalogIndex after = before.with(product(3L, "Curd", "Dairy", "Amul", "20.00", 8), 2);
+        
+        // A checkout that still held the old snapshot
+        before.reserveStock(1L, 3);
+        
+        assertThat(after.findById(1L).orElseThrow().getStock()).isEqualTo(7);
+    }
+    
+    @Test
+    void incrementalChangesMatchAFullRebuild() {
+        Random random = new Random(11);
+        String[] categories = {"Dairy", "Bakery", "Snacks", "Fruits"};
+        String[] brands = {"Amul", "Modern", "Tata"};
+        TreeMap<Long, Product> rows = new TreeMap<>();
+        ProductCatalogIndex index = ProductCatalogIndex.build(List.of(), 0);
+        for (int step = 1; step <= 400; step++) {
+            long id = 1 + random.nextInt(40);
+            if (random.nextInt(10) < 7) {
+                // Few distinct prices, so price ties are broken by id
+                Product product = product(id, "P" + id, categories[random.nextInt(categories.length)],
+                        brands[random.nextInt(brands.length)], (10 + random.nextInt(5)) + ".00", 10);
+                rows.put(id, product);
+                index = index.with(product, step);
+            } else {
+                rows.remove(id);
+                index = index.without(id, step);
+            }
+            
+            ProductCatalogIndex rebuilt = ProductCatalogIndex.build(new ArrayList<>(rows.values()), step);
+            assertThat(ids(index.all())).isEqualTo(ids(rebuilt.all()));
+            assertThat(ids(index.pageByPrice(null, null, null, null, null, 100)))
+                    .isEqualTo(ids(rebuilt.pageByPrice(null, null, null, null, null, 100)));
+            assertThat(ids(index.pageByPrice(null, null, null, new BigDecimal("12.00"), 20L, 100)))
+                    .isEqualTo(ids(rebuilt.pageByPrice(null, null, null, new BigDecimal("12.00"), 20L, 100)));
+            for (String category : categories) {
+                assertThat(ids(index.find(category, null, null))).isEqualTo(ids(rebuilt.find(category, null, null)));
+                for (String brand : brands) {
+                    assertThat(ids(index.pageById(category, brand, null, 10L, 100)))
+                            .isEqualTo(ids(rebuilt.pageById(category, brand, null, 10L, 100)));
+                }
+            }
+        }
+    }
+    
+    @Test
+    void concurrentReservationsAreNotLost() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            products.add(product(id, "P" + id, "Dairy", "Amul", "10.00", 100_000));
+        }
+        ProductCatalogIndex index = ProductCatalogIndex.build(products, 1);
+        
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    index.reserveStock(1L + (i & 3), 1);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        
+        int expected = 100_000 - threads * perThread / 4;
+        for (long id = 1; id <= 4; id++) {
+            assertThat(index.findById(id).orElseThrow().getStock()).isEqualTo(expected);
+        }
+        // Listing and lookup hand out the same holder
+        assertThat(index.all().get(0).getStock()).isEqualTo(expected);
+    }
+    
+    @Test
+    void reservationForUnknownProductIsIgnored() {
+        ProductCatalogIndex index = ProductCatalogIndex.build(
+                List.of(product(1L, "Milk", "Dairy", "Amul", "30.00", 10)), 1);
+        index.reserveStock(2L, 5);
+        index.reserveStock(null, 5);
+        assertThat(index.findById(1L).orElseThrow().getStock()).isEqualTo(10);
+    }
+    
+    private static List<Long> ids(List<CatalogProduct> products) {
+        return products.stream().map(CatalogProduct::getId).toList();
+    }
+    
+    static Product product(Long id, String name, String category, String brand, String price, int stock) {
+        Product product = new Product(name, category, brand, new BigDecimal(price));
+        product.setId(id);
+        product.setStock(stock);
+        return product;
+    }
+}
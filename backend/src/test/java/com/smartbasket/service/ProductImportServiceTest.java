@@ -0,0 +1,165 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CatalogProduct;
+import com.smartbasket.dto.ImportReport;
+import com.smartbasket.service.ProductImportService.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private HotStockService hotStockService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void csvRowsThatFailValidationAreRejectedWithTheirLine() {
+        String sku = prefix();
+        String csv = "sku,name,category,brand,price,stock,description\n"
+                + sku + "1,Milk,Dairy,Amul,30.00,10,\"Toned, 1L\"\n"
+                + sku + "2,,Dairy,Amul,20.00,5,\n"
+                + sku + "3,Curd,Dairy,Amul,abc,5,\n"
+                + "\n"
+                + sku + "4,Ghee,Dairy,Amul,500.00,-1,\n"
+                + sku + "5,Cheese,Dairy,Amul,12.345,1,\n"
+                + sku + "6,Butter,Dairy,Amul,55.5,2,\"Salted\nblock\"\n"
+                + sku + "7,Paneer,Dairy,Amul,90.00,3,\"Fresh\n";
+        
+        ImportReport report = run(csv, Format.CSV);
+        
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getRowsRead()).isEqualTo(7);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(5);
+        // The blank line still counts and the multi-line record is reported at its first line
+        assertThat(report.getRejectSamples()).containsExactlyInAnyOrder(
+                "line 3: name is required",
+                "line 4: price is not a number",
+                "line 6: stock must not be negative",
+                "line 7: price has more than 2 decimal places",
+                "line 10: unterminated quoted field");
+        
+        assertThat(stock(sku + "1")).isEqualTo(10);
+        assertThat(catalogProduct(sku + "1").getDescription()).isEqualTo("Toned, 1L");
+        assertThat(catalogProduct(sku + "6").getDescription()).isEqualTo("Salted\nblock");
+        assertThat(rows(sku)).isEqualTo(2);
+    }
+    
+    @Test
+    void ndjsonLinesThatAreNotObjectsAreRejected() {
+        String sku = prefix();
+        String ndjson = "{\"sku\":\"" + sku + "1\",\"name\":\"Rice\",\"category\":\"Grains\",\"brand\":\"Daawat\","
+                + "\"price\":120.50,\"stock\":40,\"imageUrl\":\"/img/rice.png\"}\n"
+                + "{\"sku\":\"" + sku + "2\",\"name\":\"Dal\"\n"
+                + "[1,2,3]\n"
+                + "\n"
+                + "{\"sku\":\"" + sku + "3\",\"name\":\"Oil\",\"category\":\"Grocery\",\"brand\":\"Fortune\","
+                + "\"price\":0}\n";
+        
+        ImportReport report = run(ndjson, Format.NDJSON);
+        
+        assertThat(report.getRowsRead()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejectSamples()).containsExactlyInAnyOrder(
+                "line 2: malformed JSON",
+                "line 3: expected a JSON object",
+                "line 5: price must be between 0.01 and 99999999.99");
+        
+        CatalogProduct rice = catalogProduct(sku + "1");
+        assertThat(rice.getPrice()).isEqualByComparingTo("120.50");
+        assertThat(rice.getImageUrl()).isEqualTo("/img/rice.png");
+        assertThat(rice.getStock()).isEqualTo(40);
+    }
+    
+    @Test
+    void reimportUpdatesProductsInPlaceBySku() {
+        String sku = prefix();
+        run("sku,name,category,brand,price,stock\n"
+                + sku + "1,Tea,Beverages,Tata,150.00,20\n", Format.CSV);
+        Long id = catalogProduct(sku + "1").getId();
+        
+        ImportReport report = run("{\"sku\":\"" + sku + "1\",\"name\":\"Tea Gold\",\"category\":\"Beverages\","
+                + "\"brand\":\"Tata\",\"price\":175.00,\"stock\":35}\n"
+                + "{\"sku\":\"" + sku + "2\",\"name\":\"Coffee\",\"category\":\"Beverages\","
+                + "\"brand\":\"Bru\",\"price\":210.00}\n", Format.NDJSON);
+        
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(rows(sku)).isEqualTo(2);
+        CatalogProduct tea = catalogProduct(sku + "1");
+        assertThat(tea.getId()).isEqualTo(id);
+        assertThat(tea.getName()).isEqualTo("Tea Gold");
+        assertThat(tea.getPrice()).isEqualByComparingTo("175.00");
+        assertThat(tea.getStock()).isEqualTo(35);
+    }
+    
+    @Test
+    void reimportLeavesHotStockAlone() {
+        String sku = prefix();
+        run("sku,name,category,brand,price,stock\n"
+                + sku + "1,Sugar,Grocery,Madhur,45.00,50\n", Format.CSV);
+        Long id = catalogProduct(sku + "1").getId();
+        hotStockService.setHotStock(id, true);
+        
+        run("sku,name,category,brand,price,stock\n"
+                + sku + "1,Sugar,Grocery,Madhur,48.00,999\n", Format.CSV);
+        
+        // The counter owns the stock of a hot product, so only the other columns change
+        assertThat(stock(sku + "1")).isEqualTo(50);
+        assertThat(catalogProduct(sku + "1").getPrice()).isEqualByComparingTo(new BigDecimal("48.00"));
+        assertThat(hotStockService.getAvailable().get(id)).isEqualTo(50);
+        hotStockService.setHotStock(id, false);
+    }
+    
+    @Test
+    void missingRequiredColumnFailsTheWholeImport() {
+        assertThatThrownBy(() -> run("sku,name,category,brand\nX-1,Salt,Grocery,Tata\n", Format.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("price");
+        assertThatThrownBy(() -> run("", Format.CSV))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private ImportReport run(String content, Format format) {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+    
+    private CatalogProduct catalogProduct(String sku) {
+        return productService.getAllProducts().stream()
+                .filter(product -> sku.equals(product.getSku()))
+                .findFirst()
+                .orElseThrow();
+    }
+    
+    private Integer stock(String sku) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE sku = ?", Integer.class, sku);
+    }
+    
+    private Integer rows(String prefix) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE sku LIKE ?", Integer.class, prefix + "%");
+    }
+    
+    // SKUs unique to one test, so imports in the shared context never collide
+    private static String prefix() {
+        return "T" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    }
+}
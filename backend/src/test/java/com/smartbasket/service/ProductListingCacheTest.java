@@ -0,0 +1,115 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.ResponseCacheStats;
+import com.smartbasket.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductListingCacheTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    private final List<Long> created = new ArrayList<>();
+    
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(productService, "stockRefreshMillis", 5000L);
+        created.forEach(productService::deleteProduct);
+    }
+    
+    @Test
+    void equivalentQueriesShareOneEntry() {
+        String category = category();
+        save("Milk", category, 10);
+        
+        EncodedResponse first = list("  " + category.toUpperCase() + " ", null);
+        ResponseCacheStats before = productService.getResponseCacheStats();
+        EncodedResponse second = list(category, null);
+        
+        assertThat(second).isSameAs(first);
+        assertThat(productService.getResponseCacheStats().getHits()).isEqualTo(before.getHits() + 1);
+        // Paging parameters are part of the key, with fields in any order
+        EncodedResponse page = list(category, "price,name");
+        assertThat(page).isNotSameAs(first);
+        assertThat(list(category, "name, price")).isSameAs(page);
+    }
+    
+    @Test
+    void savesAndDeletesInvalidateListings() {
+        String category = category();
+        save("Milk", category, 10);
+        EncodedResponse before = list(category, null);
+        
+        Product curd = save("Curd", category, 4);
+        EncodedResponse afterSave = list(category, null);
+        assertThat(afterSave).isNotSameAs(before);
+        assertThat(text(afterSave)).contains("Curd");
+        
+        productService.deleteProduct(curd.getId());
+        created.remove(curd.getId());
+        assertThat(text(list(category, null))).doesNotContain("Curd");
+    }
+    
+    @Test
+    void onlySellingOutInvalidatesListingsAtOnce() {
+        String category = category();
+        Product milk = save("Milk", category, 3);
+        EncodedResponse before = list(category, null);
+        
+        productService.applyStockReservations(Map.of(milk.getId(), 1));
+        assertThat(list(category, null)).isSameAs(before);
+        
+        productService.applyStockReservations(Map.of(milk.getId(), 2));
+        EncodedResponse soldOut = list(category, null);
+        assertThat(soldOut).isNotSameAs(before);
+        assertThat(text(soldOut)).contains("\"stock\":0");
+    }
+    
+    @Test
+    void staleStockCountsAreRefreshedAfterTheInterval() {
+        String category = category();
+        Product milk = save("Milk", category, 10);
+        EncodedResponse before = list(category, null);
+        productService.applyStockReservations(Map.of(milk.getId(), 1));
+        assertThat(list(category, null)).isSameAs(before);
+        
+        ReflectionTestUtils.setField(productService, "stockRefreshMillis", 0L);
+        
+        assertThat(text(list(category, null))).contains("\"stock\":9");
+    }
+    
+    private EncodedResponse list(String category, String fields) {
+        return productService.getProductsJson(category, null, null, null, null, null, fields, 20);
+    }
+    
+    private Product save(String name, String category, int stock) {
+        Product product = new Product(name, category, "Amul", new BigDecimal("30.00"));
+        product.setStock(stock);
+        Product saved = productService.saveProduct(product);
+        created.add(saved.getId());
+        return saved;
+    }
+    
+    // A category of its own, so listings from other tests never share an entry
+    private static String category() {
+        return "Cat" + UUID.randomUUID().toString().substring(0, 8);
+    }
+    
+    private static String text(EncodedResponse response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Product;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static com.smartbasket.service.ProductCatalogIndexTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+    
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    
+    @Test
+    void pluralsAndTyposFallBackToTheNearestTerm() {
+        index.rebuild(List.of(
+                product(1L, "Tomatoes", "Vegetables", "Fresho", "40.00", 10),
+                product(2L, "Paneer", "Dairy", "Amul", "90.00", 10),
+                product(3L, "Potato", "Vegetables", "Fresho", "30.00", 10)));
+        
+        assertThat(index.search("tomatos")).containsExactly(1L);
+        assertThat(index.search("tomato")).containsExactly(1L);
+        assertThat(index.search("tomatto")).containsExactly(1L);
+        assertThat(index.search("panner")).containsExactly(2L);
+        assertThat(index.search("qwertyuiop")).isEmpty();
+    }
+    
+    @Test
+    void onlyTheLastTokenMatchesAsAPrefix() {
+        index.rebuild(List.of(
+                product(1L, "Paneer", "Dairy", "Amul", "90.00", 10),
+                product(2L, "Pancake Mix", "Bakery", "Pillsbury", "120.00", 10),
+                product(3L, "Milk", "Dairy", "Amul", "30.00", 10)));
+        
+        assertThat(index.search("pan")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("amul pan")).containsExactly(1L);
+        // Typed in full before another word, "pan" has to match a whole term
+        assertThat(index.search("pan amul")).isEmpty();
+    }
+    
+    @Test
+    void rankingFavoursNameHitsAndExactTerms() {
+        Product kit = product(2L, "Biryani Kit", "Grocery", "Tata", "250.00", 10);
+        kit.setDescription("Spices to cook with basmati rice");
+        index.rebuild(List.of(
+                product(1L, "Basmati Rice", "Grains", "Daawat", "120.00", 10),
+                kit,
+                product(3L, "Sugar Free Natura Sweetener Pellets", "Grocery", "Sugar Free", "180.00", 10),
+                product(4L, "Sugar", "Grocery", "Madhur", "45.00", 10)));
+        
+        // A name hit outweighs the same word in a description
+        assertThat(index.search("basmati")).containsExactly(1L, 2L);
+        assertThat(index.search("rice")).containsExactly(1L, 2L);
+        // The shorter name is the closer match, even with the term repeated in the longer one
+        assertThat(index.search("sugar")).containsExactly(4L, 3L);
+        // A rarer term counts for more than a common one
+        assertThat(index.search("tata grocery")).containsExactly(2L);
+    }
+    
+    @Test
+    void productsAreAddedReplacedAndRemovedOneAtATime() {
+        index.rebuild(List.of(product(1L, "Paneer", "Dairy", "Amul", "90.00", 10)));
+        
+        index.index(product(2L, "Ghee", "Dairy", "Amul", "500.00", 10));
+        assertThat(index.search("ghee")).containsExactly(2L);
+        assertThat(index.search("amul")).containsExactly(1L, 2L);
+        
+        // Re-indexing drops the old terms
+        index.index(product(2L, "Butter", "Dairy", "Amul", "55.00", 10));
+        assertThat(index.search("ghee")).isEmpty();
+        assertThat(index.search("butter")).containsExactly(2L);
+        
+        index.remove(1L);
+        assertThat(index.search("paneer")).isEmpty();
+        // Trigrams of a removed term no longer feed the typo fallback
+        assertThat(index.search("panner")).isEmpty();
+        assertThat(index.search("amul")).containsExactly(2L);
+        
+        index.remove(1L);
+        index.remove(99L);
+        assertThat(index.search("butter")).containsExactly(2L);
+    }
+}
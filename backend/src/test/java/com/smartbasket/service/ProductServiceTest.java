@@ -0,0 +1,42 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.CatalogProduct;
+import com.smartbasket.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void searchFollowsSavesAndDeletes() {
+        // Words no other test indexes
+        String first = "kulfi" + UUID.randomUUID().toString().substring(0, 8);
+        String second = "falooda" + UUID.randomUUID().toString().substring(0, 8);
+        Product product = new Product(first, "Frozen", "Amul", new BigDecimal("35.00"));
+        product.setStock(5);
+        Product saved = productService.saveProduct(product);
+        
+        assertThat(productService.searchProducts(first)).extracting(CatalogProduct::getId).containsExactly(saved.getId());
+        // Typeahead on the saved name
+        assertThat(productService.searchProducts(first.substring(0, first.length() - 2)))
+                .extracting(CatalogProduct::getId).contains(saved.getId());
+        
+        saved.setName(second);
+        productService.saveProduct(saved);
+        assertThat(productService.searchProducts(first)).isEmpty();
+        assertThat(productService.searchProducts(second)).extracting(CatalogProduct::getId).containsExactly(saved.getId());
+        
+        productService.deleteProduct(saved.getId());
+        assertThat(productService.searchProducts(second)).isEmpty();
+    }
+}
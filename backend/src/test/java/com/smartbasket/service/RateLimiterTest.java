@@ -0,0 +1,96 @@
+package com.smartbasket.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+    
+    private static final int THREADS = 32;
+    
+    @Test
+    void oneKeyAllowsExactlyTheBurstUnderContention() throws Exception {
+        // One token a minute, so nothing refills while the test runs
+        RateLimiter limiter = new RateLimiter(1, 50, 1000);
+        
+        int allowed = hammer(limiter, i -> "email:a@example.com", 200);
+        
+        assertThat(allowed).isEqualTo(50);
+        assertThat(limiter.getAllowed()).isEqualTo(50);
+        assertThat(limiter.getLimited()).isEqualTo(THREADS * 200 - 50);
+    }
+    
+    @Test
+    void keysAreLimitedIndependentlyUnderContention() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 5, 1000);
+        
+        int allowed = hammer(limiter, i -> "ip:10.0.0." + (i % 64), 100);
+        
+        assertThat(allowed).isEqualTo(64 * 5);
+        assertThat(limiter.size()).isEqualTo(64);
+    }
+    
+    @Test
+    void refusalReportsTheWaitUntilTheNextToken() {
+        RateLimiter limiter = new RateLimiter(60, 2, 10);
+        assertThat(limiter.acquire("k")).isZero();
+        assertThat(limiter.acquire("k")).isZero();
+        
+        long wait = limiter.acquire("k");
+        // One token per second
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+    
+    @Test
+    void newKeysPassUntrackedWhenTheMapIsFull() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2);
+        limiter.acquire("a");
+        limiter.acquire("b");
+        
+        assertThat(limiter.acquire("c")).isZero();
+        assertThat(limiter.acquire("c")).isZero();
+        assertThat(limiter.getUntracked()).isEqualTo(2);
+        // Tracked keys are still limited
+        assertThat(limiter.acquire("a")).isPositive();
+    }
+    
+    @Test
+    void limitsMustBePositive() {
+        assertThatThrownBy(() -> new RateLimiter(0, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(1, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    // All threads start together and each makes perThread calls; returns how many were allowed
+    private static int hammer(RateLimiter limiter, IntFunction<String> key, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int allowed = 0;
+                for (int i = 0; i < perThread; i++) {
+                    if (limiter.acquire(key.apply(i)) == 0) {
+                        allowed++;
+                    }
+                }
+                return allowed;
+            }));
+        }
+        start.countDown();
+        int allowed = 0;
+        for (Future<Integer> result : results) {
+            allowed += result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return allowed;
+    }
+}
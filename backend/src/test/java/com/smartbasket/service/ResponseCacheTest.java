@@ -0,0 +1,74 @@
+package com.smartbasket.service;
+
+import com.smartbasket.dto.ResponseCacheStats;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+    
+    @Test
+    void hitsUntilTheVersionMoves() {
+        ResponseCache cache = new ResponseCache(10, 1 << 20);
+        AtomicInteger encodes = new AtomicInteger();
+        
+        EncodedResponse first = cache.get("a", 1, () -> body("one", encodes));
+        assertThat(cache.get("a", 1, () -> body("two", encodes))).isSameAs(first);
+        EncodedResponse rebuilt = cache.get("a", 2, () -> body("three", encodes));
+        
+        assertThat(rebuilt).isNotSameAs(first);
+        assertThat(encodes).hasValue(2);
+        ResponseCacheStats stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(2);
+        assertThat(stats.getSize()).isEqualTo(1);
+        assertThat(stats.getBytes()).isEqualTo(rebuilt.size());
+    }
+    
+    @Test
+    void evictsTheLeastRecentlyUsedEntryOverTheEntryLimit() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(2, 1 << 20);
+        EncodedResponse a = cache.get("a", 1, () -> body("a", null));
+        Thread.sleep(1);
+        cache.get("b", 1, () -> body("b", null));
+        Thread.sleep(1);
+        // Touching a makes b the eldest
+        cache.get("a", 1, () -> body("a again", null));
+        Thread.sleep(1);
+        cache.get("c", 1, () -> body("c", null));
+        
+        assertThat(cache.stats().getSize()).isEqualTo(2);
+        assertThat(cache.get("a", 1, () -> body("a rebuilt", null))).isSameAs(a);
+        AtomicInteger encodes = new AtomicInteger();
+        cache.get("b", 1, () -> body("b rebuilt", encodes));
+        assertThat(encodes).hasValue(1);
+    }
+    
+    @Test
+    void staysWithinTheByteLimitAndSkipsOversizedBodies() {
+        ResponseCache cache = new ResponseCache(100, 400);
+        for (int i = 0; i < 10; i++) {
+            cache.get("key" + i, 1, () -> EncodedResponse.of(new byte[90]));
+        }
+        assertThat(cache.stats().getBytes()).isLessThanOrEqualTo(400);
+        assertThat(cache.stats().getSize()).isEqualTo(4);
+        
+        // More than a quarter of the budget is served but never stored
+        cache.get("big", 1, () -> EncodedResponse.of(new byte[101]));
+        assertThat(cache.stats().getSize()).isEqualTo(4);
+        AtomicInteger encodes = new AtomicInteger();
+        cache.get("big", 1, () -> {
+            encodes.incrementAndGet();
+            return EncodedResponse.of(new byte[101]);
+        });
+        assertThat(encodes).hasValue(1);
+    }
+    
+    private static EncodedResponse body(String text, AtomicInteger encodes) {
+        if (encodes != null) {
+            encodes.incrementAndGet();
+        }
+        return EncodedResponse.of(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartbasket.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockCounterTest {
+    
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2_000;
+    
+    @Test
+    void competingGatherersNeverFailWhileStockLasts() throws Exception {
+        // Demand matches supply exactly, and each request is bigger than most stripes hold near the end
+        int quantity = 3;
+        StripedStockCounter counter = new StripedStockCounter(1L, (long) THREADS * ROUNDS * quantity);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            failures.add(pool.submit(() -> {
+                start.await();
+                int failed = 0;
+                for (int i = 0; i < ROUNDS; i++) {
+                    if (!counter.tryReserve(quantity)) {
+                        failed++;
+                    }
+                }
+                return failed;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        
+        for (Future<Integer> failed : failures) {
+            assertThat(failed.get()).isZero();
+        }
+        assertThat(counter.available()).isZero();
+        assertThat(counter.tryReserve(1)).isFalse();
+    }
+    
+    @Test
+    void shortStockIsNeverOversold() {
+        StripedStockCounter counter = new StripedStockCounter(1L, 5);
+        assertThat(counter.tryReserve(4)).isTrue();
+        assertThat(counter.tryReserve(2)).isFalse();
+        assertThat(counter.available()).isEqualTo(1);
+        counter.release(3);
+        assertThat(counter.tryReserve(4)).isTrue();
+        assertThat(counter.available()).isZero();
+    }
+}
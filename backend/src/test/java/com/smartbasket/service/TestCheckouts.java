@@ -0,0 +1,26 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Product;
+import com.smartbasket.entity.User;
+import com.smartbasket.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Products and buyers for checkout tests. Names are unique, so tests that
+ * share one application context never see each other's rows.
+ */
+final class TestCheckouts {
+    
+    private TestCheckouts() {}
+    
+    static Long saleProduct(ProductService productService, int stock) {
+        Product product = new Product("Flash Sale " + UUID.randomUUID(), "Snacks", "Lays", new BigDecimal("20.00"));
+        product.setStock(stock);
+        return productService.saveProduct(product).getId();
+    }
+    
+    static Long buyer(UserRepository userRepository) {
+        return userRepository.save(new User(UUID.randomUUID() + "@example.com", "x", "Buyer")).getId();
+    }
+}
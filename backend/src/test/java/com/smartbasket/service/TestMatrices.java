@@ -0,0 +1,41 @@
+package com.smartbasket.service;
+
+import com.smartbasket.entity.Platform;
+import com.smartbasket.repository.PlatformPriceRepository.PriceRow;
+import java.math.BigDecimal;
+
+/**
+ * Builders for platforms and price rows, for tests that need a
+ * {@link PriceMatrix} without a database.
+ */
+final class TestMatrices {
+    
+    private TestMatrices() {}
+    
+    static Platform platform(long id, String deliveryFee, String freeDeliveryThreshold, int minutes) {
+        Platform platform = new Platform("Platform " + id, new BigDecimal(deliveryFee),
+                new BigDecimal(freeDeliveryThreshold), minutes, "https://example.com/" + id);
+        platform.setId(id);
+        return platform;
+    }
+    
+    static PriceRow row(long productId, long platformId, String price) {
+        BigDecimal amount = new BigDecimal(price);
+        return new PriceRow() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+            
+            @Override
+            public Long getPlatformId() {
+                return platformId;
+            }
+            
+            @Override
+            public BigDecimal getPrice() {
+                return amount;
+            }
+        };
+    }
+}
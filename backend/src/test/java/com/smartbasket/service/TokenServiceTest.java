@@ -0,0 +1,149 @@
+package com.smartbasket.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenServiceTest {
+    
+    private static final String SECRET = "test-secret-with-enough-bytes-for-hmac";
+    
+    @Test
+    void issuedTokenVerifiesToItsUser() {
+        TokenService tokens = tokenService(SECRET, 60);
+        assertThat(tokens.verify(tokens.issue(42L))).isEqualTo(42L);
+    }
+    
+    @Test
+    void tamperedPayloadIsRejected() {
+        TokenService tokens = tokenService(SECRET, 60);
+        String token = tokens.issue(42L);
+        String signature = token.substring(token.indexOf('.') + 1);
+        
+        // Same signature on a payload claiming another user
+        long expiresAt = ByteBuffer.wrap(decode(token.substring(0, token.indexOf('.')))).getLong(8);
+        String forged = encode(payload(1L, expiresAt)) + "." + signature;
+        
+        assertThat(tokens.verify(forged)).isNull();
+    }
+    
+    @Test
+    void tamperedSignatureIsRejected() {
+        TokenService tokens = tokenService(SECRET, 60);
+        String token = tokens.issue(42L);
+        byte[] signature = decode(token.substring(token.indexOf('.') + 1));
+        signature[0] ^= 1;
+        String forged = token.substring(0, token.indexOf('.') + 1) + encode(signature);
+        
+        assertThat(tokens.verify(forged)).isNull();
+        // A rejected token is never cached, so asking again still checks the MAC
+        assertThat(tokens.verify(forged)).isNull();
+        assertThat(tokens.getCacheHits()).isZero();
+    }
+    
+    @Test
+    void tokenFromAnotherSecretIsRejected() {
+        String token = tokenService("some-other-secret-entirely-different", 60).issue(42L);
+        assertThat(tokenService(SECRET, 60).verify(token)).isNull();
+    }
+    
+    @Test
+    void malformedTokensAreRejected() {
+        TokenService tokens = tokenService(SECRET, 60);
+        String token = tokens.issue(42L);
+        
+        assertThat(tokens.verify(null)).isNull();
+        assertThat(tokens.verify("")).isNull();
+        assertThat(tokens.verify("no-dot")).isNull();
+        assertThat(tokens.verify("." + token)).isNull();
+        assertThat(tokens.verify(token + ".extra")).isNull();
+        assertThat(tokens.verify("!!!." + token.substring(token.indexOf('.') + 1))).isNull();
+        // A validly signed payload of the wrong length
+        String shortPayload = encode(new byte[8]);
+        assertThat(tokens.verify(shortPayload + "." + encode(hmac(SECRET, shortPayload)))).isNull();
+    }
+    
+    @Test
+    void expiredTokenIsRejected() {
+        TokenService tokens = tokenService(SECRET, 0);
+        assertThat(tokens.verify(tokens.issue(42L))).isNull();
+    }
+    
+    @Test
+    void cachedTokenStillExpires() throws InterruptedException {
+        TokenService tokens = tokenService(SECRET, 60);
+        // At least a whole second away, so the first check cannot land on the boundary
+        long expiresAt = System.currentTimeMillis() / 1000 + 2;
+        String encoded = encode(payload(42L, expiresAt));
+        String token = encoded + "." + encode(hmac(SECRET, encoded));
+        
+        assertThat(tokens.verify(token)).isEqualTo(42L);
+        while (System.currentTimeMillis() / 1000 < expiresAt) {
+            Thread.sleep(50);
+        }
+        
+        assertThat(tokens.verify(token)).isNull();
+        assertThat(tokens.getCacheHits()).isEqualTo(1);
+    }
+    
+    @Test
+    void cacheStaysWithinItsLimit() {
+        TokenService tokens = tokenService(SECRET, 60);
+        for (long userId = 1; userId <= 500; userId++) {
+            assertThat(tokens.verify(tokens.issue(userId))).isEqualTo(userId);
+        }
+        
+        Map<?, ?> cached = (Map<?, ?>) ReflectionTestUtils.getField(tokens, "verified");
+        assertThat(cached).hasSizeLessThanOrEqualTo(100);
+        // The token just verified survives the trim
+        String last = tokens.issue(501L);
+        tokens.verify(last);
+        assertThat(tokens.verify(last)).isEqualTo(501L);
+        assertThat(tokens.getCacheHits()).isEqualTo(1);
+    }
+    
+    @Test
+    void bearerHeaderIsParsed() {
+        assertThat(TokenService.fromHeader("Bearer abc.def")).isEqualTo("abc.def");
+        assertThat(TokenService.fromHeader("bearer  abc.def ")).isEqualTo("abc.def");
+        assertThat(TokenService.fromHeader("Basic abc")).isNull();
+        assertThat(TokenService.fromHeader(null)).isNull();
+    }
+    
+    private static TokenService tokenService(String secret, long ttlMinutes) {
+        TokenService tokens = new TokenService();
+        ReflectionTestUtils.setField(tokens, "secret", secret);
+        ReflectionTestUtils.setField(tokens, "ttlMinutes", ttlMinutes);
+        ReflectionTestUtils.setField(tokens, "cacheSize", 100);
+        tokens.init();
+        return tokens;
+    }
+    
+    private static byte[] payload(long userId, long expiresAt) {
+        return ByteBuffer.allocate(16).putLong(userId).putLong(expiresAt).array();
+    }
+    
+    private static byte[] hmac(String secret, String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    private static byte[] decode(String text) {
+        return Base64.getUrlDecoder().decode(text);
+    }
+}